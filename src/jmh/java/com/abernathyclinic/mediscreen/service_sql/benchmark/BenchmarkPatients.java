@@ -0,0 +1,19 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.time.LocalDate;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Build the patients used by the benchmarks. <br>
+ */
+final class BenchmarkPatients {
+
+	private BenchmarkPatients() {
+	}
+
+	static Patient patient(int index) {
+		return new Patient("LastName" + index, "FirstName" + index, LocalDate.of(1970, 1, 1), "Female",
+				index + " Benchmark Street, Springfield", "555-010-" + (1000 + index % 9000));
+	}
+}
@@ -0,0 +1,107 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.web.context.request.WebRequest;
+
+import com.abernathyclinic.mediscreen.service_sql.LoggingAspect;
+import com.abernathyclinic.mediscreen.service_sql.coalescing.PatientReadCoalescer;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark of the call path of {@link PatientController#getPatientByUUID},
+ * with and without the {@link LoggingAspect} advice. <br>
+ * The repository and the request are replaced by in-memory stubs, so only the
+ * controller and the advice are measured. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControllerCallBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean perCallLogging;
+
+	private PatientController plainController;
+	private PatientController advisedController;
+	private UUID uuid;
+	private WebRequest webRequest;
+	private HttpServletResponse httpServletResponse;
+
+	@Setup
+	public void setUp() throws Exception {
+		Patient patient = BenchmarkPatients.patient(0);
+		uuid = UUID.randomUUID();
+		PatientRepository patientRepository = (PatientRepository) Proxy.newProxyInstance(
+				PatientRepository.class.getClassLoader(), new Class<?>[] { PatientRepository.class },
+				(proxy, method, args) -> {
+					if ("findById".equals(method.getName())) {
+						return Optional.of(patient);
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+
+		// An unconditional request, without If-None-Match
+		webRequest = stub(WebRequest.class);
+		httpServletResponse = stub(HttpServletResponse.class);
+
+		plainController = controller(patientRepository);
+		AspectJProxyFactory aspectJProxyFactory = new AspectJProxyFactory(controller(patientRepository));
+		aspectJProxyFactory.setProxyTargetClass(true);
+		aspectJProxyFactory.addAspect(new LoggingAspect(new SimpleMeterRegistry(), perCallLogging));
+		advisedController = aspectJProxyFactory.getProxy();
+	}
+
+	private static PatientController controller(PatientRepository patientRepository) throws Exception {
+		PatientController patientController = new PatientController();
+		set(patientController, "patientRepository", patientRepository);
+		// The cache is disabled so that every call reaches the repository
+		set(patientController, "patientCache", new PatientCache(false, 0, Duration.ZERO, Duration.ZERO));
+		// As is the coalescing, a single caller never shares its reads
+		set(patientController, "patientReadCoalescer",
+				new PatientReadCoalescer(patientRepository, false, 0, Duration.ZERO));
+		return patientController;
+	}
+
+	private static <T> T stub(Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				(proxy, method, args) -> null));
+	}
+
+	private static void set(Object target, String fieldName, Object value) throws Exception {
+		Field field = target.getClass().getDeclaredField(fieldName);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+
+	@Benchmark
+	public Patient plainCall() {
+		return plainController.getPatientByUUID(uuid, webRequest, httpServletResponse);
+	}
+
+	@Benchmark
+	public Patient advisedCall() {
+		return advisedController.getPatientByUUID(uuid, webRequest, httpServletResponse);
+	}
+}
@@ -0,0 +1,124 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Benchmark of the encodings a page of {@link Patient} can be served in: JSON,
+ * JSON compressed with gzip, CBOR and Smile. <br>
+ * Besides the time to encode and decode the page, the {@code bytes} counter of
+ * the encoding benchmark reports the size of the payload. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientEncodingBenchmark {
+
+	@Param({ "json", "json-gzip", "cbor", "smile" })
+	private String encoding;
+
+	@Param({ "20" })
+	private int pageSize;
+
+	private ObjectWriter objectWriter;
+	private ObjectReader objectReader;
+	private boolean gzip;
+	private PatientPage<Patient> page;
+	private byte[] payload;
+
+	/**
+	 * Size of the payload, reported along with the time of the encoding. <br>
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PayloadSize {
+
+		public long bytes;
+	}
+
+	@Setup
+	public void setUp() throws Exception {
+		// Built as by Spring Boot, which writes the dates of birth as yyyy-MM-dd
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory())
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		objectWriter = objectMapper.writer();
+		objectReader = objectMapper.readerFor(new TypeReference<PatientPage<Patient>>() {
+		});
+		gzip = encoding.endsWith("-gzip");
+
+		List<Patient> patients = new ArrayList<>(pageSize);
+		for (int index = 0; index < pageSize; index++) {
+			patients.add(BenchmarkPatients.patient(index));
+		}
+		page = new PatientPage<>(patients, "djE6YjQyYThlZjUtOGJhYS00YmMyLTg5YWEtZDE4Y2RjMzIzOWY5");
+		payload = encode(page);
+	}
+
+	private JsonFactory factory() {
+		switch (encoding) {
+		case "cbor":
+			return new CBORFactory();
+		case "smile":
+			return new SmileFactory();
+		default:
+			return new JsonFactory();
+		}
+	}
+
+	@Benchmark
+	public byte[] encode(PayloadSize payloadSize) throws Exception {
+		byte[] encoded = encode(page);
+		payloadSize.bytes = encoded.length;
+		return encoded;
+	}
+
+	@Benchmark
+	public PatientPage<Patient> decode() throws Exception {
+		if (!gzip) {
+			return objectReader.readValue(payload);
+		}
+		try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+			return objectReader.readValue(inputStream);
+		}
+	}
+
+	private byte[] encode(PatientPage<Patient> page) throws Exception {
+		if (!gzip) {
+			return objectWriter.writeValueAsBytes(page);
+		}
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+		try (OutputStream outputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+			objectWriter.writeValue(outputStream, page);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+}
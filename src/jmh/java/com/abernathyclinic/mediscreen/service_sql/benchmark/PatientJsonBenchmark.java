@@ -0,0 +1,53 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Benchmark of the JSON serialization and deserialization of a {@link Patient},
+ * done on every request and response body. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientJsonBenchmark {
+
+	private ObjectWriter objectWriter;
+	private ObjectReader objectReader;
+	private Patient patient;
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws Exception {
+		// Dates of birth written as yyyy-MM-dd, as by the ObjectMapper of Spring Boot
+		ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		objectWriter = objectMapper.writerFor(Patient.class);
+		objectReader = objectMapper.readerFor(Patient.class);
+		patient = BenchmarkPatients.patient(0);
+		json = objectWriter.writeValueAsBytes(patient);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws Exception {
+		return objectWriter.writeValueAsBytes(patient);
+	}
+
+	@Benchmark
+	public Patient deserialize() throws Exception {
+		return objectReader.readValue(json);
+	}
+}
@@ -0,0 +1,70 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSuggestion;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientNameIndex;
+
+/**
+ * Benchmark of the suggestions of {@code GET /patient/suggest}, over an index
+ * of generated names. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientNameIndexBenchmark {
+
+	private static final String[] SYLLABLES = { "ma", "du", "le", "ro", "ber", "ti", "pon", "nar", "ga", "li",
+			"vo", "san", "che", "mi", "re", "don" };
+
+	@Param({ "100000" })
+	private int patients;
+
+	private PatientNameIndex patientNameIndex;
+
+	@Setup
+	public void setUp() {
+		patientNameIndex = new PatientNameIndex(10000);
+		Random random = new Random(42);
+		for (int index = 0; index < patients; index++) {
+			patientNameIndex.put(new UUID(random.nextLong(), random.nextLong()), name(random, 3), name(random, 2),
+					LocalDate.of(1940 + random.nextInt(80), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+		}
+	}
+
+	@Benchmark
+	public List<PatientSuggestion> shortPrefix() {
+		return patientNameIndex.suggest("d", 10);
+	}
+
+	@Benchmark
+	public List<PatientSuggestion> lastNameAndFirstName() {
+		return patientNameIndex.suggest("duber ma", 10);
+	}
+
+	@Benchmark
+	public List<PatientSuggestion> soundsAlike() {
+		return patientNameIndex.suggest("dubertie", 10);
+	}
+
+	private static String name(Random random, int syllables) {
+		StringBuilder name = new StringBuilder();
+		for (int syllable = 0; syllable < syllables; syllable++) {
+			name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+		}
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+}
@@ -0,0 +1,87 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import com.abernathyclinic.mediscreen.service_sql.ServiceSqlApplication;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+/**
+ * Benchmark of the {@link PatientRepository} lookups against an in-memory H2
+ * database. <br>
+ * The application context is started once without the web server, then the
+ * table is seeded with {@code patients} rows. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientRepositoryBenchmark {
+
+	@Param({ "10000" })
+	public int patients;
+
+	private ConfigurableApplicationContext applicationContext;
+	private PatientRepository patientRepository;
+	private List<Patient> seededPatients;
+
+	@Setup
+	public void setUp() {
+		// Given as arguments to take precedence over application.properties
+		applicationContext = new SpringApplicationBuilder(ServiceSqlApplication.class).web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL", "--spring.datasource.username=sa",
+						"--spring.datasource.password=", "--spring.datasource.initialization-mode=always",
+						"--logging.level.root=warn");
+		patientRepository = applicationContext.getBean(PatientRepository.class);
+
+		List<Patient> patientsToSave = new ArrayList<>(patients);
+		for (int index = 0; index < patients; index++) {
+			patientsToSave.add(BenchmarkPatients.patient(index));
+		}
+		seededPatients = patientRepository.saveAll(patientsToSave);
+	}
+
+	@TearDown
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	private Patient randomPatient() {
+		return seededPatients.get(ThreadLocalRandom.current().nextInt(seededPatients.size()));
+	}
+
+	@Benchmark
+	public Optional<Patient> findById() {
+		return patientRepository.findById(randomPatient().getUuid());
+	}
+
+	@Benchmark
+	public List<Patient> findByLastNameAndFirstName() {
+		Patient patient = randomPatient();
+		return patientRepository.findByLastNameAndFirstName(patient.getLastName(), patient.getFirstName());
+	}
+
+	@Benchmark
+	public List<Patient> findKeysetPage() {
+		UUID after = randomPatient().getUuid();
+		return patientRepository.findByUuidGreaterThanOrderByUuidAsc(after, PageRequest.of(0, 20));
+	}
+}
@@ -0,0 +1,58 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Benchmark of the Bean Validation of a {@link Patient}, done by
+ * {@code @Valid} on every POST and PUT. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientValidationBenchmark {
+
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private Patient validPatient;
+	private Patient invalidPatient;
+
+	@Setup
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		validPatient = BenchmarkPatients.patient(0);
+		invalidPatient = new Patient("L", null, null, "", null, "555");
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Patient>> validPatient() {
+		return validator.validate(validPatient);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Patient>> invalidPatient() {
+		return validator.validate(invalidPatient);
+	}
+}
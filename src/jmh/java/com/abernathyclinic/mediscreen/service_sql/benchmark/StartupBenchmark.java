@@ -0,0 +1,67 @@
+package com.abernathyclinic.mediscreen.service_sql.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.abernathyclinic.mediscreen.service_sql.ServiceSqlApplication;
+
+/**
+ * Benchmark of the cold start of the application, from the start of the
+ * context to the response of the first request, against an in-memory H2
+ * database. <br>
+ * Each fork starts the application once in a fresh JVM, nothing is warmed up:
+ * the class loading, the migrations, the start of Hibernate and of the web
+ * server are all measured, the start of the JVM itself isn't. <br>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+public class StartupBenchmark {
+
+	@Param({ "default", "fast-start" })
+	public String profile;
+
+	private ConfigurableApplicationContext applicationContext;
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		applicationContext.close();
+	}
+
+	@Benchmark
+	public int timeToFirstRequest() throws IOException {
+		// Given as arguments to take precedence over application.properties
+		applicationContext = SpringApplication.run(ServiceSqlApplication.class, "--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL", "--spring.datasource.username=sa",
+				"--spring.datasource.password=", "--spring.profiles.active=" + profile, "--logging.level.root=warn");
+		int port = applicationContext.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/patient?size=1")
+				.openConnection();
+		try (InputStream body = connection.getInputStream()) {
+			body.readAllBytes();
+		}
+		return connection.getResponseCode();
+	}
+}
@@ -0,0 +1,295 @@
+package com.abernathyclinic.mediscreen.service_sql.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.abernathyclinic.mediscreen.service_sql.ServiceSqlApplication;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * HTTP load test of the application, run by the {@code loadTest} Gradle task.
+ * <br>
+ * It boots {@link ServiceSqlApplication} against an in-memory H2 database in
+ * PostgreSQL mode, seeds the patients, then sends a mixed workload at a fixed
+ * arrival rate. The requests never wait for the previous responses and each
+ * latency is measured from the time the request was scheduled to be sent, so
+ * the percentiles are corrected for the coordinated omission. <br>
+ * The process exits with an error when the thresholds of
+ * {@code load-test.properties} are exceeded. <br>
+ */
+public final class LoadTest {
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private final LoadTestSettings settings;
+	private final String baseUrl;
+	private final HttpClient httpClient;
+	private final Operation[] operationWheel;
+
+	private final List<Patient> stablePatients = new ArrayList<>();
+	private final Queue<UUID> deletablePatients = new ConcurrentLinkedQueue<>();
+	private final AtomicLong createdPatients = new AtomicLong();
+
+	private final Map<Operation, Histogram> correctedLatencies = new EnumMap<>(Operation.class);
+	private final Map<Operation, Histogram> uncorrectedLatencies = new EnumMap<>(Operation.class);
+	private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+	private final AtomicLong inFlight = new AtomicLong();
+
+	private LoadTest(LoadTestSettings settings, String baseUrl, ExecutorService executorService) {
+		this.settings = settings;
+		this.baseUrl = baseUrl;
+		this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executorService)
+				.connectTimeout(Duration.ofSeconds(5)).build();
+
+		List<Operation> wheel = new ArrayList<>();
+		settings.weights.forEach((operation, weight) -> {
+			for (int index = 0; index < weight; index++) {
+				wheel.add(operation);
+			}
+		});
+		this.operationWheel = wheel.toArray(new Operation[0]);
+
+		for (Operation operation : Operation.values()) {
+			correctedLatencies.put(operation, new ConcurrentHistogram(3));
+			uncorrectedLatencies.put(operation, new ConcurrentHistogram(3));
+			errors.put(operation, new AtomicLong());
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTestSettings settings = new LoadTestSettings();
+		System.out.println("Load test: " + settings);
+
+		ConfigurableApplicationContext applicationContext = SpringApplication.run(ServiceSqlApplication.class,
+				"--server.port=0", "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL",
+				"--spring.datasource.username=sa", "--spring.datasource.password=",
+				"--spring.datasource.initialization-mode=always", "--logging.level.root=warn");
+		ExecutorService executorService = Executors.newFixedThreadPool(settings.clients);
+		boolean passed;
+		try {
+			int port = ((WebServerApplicationContext) applicationContext).getWebServer().getPort();
+			LoadTest loadTest = new LoadTest(settings, "http://localhost:" + port, executorService);
+			loadTest.seed(applicationContext.getBean(PatientRepository.class));
+
+			loadTest.drive(settings.warmupSeconds, false);
+			long elapsedNanos = loadTest.drive(settings.durationSeconds, true);
+			passed = loadTest.report(elapsedNanos);
+		} finally {
+			executorService.shutdownNow();
+			applicationContext.close();
+		}
+		System.exit(passed ? 0 : 1);
+	}
+
+	private void seed(PatientRepository patientRepository) {
+		List<Patient> patients = new ArrayList<>();
+		for (int index = 0; index < settings.patients; index++) {
+			patients.add(patient("Stable" + index));
+		}
+		stablePatients.addAll(patientRepository.saveAll(patients));
+
+		patients.clear();
+		for (int index = 0; index < settings.deletablePatients(); index++) {
+			patients.add(patient("Deletable" + index));
+		}
+		patientRepository.saveAll(patients).forEach(patient -> deletablePatients.add(patient.getUuid()));
+		System.out.println("Seeded " + stablePatients.size() + " patients and " + deletablePatients.size()
+				+ " patients to delete");
+	}
+
+	private static Patient patient(String name) {
+		return new Patient("Last" + name, "First" + name, LocalDate.of(1970, 1, 1), "Female", "1 Load Test Street",
+				"555-010-0000");
+	}
+
+	/**
+	 * Send the requests at the configured rate during the given time, then wait
+	 * for the last responses. <br>
+	 * 
+	 * @return the time elapsed between the first request and the last response
+	 */
+	private long drive(int seconds, boolean record) throws InterruptedException {
+		long intervalNanos = NANOS_PER_SECOND / settings.rate;
+		long requests = (long) settings.rate * seconds;
+		long start = System.nanoTime();
+
+		for (long index = 0; index < requests; index++) {
+			long intendedStart = start + index * intervalNanos;
+			long wait;
+			while ((wait = intendedStart - System.nanoTime()) > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			send(operationWheel[ThreadLocalRandom.current().nextInt(operationWheel.length)], intendedStart, record);
+		}
+
+		while (inFlight.get() > 0) {
+			Thread.sleep(10);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private void send(Operation operation, long intendedStart, boolean record) {
+		UUID uuidToDelete = operation == Operation.DELETE ? deletablePatients.poll() : null;
+		if (operation == Operation.DELETE && uuidToDelete == null) {
+			operation = Operation.GET_BY_UUID;
+		}
+		Operation sentOperation = operation;
+		HttpRequest httpRequest = request(operation, uuidToDelete);
+
+		inFlight.incrementAndGet();
+		long sent = System.nanoTime();
+		httpClient.sendAsync(httpRequest, BodyHandlers.discarding()).whenComplete((httpResponse, throwable) -> {
+			long end = System.nanoTime();
+			if (record) {
+				correctedLatencies.get(sentOperation).recordValue(end - intendedStart);
+				uncorrectedLatencies.get(sentOperation).recordValue(end - sent);
+				if (throwable != null || httpResponse.statusCode() >= 400) {
+					errors.get(sentOperation).incrementAndGet();
+				}
+			}
+			inFlight.decrementAndGet();
+		});
+	}
+
+	private HttpRequest request(Operation operation, UUID uuidToDelete) {
+		Patient patient = stablePatients.get(ThreadLocalRandom.current().nextInt(stablePatients.size()));
+		switch (operation) {
+		case GET_BY_UUID:
+			return get("/patient/" + patient.getUuid());
+		case GET_BY_NAME:
+			return get("/patient/lastName&firstName?lastName=" + encode(patient.getLastName()) + "&firstName="
+					+ encode(patient.getFirstName()));
+		case LIST:
+			return get("/patient?size=20");
+		case CREATE:
+			return json("POST", "/patient", body("LastCreated" + createdPatients.incrementAndGet(), "FirstCreated"));
+		case UPDATE:
+			return json("PUT", "/patient/" + patient.getUuid(), body(patient.getLastName(), patient.getFirstName()));
+		case DELETE:
+			return HttpRequest.newBuilder(URI.create(baseUrl + "/patient/" + uuidToDelete)).DELETE().build();
+		default:
+			throw new IllegalArgumentException(operation.name());
+		}
+	}
+
+	private HttpRequest get(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+	}
+
+	private HttpRequest json(String method, String path, String body) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Content-Type", "application/json")
+				.method(method, BodyPublishers.ofString(body)).build();
+	}
+
+	private static String body(String lastName, String firstName) {
+		return "{\"lastName\": \"" + lastName + "\", \"firstName\": \"" + firstName
+				+ "\", \"dateOfBirth\": \"1970-01-01\", \"gender\": \"Female\", \"homeAddress\": \"1 Load Test Street\", \"phoneNumber\": \"555-010-"
+				+ (1000 + ThreadLocalRandom.current().nextInt(9000)) + "\"}";
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Print the results, write them as JSON and check the thresholds. <br>
+	 * 
+	 * @return whether every threshold is satisfied
+	 */
+	private boolean report(long elapsedNanos) throws Exception {
+		Histogram total = new Histogram(3);
+		long totalErrors = 0;
+		Map<String, Object> results = new LinkedHashMap<>();
+
+		System.out.printf("%-12s %8s %7s %9s %9s %9s %9s %9s %16s%n", "operation", "count", "errors", "p50 ms",
+				"p90 ms", "p99 ms", "p99.9 ms", "max ms", "p99 uncorr. ms");
+		for (Operation operation : Operation.values()) {
+			Histogram histogram = correctedLatencies.get(operation);
+			total.add(histogram);
+			totalErrors += errors.get(operation).get();
+			System.out.printf("%-12s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %16.2f%n", operation.getKey(),
+					histogram.getTotalCount(), errors.get(operation).get(), millis(histogram, 50),
+					millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+					histogram.getMaxValue() / 1e6, millis(uncorrectedLatencies.get(operation), 99));
+			results.put(operation.getKey(), percentiles(histogram, errors.get(operation).get()));
+		}
+
+		double throughput = total.getTotalCount() * (double) NANOS_PER_SECOND / elapsedNanos;
+		double p99 = millis(total, 99);
+		double errorRatio = total.getTotalCount() == 0 ? 1 : (double) totalErrors / total.getTotalCount();
+		System.out.printf("throughput: %.1f req/s for a target of %d req/s, p99: %.2f ms, errors: %.4f%%%n",
+				throughput, settings.rate, p99, errorRatio * 100);
+
+		List<String> violations = new ArrayList<>();
+		if (p99 > settings.p99ThresholdMillis) {
+			violations.add("p99 of " + p99 + " ms above the threshold of " + settings.p99ThresholdMillis + " ms");
+		}
+		if (throughput < settings.rate * settings.minThroughputRatio) {
+			violations.add("throughput of " + throughput + " req/s below " + settings.minThroughputRatio
+					+ " times the target rate");
+		}
+		if (errorRatio > settings.maxErrorRatio) {
+			violations.add("error ratio of " + errorRatio + " above the threshold of " + settings.maxErrorRatio);
+		}
+
+		results.put("total", percentiles(total, totalErrors));
+		results.put("throughput", throughput);
+		results.put("targetRate", settings.rate);
+		results.put("violations", violations);
+		String reportPath = System.getProperty("load-test.report");
+		if (reportPath != null) {
+			File reportFile = new File(reportPath);
+			reportFile.getParentFile().mkdirs();
+			new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(reportFile, results);
+		}
+
+		violations.forEach(violation -> System.out.println("REGRESSION: " + violation));
+		return violations.isEmpty();
+	}
+
+	private static Map<String, Object> percentiles(Histogram histogram, long errorCount) {
+		Map<String, Object> percentiles = new LinkedHashMap<>();
+		percentiles.put("count", histogram.getTotalCount());
+		percentiles.put("errors", errorCount);
+		percentiles.put("p50Millis", millis(histogram, 50));
+		percentiles.put("p90Millis", millis(histogram, 90));
+		percentiles.put("p99Millis", millis(histogram, 99));
+		percentiles.put("p999Millis", millis(histogram, 99.9));
+		percentiles.put("maxMillis", histogram.getMaxValue() / 1e6);
+		return percentiles;
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1e6;
+	}
+}
@@ -0,0 +1,70 @@
+package com.abernathyclinic.mediscreen.service_sql.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings of the load test, read from {@code load-test.properties} and
+ * overridden by the system properties of the same name. <br>
+ */
+class LoadTestSettings {
+
+	final int patients;
+	final int rate;
+	final int warmupSeconds;
+	final int durationSeconds;
+	final int clients;
+	final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+	final double p99ThresholdMillis;
+	final double minThroughputRatio;
+	final double maxErrorRatio;
+
+	private final Properties properties = new Properties();
+
+	LoadTestSettings() {
+		try (InputStream inputStream = LoadTestSettings.class.getResourceAsStream("/load-test.properties")) {
+			properties.load(inputStream);
+		} catch (IOException ioException) {
+			throw new UncheckedIOException(ioException);
+		}
+
+		patients = Integer.parseInt(get("patients"));
+		rate = Integer.parseInt(get("rate"));
+		warmupSeconds = Integer.parseInt(get("warmup-seconds"));
+		durationSeconds = Integer.parseInt(get("duration-seconds"));
+		clients = Integer.parseInt(get("clients"));
+		for (Operation operation : Operation.values()) {
+			weights.put(operation, Integer.parseInt(get("weight." + operation.getKey())));
+		}
+
+		p99ThresholdMillis = Double.parseDouble(get("threshold.p99-millis"));
+		minThroughputRatio = Double.parseDouble(get("threshold.min-throughput-ratio"));
+		maxErrorRatio = Double.parseDouble(get("threshold.max-error-ratio"));
+	}
+
+	private String get(String key) {
+		String name = "load-test." + key;
+		return System.getProperty(name, properties.getProperty(name));
+	}
+
+	/**
+	 * The number of patients to seed in the pool dedicated to the deletes, so that
+	 * the other operations never target a deleted patient. <br>
+	 */
+	int deletablePatients() {
+		int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+		long requests = (long) rate * (warmupSeconds + durationSeconds);
+		return (int) (requests * weights.get(Operation.DELETE) / Math.max(1, totalWeight)) + rate;
+	}
+
+	@Override
+	public String toString() {
+		return "patients=" + patients + ", rate=" + rate + "/s, warmup=" + warmupSeconds + "s, duration="
+				+ durationSeconds + "s, clients=" + clients + ", weights=" + weights;
+	}
+}
@@ -0,0 +1,21 @@
+package com.abernathyclinic.mediscreen.service_sql.loadtest;
+
+/**
+ * The operations of the mixed workload, each one maps a
+ * {@code load-test.weight.*} property. <br>
+ */
+enum Operation {
+
+	GET_BY_UUID("get-by-uuid"), GET_BY_NAME("get-by-name"), LIST("list"), CREATE("create"), UPDATE("update"),
+	DELETE("delete");
+
+	private final String key;
+
+	Operation(String key) {
+		this.key = key;
+	}
+
+	String getKey() {
+		return key;
+	}
+}
@@ -1,21 +1,42 @@
 package com.abernathyclinic.mediscreen.service_sql;
 
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.Signature;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolationException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
 
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.FieldsNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PaginationNotValidException;
 import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotUniqueException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientVersionConflictException;
+import com.abernathyclinic.mediscreen.service_sql.exception.SearchNotValidException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * LoggingAspect is a class which use Spring Boot AOP dependency. <br>
  * AOP is used here to handle all the logging for the controller package. <br>
+ * Every call is timed in the {@code patient.controller.requests} histogram,
+ * tagged by controller, method and outcome, and exposed with its percentiles
+ * on {@code /actuator/prometheus}. <br>
+ * Logging each call is optional, it is enabled with
+ * {@code patient.logging.per-call=true}. <br>
  */
 @Component
 @Aspect
@@ -23,33 +44,87 @@ public class LoggingAspect {
 
 	private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
 
+	static final String TIMER_NAME = "patient.controller.requests";
+
+	enum Outcome {
+		SUCCESS, NOT_FOUND, VALIDATION_ERROR, CONFLICT, ERROR
+	}
+
+	private final MeterRegistry meterRegistry;
+	private final boolean perCallLogging;
+	/**
+	 * The timers of each method, resolved once per {@link Outcome}
+	 */
+	private final ConcurrentMap<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+	public LoggingAspect(MeterRegistry meterRegistry,
+			@Value("${patient.logging.per-call:false}") boolean perCallLogging) {
+		this.meterRegistry = meterRegistry;
+		this.perCallLogging = perCallLogging;
+	}
+
 	@Pointcut("execution(* com.abernathyclinic.mediscreen.service_sql.controller.*.*(..))")
 	protected void controller() {
 		// Allow us to write once and for all the package and/or class targeted with the
 		// differents advices, making the path clearer in the advices definition.
 	}
 
-	@Before("controller()")
-	public void logBeforeTheMethod(JoinPoint joinPoint) {
-		Signature signature = joinPoint.getSignature();
-		String className = signature.getDeclaringType().getSimpleName();
-		String methodName = signature.getName();
+	@Around("controller()")
+	public Object timeTheMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+		long start = System.nanoTime();
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		Outcome outcome = Outcome.ERROR;
 
-		logger.info("Execution of {} in the {} class", methodName, className);
+		if (perCallLogging) {
+			logger.info("Execution of {} in the {} class", method.getName(),
+					method.getDeclaringClass().getSimpleName());
+		}
+		try {
+			Object result = joinPoint.proceed();
+			outcome = hasBindingErrors(joinPoint.getArgs()) ? Outcome.VALIDATION_ERROR : Outcome.SUCCESS;
+			if (perCallLogging) {
+				logger.info("The execution has ended successfully");
+			}
+			return result;
+		} catch (PatientNotFoundException patientNotFoundException) {
+			outcome = Outcome.NOT_FOUND;
+			if (perCallLogging) {
+				logger.info("The execution of {} in the {} class has failed", method.getName(),
+						method.getDeclaringClass().getSimpleName(), patientNotFoundException);
+			}
+			throw patientNotFoundException;
+		} catch (BodyNotValidException | PaginationNotValidException | SearchNotValidException
+				| FieldsNotValidException | ConstraintViolationException validationException) {
+			outcome = Outcome.VALIDATION_ERROR;
+			throw validationException;
+		} catch (PatientVersionConflictException | PatientNotUniqueException conflictException) {
+			outcome = Outcome.CONFLICT;
+			throw conflictException;
+		} finally {
+			timer(method, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
 	}
 
-	@AfterReturning("controller()")
-	public void logAfterTheMethodEndWithASuccess(JoinPoint joinPoint) {
-		logger.info("The execution has ended successfully");
+	private Timer timer(Method method, Outcome outcome) {
+		Timer[] methodTimers = timers.computeIfAbsent(method, key -> new Timer[Outcome.values().length]);
+		Timer timer = methodTimers[outcome.ordinal()];
+		if (timer == null) {
+			// Registering is idempotent, a concurrent registration gets the same timer
+			timer = Timer.builder(TIMER_NAME).description("Latency of the controller methods by outcome")
+					.tag("controller", method.getDeclaringClass().getSimpleName()).tag("method", method.getName())
+					.tag("outcome", outcome.name().toLowerCase()).publishPercentiles(0.5, 0.95, 0.99)
+					.register(meterRegistry);
+			methodTimers[outcome.ordinal()] = timer;
+		}
+		return timer;
 	}
 
-	@AfterThrowing(pointcut = "controller()", throwing = "patientNotFoundException")
-	public void logAfterTheMethodEndWithAnError(JoinPoint joinPoint,
-			PatientNotFoundException patientNotFoundException) {
-		Signature signature = joinPoint.getSignature();
-		String className = signature.getDeclaringType().getSimpleName();
-		String methodName = signature.getName();
-
-		logger.info("The execution of {} in the {} class has failed", methodName, className, patientNotFoundException);
+	private static boolean hasBindingErrors(Object[] args) {
+		for (Object arg : args) {
+			if (arg instanceof BindingResult && ((BindingResult) arg).hasErrors()) {
+				return true;
+			}
+		}
+		return false;
 	}
 }
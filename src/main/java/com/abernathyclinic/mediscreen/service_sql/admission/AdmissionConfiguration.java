@@ -0,0 +1,72 @@
+package com.abernathyclinic.mediscreen.service_sql.admission;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Registers the {@link AdmissionInterceptor} in front of the controllers, and
+ * publishes the metrics of its limiters. The data source is wrapped in a
+ * {@link DatabaseTimingDataSource}, whose times adapt the limits. <br>
+ * It can be turned off with {@code patient.admission.enabled=false}. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty(name = "patient.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfiguration implements WebMvcConfigurer, MeterBinder {
+
+	private final AdmissionLimiter readLimiter;
+	private final AdmissionLimiter writeLimiter;
+	private final AdmissionLimiter bulkLimiter;
+	private final AdmissionInterceptor admissionInterceptor;
+
+	public AdmissionConfiguration(@Value("${patient.admission.initial-limit:10}") int initialLimit,
+			@Value("${patient.admission.min-limit:2}") int minLimit,
+			@Value("${patient.admission.max-limit:40}") int maxLimit,
+			@Value("${patient.admission.latency-tolerance:2.0}") double latencyTolerance,
+			@Value("${patient.admission.bulk-limit:2}") int bulkLimit,
+			@Value("${patient.admission.retry-after:PT1S}") Duration retryAfter) {
+		this.readLimiter = new AdmissionLimiter("read", initialLimit, minLimit, maxLimit, latencyTolerance);
+		this.writeLimiter = new AdmissionLimiter("write", initialLimit, minLimit, maxLimit, latencyTolerance);
+		// The bulk requests last as long as their size, their latency tells nothing about the database
+		this.bulkLimiter = new AdmissionLimiter("bulk", bulkLimit, bulkLimit, bulkLimit, latencyTolerance);
+		this.admissionInterceptor = new AdmissionInterceptor(readLimiter, writeLimiter, bulkLimiter, retryAfter);
+	}
+
+	@Bean
+	public static BeanPostProcessor databaseTimingPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				return bean instanceof DataSource && !(bean instanceof DatabaseTimingDataSource)
+						? new DatabaseTimingDataSource((DataSource) bean)
+						: bean;
+			}
+		};
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(admissionInterceptor);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		readLimiter.bindTo(registry);
+		writeLimiter.bindTo(registry);
+		bulkLimiter.bindTo(registry);
+	}
+}
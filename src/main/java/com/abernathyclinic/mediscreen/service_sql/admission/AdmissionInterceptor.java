@@ -0,0 +1,111 @@
+package com.abernathyclinic.mediscreen.service_sql.admission;
+
+import java.time.Duration;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientBatchController;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientDuplicateController;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientExportController;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientImportController;
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+
+/**
+ * Admits the requests to the controllers through the {@link AdmissionLimiter}
+ * of their kind: the reads, the writes, and the bulk requests of the batch and
+ * export controllers, the uploads of the imports and the duplicates report.
+ * <br>
+ * A request over the limit is rejected at once with a 503 and a
+ * {@code Retry-After} header, instead of queuing for a connection of the pool.
+ * <br>
+ * The time an admitted request spends in the database is measured by the
+ * {@link DatabaseTimingDataSource}, and given to its limiter along with its
+ * endpoint. <br>
+ */
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+	private static final String PERMIT = AdmissionInterceptor.class.getName() + ".permit";
+
+	private final AdmissionLimiter readLimiter;
+	private final AdmissionLimiter writeLimiter;
+	private final AdmissionLimiter bulkLimiter;
+	private final String retryAfter;
+
+	public AdmissionInterceptor(AdmissionLimiter readLimiter, AdmissionLimiter writeLimiter,
+			AdmissionLimiter bulkLimiter, Duration retryAfter) {
+		this.readLimiter = readLimiter;
+		this.writeLimiter = writeLimiter;
+		this.bulkLimiter = bulkLimiter;
+		this.retryAfter = Long.toString(Math.max(1, retryAfter.toSeconds()));
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// The dispatch resuming an asynchronous request, like the export, still holds its permit
+		if (!(handler instanceof HandlerMethod) || request.getDispatcherType() == DispatcherType.ERROR
+				|| request.getAttribute(PERMIT) != null) {
+			return true;
+		}
+
+		AdmissionLimiter limiter = limiter(request, (HandlerMethod) handler);
+		if (!limiter.tryAcquire()) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+			throw new ServiceOverloadedException("Too many " + limiter.getName()
+					+ " requests are in progress, the request has been refused, retry later.");
+		}
+		request.setAttribute(PERMIT, new Permit(limiter, endpoint((HandlerMethod) handler)));
+		DatabaseTimingDataSource.start();
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) {
+		// The thread goes back to the pool, the rest of the request is measured by no one
+		DatabaseTimingDataSource.stop();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception exception) {
+		Permit permit = (Permit) request.getAttribute(PERMIT);
+		if (permit != null) {
+			request.removeAttribute(PERMIT);
+			permit.limiter.release(permit.endpoint, DatabaseTimingDataSource.stop());
+		}
+	}
+
+	private AdmissionLimiter limiter(HttpServletRequest request, HandlerMethod handlerMethod) {
+		Class<?> controller = handlerMethod.getBeanType();
+		String method = request.getMethod();
+		if (controller == PatientBatchController.class || controller == PatientExportController.class
+				|| (controller == PatientImportController.class && "POST".equals(method))
+				|| PatientDuplicateController.REPORT_PATH.equals(request.getServletPath())) {
+			return bulkLimiter;
+		}
+		return "GET".equals(method) || "HEAD".equals(method)
+				|| PatientController.LOOKUP_PATH.equals(request.getServletPath()) ? readLimiter : writeLimiter;
+	}
+
+	private static String endpoint(HandlerMethod handlerMethod) {
+		return handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+	}
+
+	private static final class Permit {
+
+		private final AdmissionLimiter limiter;
+		private final String endpoint;
+
+		private Permit(AdmissionLimiter limiter, String endpoint) {
+			this.limiter = limiter;
+			this.endpoint = endpoint;
+		}
+	}
+}
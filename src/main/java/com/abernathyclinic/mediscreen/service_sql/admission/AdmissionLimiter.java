@@ -0,0 +1,184 @@
+package com.abernathyclinic.mediscreen.service_sql.admission;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Bounds the number of requests of one kind in progress at the same time. <br>
+ * The limit adapts to the time the requests spend in the database, measured
+ * by the {@link DatabaseTimingDataSource}. Each endpoint compares its recent
+ * latency, averaged over its last requests, with its long-term average: the
+ * limit grows slowly while the recent latency stays within
+ * {@code latencyTolerance} times the long-term one, and shrinks by 10% once
+ * most of a round of requests went over it while the limit was in use, which
+ * is the database starting to queue them. The averages smooth out the spread
+ * of the latencies, a single slow request doesn't count. <br>
+ * Each endpoint has its own averages, a page of patients being slower than a
+ * patient by UUID, and the requests which don't reach the database, served
+ * from a cache or from memory, are left out. With a minimum equal to the
+ * maximum, the limit is fixed. <br>
+ */
+public class AdmissionLimiter implements MeterBinder {
+
+	/**
+	 * Number of requests the recent latency of an endpoint is averaged over
+	 */
+	private static final int RECENT_REQUESTS = 10;
+
+	/**
+	 * Number of requests the long-term latency of an endpoint is averaged over,
+	 * so that it follows the database without following a burst
+	 */
+	private static final int LONG_TERM_REQUESTS = 500;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+	private final double latencyTolerance;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicLong rejected = new AtomicLong();
+	private volatile int limit;
+
+	// Guarded by this
+	private double estimatedLimit;
+	private final Map<String, Latency> latencies = new HashMap<>();
+	private int roundSamples;
+	private int roundSlowSamples;
+	private int roundPeakInFlight;
+
+	/**
+	 * @param name             : of the kind of requests, used as tag of the
+	 *                         metrics
+	 * @param initialLimit     : the limit until latencies are observed
+	 * @param minLimit         : the limit never goes below
+	 * @param maxLimit         : the limit never goes above
+	 * @param latencyTolerance : how many times slower than the long-term
+	 *                         latency the recent one can be before the limit
+	 *                         shrinks
+	 */
+	public AdmissionLimiter(String name, int initialLimit, int minLimit, int maxLimit, double latencyTolerance) {
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.latencyTolerance = latencyTolerance;
+		this.estimatedLimit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+		this.limit = (int) estimatedLimit;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Admit a request if the limit isn't reached, it must then be released with
+	 * {@link #release(String, long)}. <br>
+	 *
+	 * @return true if the request is admitted, false if it must be rejected
+	 */
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				rejected.incrementAndGet();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Release a request admitted by {@link #tryAcquire()}, and adapt the limit to
+	 * its time in the database. <br>
+	 *
+	 * @param endpoint      : of the request, whose latencies are compared
+	 *                      together
+	 * @param databaseNanos : how long the request spent in the database, 0 if it
+	 *                      didn't reach it
+	 */
+	public void release(String endpoint, long databaseNanos) {
+		int inFlightAtCompletion = inFlight.getAndDecrement();
+		if (minLimit < maxLimit && databaseNanos > 0) {
+			adapt(endpoint, databaseNanos, inFlightAtCompletion);
+		}
+	}
+
+	private synchronized void adapt(String endpoint, long latencyNanos, int inFlightAtCompletion) {
+		boolean slow = latencies.computeIfAbsent(endpoint, key -> new Latency())
+				.isSlowAfter(latencyNanos, latencyTolerance);
+
+		roundSamples++;
+		roundPeakInFlight = Math.max(roundPeakInFlight, inFlightAtCompletion);
+		if (slow) {
+			roundSlowSamples++;
+		} else if (inFlightAtCompletion * 2 >= estimatedLimit) {
+			// Only grown when the limit is used, else nothing tells that more requests would be as fast
+			estimatedLimit = Math.min(maxLimit, estimatedLimit + 1 / estimatedLimit);
+		}
+		// Shrunk once per round of requests, when most of them were slowed while the limit was in use: with few
+		// requests in flight, the slowness doesn't come from the ones this limit admits
+		if (roundSamples >= estimatedLimit) {
+			if (roundSlowSamples * 2 > roundSamples && roundPeakInFlight * 2 >= estimatedLimit) {
+				estimatedLimit = Math.max(minLimit, estimatedLimit * 0.9);
+			}
+			roundSamples = 0;
+			roundSlowSamples = 0;
+			roundPeakInFlight = 0;
+		}
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * Publish the limit, the requests in flight and the requests rejected as the
+	 * {@code patient.admission.*} metrics, tagged by kind of requests. <br>
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("patient.admission.limit", this, AdmissionLimiter::getLimit).tag("kind", name)
+				.description("Requests admitted at the same time").register(registry);
+		Gauge.builder("patient.admission.in-flight", this, AdmissionLimiter::getInFlight).tag("kind", name)
+				.description("Requests in progress").register(registry);
+		FunctionCounter.builder("patient.admission.rejected", this, AdmissionLimiter::getRejected).tag("kind", name)
+				.description("Requests rejected with a 503").register(registry);
+	}
+
+	/**
+	 * Recent and long-term latencies of an endpoint, as exponential moving
+	 * averages. Until enough requests are seen, they are the plain average of
+	 * the requests seen so far. <br>
+	 */
+	private static final class Latency {
+
+		private double recentNanos;
+		private double longTermNanos;
+		private long samples;
+
+		private boolean isSlowAfter(long latencyNanos, double latencyTolerance) {
+			samples++;
+			recentNanos += (latencyNanos - recentNanos) / Math.min(samples, RECENT_REQUESTS);
+			longTermNanos += (latencyNanos - longTermNanos) / Math.min(samples, LONG_TERM_REQUESTS);
+			return recentNanos > longTermNanos * latencyTolerance;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.abernathyclinic.mediscreen.service_sql.admission;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} measuring how long the current request waits for the
+ * database: for a connection, for its statements to execute and for its
+ * transactions to commit. <br>
+ * Only the threads between {@link #start()} and {@link #stop()} are measured,
+ * the others go through without being timed. <br>
+ */
+public class DatabaseTimingDataSource extends DelegatingDataSource {
+
+	private static final ThreadLocal<long[]> databaseNanos = new ThreadLocal<>();
+
+	private static final Set<String> TIMED_CONNECTION_METHODS = Set.of("createStatement", "prepareStatement",
+			"prepareCall", "commit", "rollback");
+
+	public DatabaseTimingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	/**
+	 * Start measuring the time the current thread spends in the database. <br>
+	 */
+	public static void start() {
+		databaseNanos.set(new long[1]);
+	}
+
+	/**
+	 * Stop measuring the current thread. <br>
+	 *
+	 * @return the time spent in the database since {@link #start()}, 0 if the
+	 *         database wasn't reached or the thread wasn't measured
+	 */
+	public static long stop() {
+		long[] nanos = databaseNanos.get();
+		databaseNanos.remove();
+		return nanos == null ? 0 : nanos[0];
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long[] nanos = databaseNanos.get();
+		if (nanos == null) {
+			return super.getConnection();
+		}
+		long start = System.nanoTime();
+		try {
+			return timed(super.getConnection(), Connection.class);
+		} finally {
+			nanos[0] += System.nanoTime() - start;
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long[] nanos = databaseNanos.get();
+		if (nanos == null) {
+			return super.getConnection(username, password);
+		}
+		long start = System.nanoTime();
+		try {
+			return timed(super.getConnection(username, password), Connection.class);
+		} finally {
+			nanos[0] += System.nanoTime() - start;
+		}
+	}
+
+	private static <T> T timed(T target, Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(DatabaseTimingDataSource.class.getClassLoader(),
+				new Class<?>[] { type }, new Timing(target)));
+	}
+
+	/**
+	 * Times the calls reaching the database, and wraps the statements created so
+	 * that their executions are timed too. <br>
+	 */
+	private static final class Timing implements InvocationHandler {
+
+		private final Object target;
+
+		private Timing(Object target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			boolean timed = target instanceof Connection ? TIMED_CONNECTION_METHODS.contains(name)
+					: name.startsWith("execute");
+			long[] nanos = timed ? databaseNanos.get() : null;
+			long start = nanos == null ? 0 : System.nanoTime();
+			Object result;
+			try {
+				result = method.invoke(target, args);
+			} catch (InvocationTargetException invocationTargetException) {
+				throw invocationTargetException.getCause();
+			} finally {
+				if (nanos != null) {
+					nanos[0] += System.nanoTime() - start;
+				}
+			}
+			if (result instanceof CallableStatement) {
+				return timed((CallableStatement) result, CallableStatement.class);
+			}
+			if (result instanceof PreparedStatement) {
+				return timed((PreparedStatement) result, PreparedStatement.class);
+			}
+			if (result instanceof Statement && "createStatement".equals(name)) {
+				return timed((Statement) result, Statement.class);
+			}
+			return result;
+		}
+	}
+}
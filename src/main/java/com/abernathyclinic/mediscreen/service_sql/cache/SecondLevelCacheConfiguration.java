@@ -0,0 +1,109 @@
+package com.abernathyclinic.mediscreen.service_sql.cache;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Second-level cache of Hibernate, started by the {@code l2cache} profile
+ * along with the settings of {@code application-l2cache.properties}. <br>
+ * The {@link Patient} entities and the results of the lookup by name are kept
+ * in local Caffeine caches through JCache, bounded by
+ * {@code patient.l2cache.maximum-size} and expired after
+ * {@code patient.l2cache.expire-after-write}. Hibernate invalidates them on
+ * every write: the entity on a save, the whole regions on a bulk
+ * {@code UPDATE} or {@code DELETE} such as the patch and the deletions. <br>
+ * With replicas, the transactions go through a
+ * {@link SecondLevelCacheTransactionManager}, so that the caches don't serve
+ * an old version to a client reading its own writes. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("l2cache")
+public class SecondLevelCacheConfiguration implements HibernatePropertiesCustomizer, DisposableBean {
+
+	/**
+	 * Region of the {@link Patient} entities
+	 */
+	public static final String PATIENT_REGION = "patients";
+	/**
+	 * Region of the results of the lookup by name
+	 */
+	public static final String PATIENT_QUERY_REGION = "patient-queries";
+
+	private final CacheManager cacheManager;
+
+	public SecondLevelCacheConfiguration(@Value("${patient.l2cache.maximum-size:10000}") long maximumSize,
+			@Value("${patient.l2cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+		CaffeineCachingProvider cachingProvider = (CaffeineCachingProvider) Caching
+				.getCachingProvider(CaffeineCachingProvider.class.getName());
+		// Own to this application context, the default one being shared by every context of the class loader
+		this.cacheManager = cachingProvider.getCacheManager(
+				URI.create("patient-l2cache:" + UUID.randomUUID()), getClass().getClassLoader());
+
+		cacheManager.createCache(PATIENT_REGION, bounded(maximumSize, expireAfterWrite));
+		cacheManager.createCache(PATIENT_QUERY_REGION, bounded(maximumSize, expireAfterWrite));
+		cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+				bounded(maximumSize, expireAfterWrite));
+		// Tells when each table was last written, a cached query result older than its table is discarded
+		cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+				configuration());
+	}
+
+	@Bean
+	public SecondLevelCacheTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+			ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers,
+			@Value("${patient.datasource.replica-urls:}") String replicaUrls,
+			@Value("${patient.datasource.read-your-writes-window:PT5S}") Duration readYourWritesWindow) {
+		// Without replicas, every read is on the primary and sees the writes
+		SecondLevelCacheTransactionManager transactionManager = new SecondLevelCacheTransactionManager(
+				entityManagerFactory, replicaUrls.isBlank() ? Duration.ZERO : readYourWritesWindow);
+		transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+		return transactionManager;
+	}
+
+	@Override
+	public void customize(Map<String, Object> hibernateProperties) {
+		hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+	}
+
+	@Override
+	public void destroy() {
+		cacheManager.close();
+	}
+
+	private static CaffeineConfiguration<Object, Object> bounded(long maximumSize, Duration expireAfterWrite) {
+		CaffeineConfiguration<Object, Object> configuration = configuration();
+		configuration.setMaximumSize(OptionalLong.of(maximumSize));
+		configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+		return configuration;
+	}
+
+	private static CaffeineConfiguration<Object, Object> configuration() {
+		CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+		// Hibernate already caches its own immutable copy of the entity, it doesn't need to be copied again
+		configuration.setStoreByValue(false);
+		configuration.setStatisticsEnabled(true);
+		return configuration;
+	}
+}
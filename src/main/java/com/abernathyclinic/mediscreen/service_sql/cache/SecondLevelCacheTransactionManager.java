@@ -0,0 +1,79 @@
+package com.abernathyclinic.mediscreen.service_sql.cache;
+
+import java.time.Duration;
+
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReplicaRoutingDataSource;
+
+/**
+ * {@link JpaTransactionManager} keeping the second-level cache away from the
+ * reads which would make a client miss its own writes. <br>
+ * A transaction pinned to the primary doesn't read the cache, it reads the
+ * primary and refreshes the cache with what it read. Less than
+ * {@code patient.datasource.read-your-writes-window} after a write, the other
+ * transactions still read the cache but don't fill it, as the replica they
+ * read from may not have the write yet. <br>
+ */
+public class SecondLevelCacheTransactionManager extends JpaTransactionManager {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long windowNanos;
+	private volatile long lastWrite = System.nanoTime();
+
+	/**
+	 * @param entityManagerFactory : of the entity managers of the transactions
+	 * @param window               : how long the reads which don't go to the
+	 *                             primary aren't cached after a write, zero
+	 *                             without replicas
+	 */
+	public SecondLevelCacheTransactionManager(EntityManagerFactory entityManagerFactory, Duration window) {
+		super(entityManagerFactory);
+		this.windowNanos = window.toNanos();
+		this.lastWrite -= windowNanos;
+	}
+
+	@Override
+	protected EntityManager createEntityManagerForTransaction() {
+		EntityManager entityManager = super.createEntityManagerForTransaction();
+		if (ReplicaRoutingDataSource.isPinnedToPrimary()) {
+			setCacheMode(entityManager, CacheRetrieveMode.BYPASS, CacheStoreMode.REFRESH, CacheMode.REFRESH);
+		} else if (System.nanoTime() - lastWrite < windowNanos) {
+			setCacheMode(entityManager, CacheRetrieveMode.USE, CacheStoreMode.BYPASS, CacheMode.GET);
+		}
+		return entityManager;
+	}
+
+	@Override
+	protected void doCommit(DefaultTransactionStatus status) {
+		if (status.isReadOnly()) {
+			super.doCommit(status);
+			return;
+		}
+		// Also marked before, the bulk updates evict the cache before their commit
+		lastWrite = System.nanoTime();
+		try {
+			super.doCommit(status);
+		} finally {
+			lastWrite = System.nanoTime();
+		}
+	}
+
+	private static void setCacheMode(EntityManager entityManager, CacheRetrieveMode retrieveMode,
+			CacheStoreMode storeMode, CacheMode cacheMode) {
+		// The lookups by id take the modes of the entity manager, the queries the mode of the session
+		entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_RETRIEVE_MODE, retrieveMode);
+		entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, storeMode);
+		entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+	}
+}
@@ -0,0 +1,24 @@
+package com.abernathyclinic.mediscreen.service_sql.changes;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Functions of PostgreSQL missing from H2, declared as aliases by the H2
+ * migrations. <br>
+ * The H2 database runs in the application, its clock is the one of the JVM.
+ * <br>
+ */
+public final class H2Functions {
+
+	private H2Functions() {
+	}
+
+	/**
+	 * {@code clock_timestamp()} of PostgreSQL, the time of the call rather than
+	 * the start of the transaction as {@code CURRENT_TIMESTAMP}, with its time
+	 * zone as well. <br>
+	 */
+	public static OffsetDateTime clockTimestamp() {
+		return OffsetDateTime.now();
+	}
+}
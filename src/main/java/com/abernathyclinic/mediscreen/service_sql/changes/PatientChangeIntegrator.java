@@ -0,0 +1,32 @@
+package com.abernathyclinic.mediscreen.service_sql.changes;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Registers the {@link PatientChangeListener} in every session factory. <br>
+ * It is discovered by Hibernate through
+ * {@code META-INF/services/org.hibernate.integrator.spi.Integrator}, so that
+ * the changes are recorded whatever builds the session factory, the tests
+ * slices included. <br>
+ */
+public class PatientChangeIntegrator implements Integrator {
+
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		EventListenerRegistry eventListenerRegistry = serviceRegistry.getService(EventListenerRegistry.class);
+		PatientChangeListener patientChangeListener = new PatientChangeListener();
+		eventListenerRegistry.appendListeners(EventType.POST_INSERT, patientChangeListener);
+		eventListenerRegistry.appendListeners(EventType.POST_UPDATE, patientChangeListener);
+		eventListenerRegistry.appendListeners(EventType.POST_DELETE, patientChangeListener);
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+}
@@ -0,0 +1,59 @@
+package com.abernathyclinic.mediscreen.service_sql.changes;
+
+import java.util.UUID;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+
+/**
+ * Records in the {@link PatientChangeLog} the patients inserted, updated and
+ * deleted by Hibernate, as their statements are executed. <br>
+ * The bulk statements, which Hibernate doesn't see row by row, are recorded by
+ * the repository issuing them. <br>
+ */
+public class PatientChangeListener
+		implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if (event.getEntity() instanceof Patient) {
+			PatientChangeLog.record(event.getSession(), (UUID) event.getId(), PatientChange.Type.CREATED);
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if (event.getEntity() instanceof Patient) {
+			PatientChangeLog.record(event.getSession(), (UUID) event.getId(), PatientChange.Type.UPDATED);
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if (event.getEntity() instanceof Patient) {
+			PatientChangeLog.record(event.getSession(), (UUID) event.getId(), PatientChange.Type.DELETED);
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	// Still abstract in Hibernate 5.4, requiresPostCommitHandling replacing it
+	@SuppressWarnings("deprecation")
+	@Override
+	public boolean requiresPostCommitHanding(EntityPersister persister) {
+		return requiresPostCommitHandling(persister);
+	}
+}
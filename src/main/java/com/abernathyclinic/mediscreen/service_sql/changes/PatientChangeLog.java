@@ -0,0 +1,95 @@
+package com.abernathyclinic.mediscreen.service_sql.changes;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeyIndex;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+
+/**
+ * Appends the changes of the patients to the {@code patient_changes} table, in
+ * the transaction which made them. <br>
+ * The changes recorded by a session are kept until its transaction commits,
+ * and then inserted with a single JDBC batch, after the last flush and just
+ * before the commit: the ids of the changes are taken at the very end of the
+ * transaction, so that they are committed nearly in the order of the ids. A
+ * transaction rolled back records nothing. <br>
+ * The time of the changes is read from the clock of the database when they
+ * are inserted, the feed comparing it with the same clock rather than with the
+ * one of each instance. <br>
+ * The blocking keys of the patients changed are refreshed by the same batch,
+ * see {@link BlockingKeyIndex}. <br>
+ */
+public final class PatientChangeLog {
+
+	private static final String INSERT = "insert into abernathyclinic_mediscreen.patient_changes (uuid, type, changed_at) values (?, ?, clock_timestamp())";
+
+	private static final Map<SharedSessionContractImplementor, PendingChanges> PENDING = new ConcurrentHashMap<>();
+
+	private PatientChangeLog() {
+	}
+
+	/**
+	 * Record a change of a patient, it is written when the transaction of the
+	 * session commits. <br>
+	 *
+	 * @param session : which made the change, within a transaction
+	 * @param uuid    : of the patient changed
+	 * @param type    : of the change
+	 */
+	public static void record(SessionImplementor session, UUID uuid, PatientChange.Type type) {
+		PENDING.computeIfAbsent(session, key -> register(session)).add(uuid, type);
+	}
+
+	private static PendingChanges register(SessionImplementor session) {
+		PendingChanges pendingChanges = new PendingChanges();
+		session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) pendingChanges);
+		session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) pendingChanges);
+		return pendingChanges;
+	}
+
+	/**
+	 * Changes of a session not yet written, a session being used by one thread
+	 * at a time. <br>
+	 */
+	private static final class PendingChanges
+			implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+		private final List<UUID> uuids = new ArrayList<>();
+		private final List<PatientChange.Type> types = new ArrayList<>();
+
+		private void add(UUID uuid, PatientChange.Type type) {
+			uuids.add(uuid);
+			types.add(type);
+		}
+
+		@Override
+		public void doBeforeTransactionCompletion(SessionImplementor session) {
+			session.doWork(connection -> {
+				try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+					for (int i = 0; i < uuids.size(); i++) {
+						statement.setObject(1, uuids.get(i));
+						statement.setString(2, types.get(i).name());
+						statement.addBatch();
+					}
+					statement.executeBatch();
+				}
+				BlockingKeyIndex.refresh(connection, uuids);
+			});
+		}
+
+		@Override
+		public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+			PENDING.remove(session);
+		}
+	}
+}
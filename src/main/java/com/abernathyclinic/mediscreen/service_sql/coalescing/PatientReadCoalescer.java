@@ -0,0 +1,118 @@
+package com.abernathyclinic.mediscreen.service_sql.coalescing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReplicaRoutingDataSource;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientVersion;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Coalesces the identical reads of a {@link Patient} by UUID and by name made
+ * at the same time, such as the requests of a report asking for the same
+ * patients, through a {@link SingleFlight} per kind of read: one query is run
+ * and all the requests receive its result. <br>
+ * The reads of a request pinned to the primary only join the reads of the
+ * requests pinned too, so that they still see their own writes. The writes of
+ * the controller {@link #invalidate()} the reads in flight. <br>
+ * It can be turned off with {@code patient.coalescing.enabled=false}, every
+ * read then runs its own query. <br>
+ */
+@Component
+@Profile("!reactive")
+public class PatientReadCoalescer implements MeterBinder {
+
+	private final PatientRepository patientRepository;
+	private final boolean enabled;
+	private final SingleFlight<List<Object>, Optional<Patient>> byUuid;
+	private final SingleFlight<List<Object>, Optional<Long>> versionByUuid;
+	private final SingleFlight<List<Object>, List<Patient>> byName;
+	private final SingleFlight<List<Object>, List<PatientVersion>> versionByName;
+
+	/**
+	 * The repository is resolved on first use: as a {@link MeterBinder}, the
+	 * coalescer is created with the meter registry, which the replica data source
+	 * needs before the repository can exist. <br>
+	 */
+	public PatientReadCoalescer(@Lazy PatientRepository patientRepository,
+			@Value("${patient.coalescing.enabled:true}") boolean enabled,
+			@Value("${patient.coalescing.max-waiters:500}") int maxWaiters,
+			@Value("${patient.coalescing.timeout:PT2S}") Duration timeout) {
+		this.patientRepository = patientRepository;
+		this.enabled = enabled;
+		this.byUuid = new SingleFlight<>("uuid", maxWaiters, timeout);
+		this.versionByUuid = new SingleFlight<>("version-uuid", maxWaiters, timeout);
+		this.byName = new SingleFlight<>("name", maxWaiters, timeout);
+		this.versionByName = new SingleFlight<>("version-name", maxWaiters, timeout);
+	}
+
+	public Optional<Patient> findById(UUID uuid) {
+		if (!enabled) {
+			return patientRepository.findById(uuid);
+		}
+		return byUuid.execute(key(uuid), () -> patientRepository.findById(uuid));
+	}
+
+	public Optional<Long> findVersionByUuid(UUID uuid) {
+		if (!enabled) {
+			return patientRepository.findVersionByUuid(uuid);
+		}
+		return versionByUuid.execute(key(uuid), () -> patientRepository.findVersionByUuid(uuid));
+	}
+
+	public List<Patient> findByLastNameAndFirstName(String lastName, String firstName) {
+		if (!enabled) {
+			return patientRepository.findByLastNameAndFirstName(lastName, firstName);
+		}
+		return byName.execute(key(lastName, firstName),
+				() -> patientRepository.findByLastNameAndFirstName(lastName, firstName));
+	}
+
+	public List<PatientVersion> findVersionByLastNameAndFirstName(String lastName, String firstName) {
+		if (!enabled) {
+			return patientRepository.findVersionByLastNameAndFirstName(lastName, firstName);
+		}
+		return versionByName.execute(key(lastName, firstName),
+				() -> patientRepository.findVersionByLastNameAndFirstName(lastName, firstName));
+	}
+
+	/**
+	 * Stop sharing the reads in flight, to call once a patient has been written.
+	 * <br>
+	 */
+	public void invalidate() {
+		byUuid.invalidate();
+		versionByUuid.invalidate();
+		byName.invalidate();
+		versionByName.invalidate();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		if (enabled) {
+			byUuid.bindTo(registry);
+			versionByUuid.bindTo(registry);
+			byName.bindTo(registry);
+			versionByName.bindTo(registry);
+		}
+	}
+
+	private static List<Object> key(UUID uuid) {
+		return List.of(uuid, ReplicaRoutingDataSource.isPinnedToPrimary());
+	}
+
+	private static List<Object> key(String lastName, String firstName) {
+		return List.of(lastName, firstName, ReplicaRoutingDataSource.isPinnedToPrimary());
+	}
+}
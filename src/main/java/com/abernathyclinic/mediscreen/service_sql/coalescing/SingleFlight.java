@@ -0,0 +1,196 @@
+package com.abernathyclinic.mediscreen.service_sql.coalescing;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Coalesces the concurrent calls of the same key: the first caller runs the
+ * call, the callers arriving while it is in flight wait for its result instead
+ * of running their own. <br>
+ * At most {@code maxWaiters} callers wait for the same call, and for at most
+ * {@code timeout}, the others are refused with a
+ * {@link ServiceOverloadedException} rather than piling up behind a slow call.
+ * An exception of the call is thrown to all its callers. <br>
+ * After {@link #invalidate()}, the calls in flight are no longer joined, so
+ * that a read following a write never gets a result read before it. <br>
+ *
+ * @param <K> : the key of the calls, identical calls having equal keys
+ * @param <V> : the result of the calls
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+	private final String name;
+	private final int maxWaiters;
+	private final long timeoutNanos;
+
+	private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LongAdder executed = new LongAdder();
+	private final LongAdder shared = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+
+	/**
+	 * @param name       : of the kind of calls, used as tag of the metrics
+	 * @param maxWaiters : callers waiting for the same call at most
+	 * @param timeout    : how long a caller waits for the call of another
+	 */
+	public SingleFlight(String name, int maxWaiters, Duration timeout) {
+		this.name = name;
+		this.maxWaiters = maxWaiters;
+		this.timeoutNanos = timeout.toNanos();
+	}
+
+	/**
+	 * Run the call, or wait for the identical call in flight. <br>
+	 *
+	 * @param key  : of the call
+	 * @param call : run when no identical call is in flight
+	 * @return the result of the call, shared with the concurrent callers
+	 */
+	public V execute(K key, Supplier<V> call) {
+		Flight<V> flight = new Flight<>(generation.get());
+		while (true) {
+			Flight<V> current = flights.putIfAbsent(key, flight);
+			if (current == null) {
+				return lead(key, flight, call);
+			}
+			if (current.generation == flight.generation) {
+				return follow(current);
+			}
+			// Started before the last invalidation, the call is run again
+			if (flights.replace(key, current, flight)) {
+				return lead(key, flight, call);
+			}
+		}
+	}
+
+	/**
+	 * Stop joining the calls in flight, to call once a write has committed. <br>
+	 */
+	public void invalidate() {
+		generation.incrementAndGet();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getWaiting() {
+		return waiting.get();
+	}
+
+	public long getExecuted() {
+		return executed.sum();
+	}
+
+	public long getShared() {
+		return shared.sum();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public long getTimedOut() {
+		return timedOut.sum();
+	}
+
+	/**
+	 * Publish the calls run, the calls shared, which are the calls saved, and the
+	 * callers refused as the {@code patient.coalescing.calls} metric tagged by
+	 * outcome, and the callers waiting as {@code patient.coalescing.waiting}, all
+	 * tagged by kind of calls. <br>
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		counter(registry, "executed", executed);
+		counter(registry, "shared", shared);
+		counter(registry, "rejected", rejected);
+		counter(registry, "timed-out", timedOut);
+		Gauge.builder("patient.coalescing.waiting", this, SingleFlight::getWaiting).tag("kind", name)
+				.description("Callers waiting for the call of another").register(registry);
+	}
+
+	private void counter(MeterRegistry registry, String outcome, LongAdder count) {
+		FunctionCounter.builder("patient.coalescing.calls", count, LongAdder::sum).tag("kind", name)
+				.tag("outcome", outcome).description("Calls coalesced by outcome").register(registry);
+	}
+
+	private V lead(K key, Flight<V> flight, Supplier<V> call) {
+		executed.increment();
+		try {
+			V result = call.get();
+			flight.result.complete(result);
+			return result;
+		} catch (RuntimeException | Error exception) {
+			flight.result.completeExceptionally(exception);
+			throw exception;
+		} finally {
+			flights.remove(key, flight);
+		}
+	}
+
+	private V follow(Flight<V> flight) {
+		if (flight.waiters.incrementAndGet() > maxWaiters) {
+			flight.waiters.decrementAndGet();
+			rejected.increment();
+			throw new ServiceOverloadedException("Too many " + name
+					+ " requests are waiting for the same read, the request has been refused, retry later.");
+		}
+		waiting.incrementAndGet();
+		try {
+			V result = flight.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+			shared.increment();
+			return result;
+		} catch (ExecutionException executionException) {
+			shared.increment();
+			Throwable cause = executionException.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		} catch (TimeoutException timeoutException) {
+			timedOut.increment();
+			throw new ServiceOverloadedException("The " + name
+					+ " read shared with other requests took too long, the request has been refused, retry later.");
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			throw new ServiceOverloadedException("The request has been interrupted while waiting for its read.");
+		} finally {
+			waiting.decrementAndGet();
+			flight.waiters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * A call in flight, with the generation it started in. <br>
+	 */
+	private static final class Flight<V> {
+
+		private final long generation;
+		private final CompletableFuture<V> result = new CompletableFuture<>();
+		private final AtomicInteger waiters = new AtomicInteger();
+
+		private Flight(long generation) {
+			this.generation = generation;
+		}
+	}
+}
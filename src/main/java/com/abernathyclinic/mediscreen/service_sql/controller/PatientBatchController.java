@@ -0,0 +1,74 @@
+package com.abernathyclinic.mediscreen.service_sql.controller;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchDeleteResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchResult;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientBatchWriter;
+
+/**
+ * Controller dedicated to the bulk creation of the patients, made for the
+ * onboarding of a new clinic, and to their bulk deletion, made for the
+ * retention purge. <br>
+ */
+@RestController
+@Profile("!reactive")
+public class PatientBatchController {
+
+	@Autowired
+	private PatientBatchWriter patientBatchWriter;
+
+	@Value("${patient.batch.max-size:10000}")
+	private int maxSize;
+
+	/**
+	 * POST mapping to save several {@link Patient} in the database at once. <br>
+	 * Each patient is validated on its own, the invalid ones are reported without
+	 * preventing the valid ones to be saved. <br>
+	 * 
+	 * @param patients : to save
+	 * @param upsert   : update the existing patient having the same last name,
+	 *                 first name and date of birth instead of creating a new one
+	 * @return the result of each patient, in the order provided, else throw a
+	 *         {@link BodyNotValidException} if there are too many patients
+	 */
+	@PostMapping("/patient/batch")
+	public List<PatientBatchResult> savePatients(@RequestBody List<Patient> patients,
+			@RequestParam(value = "upsert", defaultValue = "false") boolean upsert) {
+		if (patients.size() > maxSize) {
+			throw new BodyNotValidException("The batch provided contains " + patients.size()
+					+ " patients while the maximum is " + maxSize + ".");
+		}
+		return patientBatchWriter.write(patients, upsert);
+	}
+
+	/**
+	 * DELETE mapping to delete several {@link Patient} from the database at once.
+	 * <br>
+	 * The UUIDs not attributed to an existing patient are ignored. <br>
+	 * 
+	 * @param uuids : of the patients to delete
+	 * @return the number of patients requested and deleted, else throw a
+	 *         {@link BodyNotValidException} if there are too many UUIDs
+	 */
+	@DeleteMapping("/patient")
+	public PatientBatchDeleteResult deletePatients(@RequestBody List<UUID> uuids) {
+		if (uuids.size() > maxSize) {
+			throw new BodyNotValidException(
+					"The batch provided contains " + uuids.size() + " UUIDs while the maximum is " + maxSize + ".");
+		}
+		return patientBatchWriter.delete(uuids);
+	}
+}
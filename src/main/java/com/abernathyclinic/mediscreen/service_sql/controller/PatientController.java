@@ -1,37 +1,136 @@
 package com.abernathyclinic.mediscreen.service_sql.controller;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.abernathyclinic.mediscreen.service_sql.coalescing.PatientReadCoalescer;
 import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.FieldsNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PaginationNotValidException;
 import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotUniqueException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientVersionConflictException;
+import com.abernathyclinic.mediscreen.service_sql.exception.SearchNotValidException;
 import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChangePage;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientFields;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientLookupResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPage;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSearch;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSlice;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSuggestion;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientVersion;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken.DateOfBirthKey;
 import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientSpecifications;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientChangeFeed;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientLookup;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientNameIndex;
 
 /**
  * Main controller of the application, it provide CRUD mapping allowing the user
  * to communicate with a relational database. <br>
  */
 @RestController
+@Profile("!reactive")
 public class PatientController {
 
+	/**
+	 * Path of the lookup of several patients, a read despite being a POST
+	 */
+	public static final String LOOKUP_PATH = "/patient/lookup";
+
+	/**
+	 * Fields the search can be sorted by, the ones leading an index
+	 */
+	private static final Set<String> SEARCH_SORT_FIELDS = Set.of("lastName", "firstName", "dateOfBirth");
+
+	/**
+	 * Types the patients are served as, JSON first as the default one
+	 */
+	private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+			PatientETags.APPLICATION_SMILE, MediaType.APPLICATION_CBOR);
+
 	@Autowired
 	private PatientRepository patientRepository;
 
+	@Autowired
+	private PatientCache patientCache;
+
+	@Autowired
+	private PatientLookup patientLookup;
+
+	@Autowired
+	private PatientChangeFeed patientChangeFeed;
+
+	@Autowired
+	private PatientNameIndex patientNameIndex;
+
+	@Autowired
+	private PatientReadCoalescer patientReadCoalescer;
+
+	@Value("${patient.pagination.default-page-size:20}")
+	private int defaultPageSize;
+
+	@Value("${patient.pagination.max-page-size:100}")
+	private int maxPageSize;
+
+	@Value("${patient.pagination.unpaged-enabled:false}")
+	private boolean unpagedEnabled;
+
+	@Value("${patient.search.max-offset:1000}")
+	private int searchMaxOffset;
+
+	@Value("${patient.lookup.max-size:1000}")
+	private int lookupMaxSize;
+
+	@Value("${patient.changes.default-limit:100}")
+	private int changesDefaultLimit;
+
+	@Value("${patient.changes.max-limit:1000}")
+	private int changesMaxLimit;
+
+	@Value("${patient.suggest.default-limit:10}")
+	private int suggestDefaultLimit;
+
+	@Value("${patient.suggest.max-limit:50}")
+	private int suggestMaxLimit;
+
 	@GetMapping("/")
 	public String index() {
 		return "Welcome on the Service-SQL REST API, targeted to be used as a micro-service to communicate with a relational database.";
@@ -40,40 +139,337 @@ public class PatientController {
 	/**
 	 * GET mapping to retrieve a {@link Patient} from the database by using his
 	 * UUID. <br>
+	 * The patient is served from the {@link PatientCache} when already present,
+	 * else the identical reads in flight share one query through the
+	 * {@link PatientReadCoalescer}. <br>
+	 * The response carries the version of the patient as {@code ETag}, along with
+	 * its representation, see {@link PatientETags}. When the client sends it back
+	 * with {@code If-None-Match} and the patient hasn't changed, a 304 is returned
+	 * after reading the version only. <br>
 	 * 
 	 * @param UUID : of the patient to retrieve
 	 * @return the patient if present in the database, else throw an error message
 	 */
 	@GetMapping("/patient/{UUID}")
-	public Patient getPatientByUUID(@PathVariable("UUID") UUID uuid) {
-		return patientRepository.findById(uuid).orElseThrow(() -> new PatientNotFoundException(
-				"The patient with the provided UUID : '" + uuid + "' could not be found in the database."));
+	public Patient getPatientByUUID(@PathVariable("UUID") UUID uuid, WebRequest webRequest,
+			HttpServletResponse httpServletResponse) {
+		String representation = representation(webRequest, httpServletResponse);
+		if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			long version = patientCache.getIfPresent(uuid).map(Patient::getVersion)
+					.orElseGet(() -> patientReadCoalescer.findVersionByUuid(uuid)
+							.orElseThrow(() -> patientNotFound(uuid)));
+			if (webRequest.checkNotModified(PatientETags.eTag(version, representation))) {
+				return null;
+			}
+		}
 
+		Patient patient = patientCache.get(uuid, patientReadCoalescer::findById)
+				.orElseThrow(() -> patientNotFound(uuid));
+		httpServletResponse.setHeader(HttpHeaders.ETAG, PatientETags.eTag(patient.getVersion(), representation));
+		return patient;
 	}
 
 	/**
 	 * GET mapping to retrieve a {@link Patient} from the database by using his last
 	 * name and first name. <br>
+	 * The identical reads in flight share one query through the
+	 * {@link PatientReadCoalescer}. <br>
+	 * The response carries the UUID and the version of the patient as
+	 * {@code ETag}, along with its representation. When the client sends it back with {@code If-None-Match} and
+	 * the patient hasn't changed, a 304 is returned after reading the UUID and the
+	 * version only. <br>
 	 * 
 	 * @param lastName and firstName : of the patient to retrieve
 	 * @return the patient if present in the database, else throw a
-	 *         {@link PatientNotFoundException}
+	 *         {@link PatientNotFoundException}, or a
+	 *         {@link PatientNotUniqueException} listing their UUIDs if several
+	 *         patients share the name
 	 */
 	@GetMapping("/patient/lastName&firstName")
-	public Patient getPatient(@RequestParam("lastName") String lastName, @RequestParam("firstName") String firstName) {
-		return patientRepository.findByLastNameAndFirstName(lastName, firstName)
-				.orElseThrow(() -> new PatientNotFoundException("The patient with the last name provided : '" + lastName
-						+ "' and first name provided : '" + firstName + "' could not be found in the database."));
+	public Patient getPatient(@RequestParam("lastName") String lastName, @RequestParam("firstName") String firstName,
+			WebRequest webRequest, HttpServletResponse httpServletResponse) {
+		String representation = representation(webRequest, httpServletResponse);
+		if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+			PatientVersion patientVersion = onlyPatient(
+					patientReadCoalescer.findVersionByLastNameAndFirstName(lastName, firstName),
+					PatientVersion::getUuid, lastName, firstName);
+			if (webRequest.checkNotModified(
+					PatientETags.eTag(patientVersion.getUuid(), patientVersion.getVersion(), representation))) {
+				return null;
+			}
+		}
+
+		Patient patient = onlyPatient(patientReadCoalescer.findByLastNameAndFirstName(lastName, firstName),
+				Patient::getUuid, lastName, firstName);
+		httpServletResponse.setHeader(HttpHeaders.ETAG,
+				PatientETags.eTag(patient.getUuid(), patient.getVersion(), representation));
+		return patient;
+	}
 
+	/**
+	 * POST mapping to retrieve several {@link Patient} by UUID at once, instead of
+	 * one {@code GET /patient/{UUID}} per patient. <br>
+	 * The patients already in the {@link PatientCache} are served from it, the
+	 * others are read with chunked {@code SELECT ... IN} queries. It is a read,
+	 * POST only carrying the UUIDs in the body. <br>
+	 * 
+	 * @param uuids : of the patients to retrieve
+	 * @return the patients found in the order of the UUIDs, and the UUIDs not
+	 *         attributed to an existing patient, else throw a
+	 *         {@link BodyNotValidException} if there are too many UUIDs or a null
+	 *         one
+	 */
+	@PostMapping(LOOKUP_PATH)
+	public PatientLookupResult lookupPatients(@RequestBody List<UUID> uuids) {
+		if (uuids.size() > lookupMaxSize) {
+			throw new BodyNotValidException("The lookup provided contains " + uuids.size()
+					+ " UUIDs while the maximum is " + lookupMaxSize + ".");
+		}
+		if (uuids.contains(null)) {
+			throw new BodyNotValidException("The lookup provided contains a null UUID.");
+		}
+		return patientLookup.lookup(uuids);
+	}
+
+	/**
+	 * GET mapping to suggest the {@link Patient} while their name is typed. <br>
+	 * The names are looked up in the in-process {@link PatientNameIndex}, by
+	 * prefix and by sound, without querying the database. <br>
+	 * 
+	 * @param query : the start of the last name and of the first name, in any
+	 *              order
+	 * @param limit : the number of patients wanted, capped by
+	 *              {@code patient.suggest.max-limit}
+	 * @return the patients suggested, the best matches first, else throw a
+	 *         {@link SearchNotValidException} if the query is blank
+	 */
+	@GetMapping("/patient/suggest")
+	public List<PatientSuggestion> suggestPatients(@RequestParam("q") String query,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		if (query.isBlank()) {
+			throw new SearchNotValidException("The query provided must not be blank.");
+		}
+		int suggestLimit = Math.max(1, Math.min(limit == null ? suggestDefaultLimit : limit, suggestMaxLimit));
+		return patientNameIndex.suggest(query, suggestLimit);
+	}
+
+	/**
+	 * GET mapping to follow the changes of the {@link Patient}, instead of
+	 * reading and comparing the whole table. <br>
+	 * Every create, update and delete is recorded in the transaction of the
+	 * write, in order. The changes following the cursor are returned along with
+	 * the current state of their patient, null once deleted, and the cursor to
+	 * send back to get the next ones. Without cursor, only the cursor of the
+	 * last change is returned, to start following the feed from now. <br>
+	 * 
+	 * @param since : the cursor returned with the previous changes, omitted to
+	 *              get the cursor of the last change
+	 * @param limit : the number of changes wanted, capped by
+	 *              {@code patient.changes.max-limit}
+	 * @return the changes following the cursor along with the next cursor, else
+	 *         throw a {@link PaginationNotValidException} if the cursor is
+	 *         negative
+	 */
+	@GetMapping("/patient/changes")
+	public PatientChangePage getPatientChanges(@RequestParam(value = "since", required = false) Long since,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		if (since != null && since < 0) {
+			throw new PaginationNotValidException("The cursor provided : '" + since + "' must not be negative.");
+		}
+		int changesLimit = Math.max(1, Math.min(limit == null ? changesDefaultLimit : limit, changesMaxLimit));
+		return patientChangeFeed.read(since, changesLimit);
 	}
 
 	/**
-	 * GET mapping to retrieve all {@link Patient} from the database. <br>
+	 * GET mapping to retrieve the {@link Patient} from the database page by page.
+	 * <br>
+	 * It uses a keyset pagination ordered by UUID, each page seeks after the last
+	 * UUID of the previous one, so neither {@code OFFSET} nor {@code COUNT(*)} are
+	 * issued whatever the size of the table. <br>
+	 * With {@code fields}, only the columns of these fields are read and returned,
+	 * along with the UUID. <br>
 	 * 
-	 * @return all the patients present in the database
+	 * @param pageToken : the token returned with the previous page, omitted to
+	 *                  get the first page
+	 * @param size      : the number of patients wanted, capped by
+	 *                  {@code patient.pagination.max-page-size}
+	 * @param fields    : the fields of the patients wanted, comma separated,
+	 *                  omitted for the whole patients
+	 * @return a page of patients along with the token of the next page, else
+	 *         throw a {@link PaginationNotValidException} if the token is not
+	 *         valid, or a {@link FieldsNotValidException} if a field is unknown
 	 */
 	@GetMapping("/patient")
+	public PatientPage<?> getPatients(@RequestParam(value = "pageToken", required = false) String pageToken,
+			@RequestParam(value = "size", required = false) Integer size,
+			@RequestParam(value = "fields", required = false) String fields) {
+		int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+
+		if (fields != null) {
+			UUID after = pageToken == null ? null : ContinuationToken.decode(pageToken);
+			List<Map<String, Object>> rows = patientRepository.findFields(PatientSpecifications.after(after),
+					PatientFields.parse(fields, "uuid"), Sort.by("uuid"), 0, pageSize + 1);
+			return page(rows, pageSize, row -> ContinuationToken.encode((UUID) row.get("uuid")));
+		}
+
+		// One more row is read to know whether a next page exists
+		PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+		List<Patient> patients = pageToken == null ? patientRepository.findAllByOrderByUuidAsc(pageRequest)
+				: patientRepository.findByUuidGreaterThanOrderByUuidAsc(ContinuationToken.decode(pageToken),
+						pageRequest);
+		return page(patients, pageSize, patient -> ContinuationToken.encode(patient.getUuid()));
+	}
+
+	/**
+	 * GET mapping to retrieve the {@link Patient} born within a range of dates or
+	 * of ages, optionally of a given gender. <br>
+	 * The ages are turned into dates of birth, so that the range is filtered by
+	 * the database through the index on the date of birth, and only the matching
+	 * patients are read. The pages are ordered by date of birth. <br>
+	 * With {@code fields}, only the columns of these fields are read and returned,
+	 * along with the UUID and the date of birth. <br>
+	 * 
+	 * @param bornFrom  : first date of birth included, as {@code yyyy-MM-dd}
+	 * @param bornTo    : last date of birth included, as {@code yyyy-MM-dd}
+	 * @param minAge    : minimum age in years, included
+	 * @param maxAge    : maximum age in years, included
+	 * @param gender    : of the patients, optional
+	 * @param pageToken : the token returned with the previous page, omitted to
+	 *                  get the first page
+	 * @param size      : the number of patients wanted, capped by
+	 *                  {@code patient.pagination.max-page-size}
+	 * @param fields    : the fields of the patients wanted, comma separated,
+	 *                  omitted for the whole patients
+	 * @return a page of patients along with the token of the next page, else
+	 *         throw a {@link SearchNotValidException} if no bound of the range is
+	 *         provided, a {@link PaginationNotValidException} if the token is not
+	 *         valid, or a {@link FieldsNotValidException} if a field is unknown
+	 */
+	@GetMapping("/patient/dateOfBirth")
+	public PatientPage<?> getPatientsByDateOfBirth(
+			@RequestParam(value = "bornFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+			@RequestParam(value = "bornTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+			@RequestParam(value = "minAge", required = false) Integer minAge,
+			@RequestParam(value = "maxAge", required = false) Integer maxAge,
+			@RequestParam(value = "gender", required = false) String gender,
+			@RequestParam(value = "pageToken", required = false) String pageToken,
+			@RequestParam(value = "size", required = false) Integer size,
+			@RequestParam(value = "fields", required = false) String fields) {
+		if (bornFrom == null && bornTo == null && minAge == null && maxAge == null) {
+			throw new SearchNotValidException(
+					"At least one of bornFrom, bornTo, minAge or maxAge must be provided to search by date of birth.");
+		}
+		if ((minAge != null && minAge < 0) || (maxAge != null && maxAge < 0)) {
+			throw new SearchNotValidException("The ages provided : '" + minAge + "' and '" + maxAge
+					+ "' must be positive.");
+		}
+
+		LocalDate today = LocalDate.now();
+		if (minAge != null) {
+			LocalDate latest = today.minusYears(minAge);
+			bornTo = bornTo == null || latest.isBefore(bornTo) ? latest : bornTo;
+		}
+		if (maxAge != null) {
+			// Still maxAge years old the day before the birthday of maxAge + 1
+			LocalDate earliest = today.minusYears(maxAge + 1L).plusDays(1);
+			bornFrom = bornFrom == null || earliest.isAfter(bornFrom) ? earliest : bornFrom;
+		}
+		int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+		if (bornFrom != null && bornTo != null && bornFrom.isAfter(bornTo)) {
+			return new PatientPage<>(List.of(), null);
+		}
+
+		DateOfBirthKey after = pageToken == null ? null : ContinuationToken.decodeDateOfBirthKey(pageToken);
+		if (fields != null) {
+			List<Map<String, Object>> rows = patientRepository.findFields(
+					PatientSpecifications.bornWithin(bornFrom, bornTo, gender, after),
+					PatientFields.parse(fields, "uuid", "dateOfBirth"), Sort.by("dateOfBirth", "uuid"), 0,
+					pageSize + 1);
+			return page(rows, pageSize, row -> ContinuationToken.encode((LocalDate) row.get("dateOfBirth"),
+					(UUID) row.get("uuid")));
+		}
+
+		// One more row is read to know whether a next page exists
+		List<Patient> patients = patientRepository.searchByDateOfBirth(bornFrom, bornTo, gender, after,
+				pageSize + 1);
+		return page(patients, pageSize,
+				patient -> ContinuationToken.encode(patient.getDateOfBirth(), patient.getUuid()));
+	}
+
+	/**
+	 * GET mapping to search the {@link Patient} by any combination of criteria:
+	 * prefix of the last name or of the first name, gender, range of dates of
+	 * birth, phone number and part of the home address. <br>
+	 * The search is refused when none of its criteria is served by an index, as
+	 * it would scan the whole table: a name prefix of at least 2 characters, a
+	 * bound of the date of birth, the phone number or a part of the address of at
+	 * least 3 characters must be provided. The pages beyond
+	 * {@code patient.search.max-offset} patients are refused as well, the token
+	 * pagination of {@code /patient/dateOfBirth} serves the deep reads. <br>
+	 * With {@code fields}, only the columns of these fields are read and returned,
+	 * along with the UUID. <br>
+	 * 
+	 * @param patientSearch : the criteria, bound from the query parameters
+	 * @param page          : the number of the page, from 0
+	 * @param size          : the number of patients wanted, capped by
+	 *                      {@code patient.pagination.max-page-size}
+	 * @param sort          : the field to sort by, followed by {@code ,desc} for
+	 *                      the descending order, by last name and first name if
+	 *                      omitted
+	 * @param fields        : the fields of the patients wanted, comma separated,
+	 *                      omitted for the whole patients
+	 * @return a page of patients, else throw a {@link SearchNotValidException} if
+	 *         the search isn't indexed, the sort or the page isn't valid, or a
+	 *         {@link FieldsNotValidException} if a field is unknown
+	 */
+	@GetMapping("/patient/search")
+	public PatientSlice<?> searchPatients(PatientSearch patientSearch,
+			@RequestParam(value = "page", required = false, defaultValue = "0") int page,
+			@RequestParam(value = "size", required = false) Integer size,
+			@RequestParam(value = "sort", required = false) String sort,
+			@RequestParam(value = "fields", required = false) String fields) {
+		if (!patientSearch.isIndexed()) {
+			throw new SearchNotValidException("The search provided : '" + patientSearch.toString()
+					+ "' must contain a name prefix of at least " + PatientSearch.MIN_NAME_PREFIX
+					+ " characters, a date of birth, a phone number or a home address part of at least "
+					+ PatientSearch.MIN_ADDRESS_SUBSTRING + " characters.");
+		}
+		int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+		if (page < 0 || (long) page * pageSize > searchMaxOffset) {
+			throw new SearchNotValidException("The page provided : '" + page + "' must be between 0 and the "
+					+ searchMaxOffset + " first patients, narrow the search down instead.");
+		}
+
+		if (fields != null) {
+			Sort rowSort = searchSort(sort).and(Sort.by("uuid"));
+			// One more row is read to know whether a next page exists
+			List<Map<String, Object>> rows = patientRepository.findFields(PatientSpecifications.of(patientSearch),
+					PatientFields.parse(fields, "uuid"), rowSort, (long) page * pageSize, pageSize + 1);
+			boolean hasNext = rows.size() > pageSize;
+			return new PatientSlice<>(hasNext ? rows.subList(0, pageSize) : rows, page, pageSize, hasNext);
+		}
+
+		Slice<Patient> slice = patientRepository.search(PatientSpecifications.of(patientSearch),
+				PageRequest.of(page, pageSize, searchSort(sort)));
+		return new PatientSlice<>(slice.getContent(), page, pageSize, slice.hasNext());
+	}
+
+	/**
+	 * GET mapping to retrieve all {@link Patient} from the database at once. <br>
+	 * It loads the whole table in memory, it is only available when
+	 * {@code patient.pagination.unpaged-enabled} is set and the client explicitly
+	 * asks for it with {@code unpaged=true}. <br>
+	 * 
+	 * @return all the patients present in the database, else throw a
+	 *         {@link PaginationNotValidException} if the unpaged listing is
+	 *         disabled
+	 */
+	@GetMapping(value = "/patient", params = "unpaged=true")
 	public List<Patient> getAllPatients() {
+		if (!unpagedEnabled) {
+			throw new PaginationNotValidException(
+					"The unpaged listing of the patients is disabled, use the page token instead.");
+		}
 		return patientRepository.findAll();
 	}
 
@@ -99,6 +495,9 @@ public class PatientController {
 
 		httpServletResponse.setStatus(201);
 		patientRepository.save(patient);
+		patientCache.invalidate(patient.getUuid());
+		patientReadCoalescer.invalidate();
+		patientNameIndex.put(patient);
 		return "Patient sucessfully saved";
 	}
 
@@ -106,16 +505,22 @@ public class PatientController {
 	 * PUT mapping to update an existing {@link Patient} in the database. <br>
 	 * It firstly verifies that the patient to update is present in the database.
 	 * <br>
+	 * When the {@code If-Match} header carries the version of the patient known by
+	 * the client, the update is refused if the patient has been modified since.
+	 * <br>
 	 * 
 	 * @param uuid    : of the patient to update
 	 * @param patient : the informations to update
+	 * @param ifMatch : the version of the patient known by the client, optional
 	 * @return a success message if the request is a success, else throw a
-	 *         {@link PatientNotFoundException} or a {@link BodyNotValidException}
-	 *         depending of what went wrong
+	 *         {@link PatientNotFoundException}, a {@link BodyNotValidException} or
+	 *         a {@link PatientVersionConflictException} depending of what went
+	 *         wrong
 	 */
 	@PutMapping("/patient/{uuid}")
 	public String updatePatient(@PathVariable("uuid") UUID uuid, @Valid @RequestBody Patient patient,
-			BindingResult bindingResult, HttpServletResponse httpServletResponse) {
+			BindingResult bindingResult, @RequestHeader(value = "If-Match", required = false) String ifMatch,
+			HttpServletResponse httpServletResponse) {
 		Patient patientToUpdate = patientRepository.findById(uuid).orElseThrow(() -> new PatientNotFoundException(
 				"The provided uuid : '" + uuid + "' is not attributed to an existing patient."));
 
@@ -125,20 +530,87 @@ public class PatientController {
 							+ bindingResult.getFieldError().getDefaultMessage() + "'.").toString();
 		}
 
+		Long expectedVersion = PatientETags.parseIfMatch(ifMatch, uuid);
+		if (expectedVersion != null && expectedVersion != patientToUpdate.getVersion()) {
+			throw versionConflict(uuid, expectedVersion);
+		}
+
 		patientToUpdate.setDateOfBirth(patient.getDateOfBirth());
 		patientToUpdate.setFirstName(patient.getFirstName());
 		patientToUpdate.setLastName(patient.getLastName());
 		patientToUpdate.setHomeAddress(patient.getHomeAddress());
 		patientToUpdate.setPhoneNumber(patient.getPhoneNumber());
 		patientToUpdate.setGender(patient.getGender());
-		patientRepository.save(patientToUpdate);
+		try {
+			patientRepository.save(patientToUpdate);
+			patientNameIndex.put(patientToUpdate);
+		} catch (ObjectOptimisticLockingFailureException exception) {
+			// Modified by another request between the read and the write
+			throw versionConflict(uuid, patientToUpdate.getVersion());
+		} finally {
+			patientCache.invalidate(uuid);
+			patientReadCoalescer.invalidate();
+		}
+
+		return "Patient successfully updated";
+	}
+
+	/**
+	 * PATCH mapping to update some fields of an existing {@link Patient} in the
+	 * database. <br>
+	 * Only the fields provided are written, with a single {@code UPDATE} that
+	 * doesn't load the patient. The version known by the client is taken from the
+	 * {@code If-Match} header, else from the body, and the update is refused if
+	 * the patient has been modified since. <br>
+	 * 
+	 * @param uuid         : of the patient to update
+	 * @param patientPatch : the fields to update
+	 * @param ifMatch      : the version of the patient known by the client,
+	 *                     optional
+	 * @return a success message if the request is a success, else throw a
+	 *         {@link PatientNotFoundException}, a {@link BodyNotValidException} or
+	 *         a {@link PatientVersionConflictException} depending of what went
+	 *         wrong
+	 */
+	@PatchMapping("/patient/{uuid}")
+	public String patchPatient(@PathVariable("uuid") UUID uuid, @Valid @RequestBody PatientPatch patientPatch,
+			BindingResult bindingResult, @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		if (bindingResult.hasErrors()) {
+			return new BodyNotValidException(
+					"The patch provided : '" + patientPatch.toString() + "' doesn't satisfy the required field: '"
+							+ bindingResult.getFieldError().getDefaultMessage() + "'.").toString();
+		}
+		if (!patientPatch.hasChanges()) {
+			throw new BodyNotValidException("The patch provided : '" + patientPatch.toString()
+					+ "' doesn't contain any field to update.");
+		}
+
+		Long expectedVersion = PatientETags.parseIfMatch(ifMatch, uuid);
+		if (expectedVersion != null) {
+			patientPatch.setVersion(expectedVersion);
+		}
+
+		int updated = patientRepository.patch(uuid, patientPatch);
+		patientCache.invalidate(uuid);
+		patientReadCoalescer.invalidate();
+		if (updated == 0) {
+			// Only looked up when the update failed, to tell the missing patient from the conflict
+			if (patientPatch.getVersion() != null && patientRepository.existsById(uuid)) {
+				throw versionConflict(uuid, patientPatch.getVersion());
+			}
+			throw new PatientNotFoundException(
+					"The provided uuid : '" + uuid + "' is not attributed to an existing patient.");
+		}
+		patientNameIndex.patch(uuid, patientPatch.getLastName(), patientPatch.getFirstName(),
+				patientPatch.getDateOfBirth());
 
 		return "Patient successfully updated";
 	}
 
 	/**
 	 * DELETE mapping used to delete a {@link Patient}. <br>
-	 * It firstly verifies that the patient is present in the database. <br>
+	 * The patient is deleted with a single {@code DELETE}, the number of rows
+	 * deleted tells whether it was present in the database. <br>
 	 * 
 	 * @param uuid : of the patient to delete
 	 * @return a success message if the request is a success, else throw a
@@ -146,10 +618,84 @@ public class PatientController {
 	 */
 	@DeleteMapping("/patient/{uuid}")
 	public String deletePatient(@PathVariable("uuid") UUID uuid) {
-		Patient patient = patientRepository.findById(uuid).orElseThrow(() -> new PatientNotFoundException(
-				"The provided uuid : '" + uuid + "' is not attributed to an existing patient."));
-		patientRepository.delete(patient);
+		int deleted = patientRepository.deleteByUuid(uuid);
+		patientCache.invalidate(uuid);
+		patientReadCoalescer.invalidate();
+		patientNameIndex.remove(uuid);
+		if (deleted == 0) {
+			throw new PatientNotFoundException(
+					"The provided uuid : '" + uuid + "' is not attributed to an existing patient.");
+		}
 
 		return "The patient has been successfully deleted in the database.";
 	}
+
+	/**
+	 * Page of the rows, one more row than the size of the page having been read
+	 * to know whether a next page exists. <br>
+	 */
+	private static <T> PatientPage<T> page(List<T> rows, int pageSize, Function<T, String> nextPageToken) {
+		if (rows.size() <= pageSize) {
+			return new PatientPage<>(rows, null);
+		}
+		List<T> page = rows.subList(0, pageSize);
+		return new PatientPage<>(page, nextPageToken.apply(page.get(pageSize - 1)));
+	}
+
+	private static Sort searchSort(String sort) {
+		if (sort == null || sort.isBlank()) {
+			return Sort.by("lastName", "firstName");
+		}
+		String[] parts = sort.split(",");
+		String field = parts[0].trim();
+		String direction = parts.length > 1 ? parts[1].trim() : "asc";
+		if (parts.length > 2 || !SEARCH_SORT_FIELDS.contains(field)
+				|| !("asc".equalsIgnoreCase(direction) || "desc".equalsIgnoreCase(direction))) {
+			throw new SearchNotValidException("The sort provided : '" + sort + "' must be one of "
+					+ SEARCH_SORT_FIELDS + ", optionally followed by ',asc' or ',desc'.");
+		}
+		return Sort.by(Sort.Direction.fromString(direction), field);
+	}
+
+	private static PatientNotFoundException patientNotFound(UUID uuid) {
+		return new PatientNotFoundException(
+				"The patient with the provided UUID : '" + uuid + "' could not be found in the database.");
+	}
+
+	/**
+	 * Representation of the patient served, the response varying on it. <br>
+	 */
+	private static String representation(WebRequest webRequest, HttpServletResponse httpServletResponse) {
+		httpServletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		String[] accept = webRequest.getHeaderValues(HttpHeaders.ACCEPT);
+		return PatientETags.representation(accept == null ? null : List.of(accept), REPRESENTATIONS);
+	}
+
+	private static PatientNotFoundException patientNotFound(String lastName, String firstName) {
+		return new PatientNotFoundException("The patient with the last name provided : '" + lastName
+				+ "' and first name provided : '" + firstName + "' could not be found in the database.");
+	}
+
+	/**
+	 * The only patient found by name, several patients can share the same name.
+	 * <br>
+	 */
+	private static <T> T onlyPatient(List<T> patients, Function<T, UUID> uuid, String lastName,
+			String firstName) {
+		if (patients.isEmpty()) {
+			throw patientNotFound(lastName, firstName);
+		}
+		if (patients.size() > 1) {
+			throw new PatientNotUniqueException(patients.size() + " patients share the last name provided : '"
+					+ lastName + "' and first name provided : '" + firstName + "', retrieve them by UUID : "
+					+ patients.stream().map(uuid).map(UUID::toString).sorted().collect(Collectors.joining(", "))
+					+ ".");
+		}
+		return patients.get(0);
+	}
+
+	private static PatientVersionConflictException versionConflict(UUID uuid, long expectedVersion) {
+		return new PatientVersionConflictException("The patient with the provided uuid : '" + uuid
+				+ "' has been modified since the version : '" + expectedVersion + "'.");
+	}
 }
@@ -0,0 +1,72 @@
+package com.abernathyclinic.mediscreen.service_sql.controller;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientDuplicate;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientDuplicateFinder;
+
+/**
+ * Controller dedicated to the detection of the {@link Patient} registered
+ * several times, made for the clinicians merging their records. <br>
+ */
+@RestController
+@Profile("!reactive")
+public class PatientDuplicateController {
+
+	public static final String REPORT_PATH = "/patient/duplicates";
+
+	@Autowired
+	private PatientDuplicateFinder patientDuplicateFinder;
+
+	@Value("${patient.duplicates.report-timeout:PT1H}")
+	private Duration reportTimeout;
+
+	/**
+	 * GET mapping to retrieve the patients likely to be duplicates of a
+	 * {@link Patient}. <br>
+	 *
+	 * @param uuid : of the patient
+	 * @return the likely duplicates with their score, the most similar first,
+	 *         else throw a {@link PatientNotFoundException} if the patient is
+	 *         unknown
+	 */
+	@GetMapping("/patient/{uuid}/duplicates")
+	public List<PatientDuplicate> getDuplicates(@PathVariable("uuid") UUID uuid) {
+		return patientDuplicateFinder.findDuplicates(uuid).orElseThrow(() -> new PatientNotFoundException(
+				"The patient with the provided UUID : '" + uuid + "' could not be found in the database."));
+	}
+
+	/**
+	 * GET mapping to report every pair of likely duplicates of the database as
+	 * newline-delimited JSON. <br>
+	 * The pairs are streamed to the response while the blocks are compared, for
+	 * at most {@code patient.duplicates.report-timeout}. <br>
+	 *
+	 * @return the task writing the pairs, one per line
+	 */
+	@GetMapping(value = REPORT_PATH, produces = PatientExportController.NDJSON)
+	public WebAsyncTask<Void> reportDuplicates(HttpServletResponse httpServletResponse) {
+		httpServletResponse.setContentType(PatientExportController.NDJSON);
+		return new WebAsyncTask<>(reportTimeout.toMillis(), () -> {
+			OutputStream outputStream = httpServletResponse.getOutputStream();
+			patientDuplicateFinder.report(outputStream);
+			outputStream.flush();
+			return null;
+		});
+	}
+}
@@ -0,0 +1,120 @@
+package com.abernathyclinic.mediscreen.service_sql.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientVersionConflictException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Conversion between the version of a {@link Patient} and the {@code ETag},
+ * {@code If-None-Match} and {@code If-Match} headers, shared by the servlet and
+ * the reactive controllers. <br>
+ * A patient served as CBOR or Smile isn't the same bytes as in JSON, its tags
+ * carry the representation after the version ({@code "3+cbor"}), the JSON
+ * ones staying the plain version. The responses vary on {@code Accept}. <br>
+ */
+public final class PatientETags {
+
+	/**
+	 * Smile type, which {@link MediaType} doesn't declare
+	 */
+	public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+	private PatientETags() {
+	}
+
+	/**
+	 * Strong {@code ETag} of a patient retrieved by UUID, its version. <br>
+	 *
+	 * @param representation : see {@link #representation}
+	 */
+	public static String eTag(long version, String representation) {
+		return "\"" + version + representation + "\"";
+	}
+
+	/**
+	 * Strong {@code ETag} of a patient retrieved by name, its UUID and version, as
+	 * the same name may later designate another patient. <br>
+	 *
+	 * @param representation : see {@link #representation}
+	 */
+	public static String eTag(UUID uuid, long version, String representation) {
+		return "\"" + uuid + "." + version + representation + "\"";
+	}
+
+	/**
+	 * Suffix of the tags of the representation the client gets, chosen as the
+	 * content negotiation does: the most preferred type of the {@code Accept}
+	 * headers, the first one produced for a wildcard. <br>
+	 *
+	 * @param accept     : the {@code Accept} headers, null or empty for any type
+	 * @param producible : the types served, JSON first as the default one
+	 * @return an empty suffix for JSON, else {@code +} and the name of the type
+	 */
+	public static String representation(List<String> accept, List<MediaType> producible) {
+		List<MediaType> acceptedTypes;
+		try {
+			acceptedTypes = new ArrayList<>(accept == null || accept.isEmpty() ? List.of(MediaType.ALL)
+					: MediaType.parseMediaTypes(accept));
+		} catch (InvalidMediaTypeException exception) {
+			// Refused with a 406 by the content negotiation
+			return "";
+		}
+		MediaType.sortBySpecificityAndQuality(acceptedTypes);
+		for (MediaType acceptedType : acceptedTypes) {
+			for (MediaType producibleType : producible) {
+				if (acceptedType.includes(producibleType)) {
+					return producibleType.isCompatibleWith(MediaType.APPLICATION_JSON) ? ""
+							: "+" + producibleType.getSubtype().replace("x-jackson-", "");
+				}
+			}
+		}
+		return "";
+	}
+
+	/**
+	 * Read the version from an {@code If-Match} header, as sent back from the
+	 * {@code ETag} ({@code "3"}, {@code "3+cbor"}, {@code "<uuid>.3"},
+	 * {@code W/"3"} or {@code 3}), whatever its representation. <br>
+	 * The UUID of a tag taken from a patient retrieved by name must be the one of
+	 * the patient written, the same name may designate another patient since. <br>
+	 * 
+	 * @param ifMatch : the header provided, optional
+	 * @param uuid    : of the patient written
+	 * @return the version, or null when no header or {@code *} is provided, else
+	 *         throw a {@link BodyNotValidException} if the header isn't a version,
+	 *         or a {@link PatientVersionConflictException} if it is the version of
+	 *         another patient
+	 */
+	public static Long parseIfMatch(String ifMatch, UUID uuid) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String tag = ifMatch.trim();
+		if (tag.startsWith("W/")) {
+			tag = tag.substring(2);
+		}
+		tag = tag.replace("\"", "");
+		if (tag.indexOf('+') >= 0) {
+			tag = tag.substring(0, tag.indexOf('+'));
+		}
+		int separator = tag.lastIndexOf('.');
+		try {
+			if (separator >= 0 && !UUID.fromString(tag.substring(0, separator)).equals(uuid)) {
+				throw new PatientVersionConflictException("The If-Match header provided : '" + ifMatch
+						+ "' is the version of another patient than the one with the UUID : '" + uuid + "'.");
+			}
+			return Long.valueOf(tag.substring(separator + 1));
+		} catch (IllegalArgumentException exception) {
+			throw new BodyNotValidException(
+					"The If-Match header provided : '" + ifMatch + "' is not a version of the patient.");
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.abernathyclinic.mediscreen.service_sql.controller;
+
+import java.io.OutputStream;
+import java.time.Duration;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientExporter;
+
+/**
+ * Controller dedicated to the bulk export of the patients, made for the
+ * downstream jobs which need the whole table. <br>
+ */
+@RestController
+@Profile("!reactive")
+public class PatientExportController {
+
+	public static final String NDJSON = "application/x-ndjson";
+
+	@Autowired
+	private PatientExporter patientExporter;
+
+	@Value("${patient.export.timeout:PT1H}")
+	private Duration timeout;
+
+	/**
+	 * GET mapping to export all the {@link Patient} as newline-delimited JSON.
+	 * <br>
+	 * The rows are streamed to the response while being read from the database,
+	 * nothing is buffered. The export runs asynchronously for at most
+	 * {@code patient.export.timeout}, the other requests keeping the default
+	 * timeout. <br>
+	 * 
+	 * @return the task writing the patients, one per line
+	 */
+	@GetMapping(value = "/patient/export", produces = NDJSON)
+	public WebAsyncTask<Void> exportPatients(HttpServletResponse httpServletResponse) {
+		httpServletResponse.setContentType(NDJSON);
+		return new WebAsyncTask<>(timeout.toMillis(), () -> {
+			OutputStream outputStream = httpServletResponse.getOutputStream();
+			patientExporter.export(outputStream);
+			outputStream.flush();
+			return null;
+		});
+	}
+}
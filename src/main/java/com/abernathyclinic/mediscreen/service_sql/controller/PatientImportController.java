@@ -0,0 +1,94 @@
+package com.abernathyclinic.mediscreen.service_sql.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.ImportNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientImportJob;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientImportJobs;
+
+/**
+ * Controller dedicated to the import of the patients from CSV files, made for
+ * the migration of a clinic. <br>
+ * The import runs in the background, its progress is followed with its status.
+ * <br>
+ */
+@RestController
+@Profile("!reactive")
+public class PatientImportController {
+
+	public static final String CSV = "text/csv";
+	public static final String IMPORT_PATH = "/patient/import";
+
+	@Autowired
+	private PatientImportJobs patientImportJobs;
+
+	/**
+	 * POST mapping to import the {@link Patient} of a CSV file. <br>
+	 * The file starts with a header naming its columns after the fields of the
+	 * patient, the rows which aren't valid are rejected without preventing the
+	 * others to be imported. <br>
+	 * 
+	 * @param inputStream : the body of the request, the CSV file
+	 * @return the import queued, with a {@code Location} to follow its status,
+	 *         else throw a {@link BodyNotValidException} if the file is too
+	 *         large or a {@link ServiceOverloadedException} if too many imports
+	 *         are waiting
+	 * @throws IOException if the file couldn't be received
+	 */
+	@PostMapping(value = IMPORT_PATH, consumes = CSV)
+	public PatientImportJob importPatients(InputStream inputStream, HttpServletResponse httpServletResponse)
+			throws IOException {
+		PatientImportJob job = patientImportJobs.submit(inputStream);
+		httpServletResponse.setStatus(202);
+		httpServletResponse.setHeader(HttpHeaders.LOCATION, IMPORT_PATH + "/" + job.getId());
+		return job;
+	}
+
+	/**
+	 * GET mapping to follow an import: its status, its progress, its throughput
+	 * and the number of rows imported and rejected. <br>
+	 * 
+	 * @param id : of the import
+	 * @return the import if known, else throw an {@link ImportNotFoundException}
+	 */
+	@GetMapping(IMPORT_PATH + "/{id}")
+	public PatientImportJob getImport(@PathVariable("id") UUID id) {
+		return job(id);
+	}
+
+	/**
+	 * GET mapping to retrieve the rows rejected by an import, as CSV, with their
+	 * line in the file and the reason of their rejection. <br>
+	 * The report is complete once the import is finished. <br>
+	 * 
+	 * @param id : of the import
+	 * @return the report if the import is known, else throw an
+	 *         {@link ImportNotFoundException}
+	 */
+	@GetMapping(value = IMPORT_PATH + "/{id}/rejections", produces = CSV)
+	public Resource getRejections(@PathVariable("id") UUID id) {
+		return new FileSystemResource(job(id).getRejectionsFile());
+	}
+
+	private PatientImportJob job(UUID id) {
+		return patientImportJobs.get(id)
+				.orElseThrow(() -> new ImportNotFoundException("The import " + id + " is unknown."));
+	}
+}
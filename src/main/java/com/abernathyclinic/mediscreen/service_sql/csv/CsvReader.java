@@ -0,0 +1,119 @@
+package com.abernathyclinic.mediscreen.service_sql.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a CSV file record by record, as described by the RFC 4180: the fields
+ * are separated by commas, and the ones containing a comma, a quote or a line
+ * break are quoted, their quotes being doubled. <br>
+ * Only the record being read is kept in memory, it is refused beyond
+ * {@link #MAX_RECORD_LENGTH} characters, so that a quote left open doesn't read
+ * the rest of the file at once. The empty lines are skipped. <br>
+ */
+public class CsvReader implements Closeable {
+
+	/**
+	 * Maximum number of characters of a record
+	 */
+	public static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+	private final BufferedReader reader;
+	private long line = 1;
+	private long recordLine;
+
+	public CsvReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Read the next record of the file. <br>
+	 *
+	 * @return the fields of the record, or null at the end of the file
+	 * @throws IOException if the file can't be read, or if a record is too long
+	 *                     or isn't closed at the end of the file
+	 */
+	public List<String> readRecord() throws IOException {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		boolean empty = true;
+		int length = 0;
+		recordLine = line;
+
+		int character;
+		while ((character = reader.read()) != -1) {
+			if (++length > MAX_RECORD_LENGTH) {
+				throw new IOException("The record of the line " + recordLine + " is longer than "
+						+ MAX_RECORD_LENGTH + " characters.");
+			}
+			if (quoted) {
+				if (character == '"') {
+					reader.mark(1);
+					if (reader.read() == '"') {
+						field.append('"');
+					} else {
+						reader.reset();
+						quoted = false;
+					}
+				} else {
+					if (character == '\n') {
+						line++;
+					}
+					field.append((char) character);
+				}
+			} else if (character == '"') {
+				quoted = true;
+				empty = false;
+			} else if (character == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+				empty = false;
+			} else if (character == '\r' || character == '\n') {
+				if (character == '\r') {
+					reader.mark(1);
+					if (reader.read() != '\n') {
+						reader.reset();
+					}
+				}
+				line++;
+				if (!empty || field.length() > 0) {
+					fields.add(field.toString());
+					return fields;
+				}
+				// An empty line
+				recordLine = line;
+				length = 0;
+			} else {
+				field.append((char) character);
+				empty = false;
+			}
+		}
+
+		if (quoted) {
+			throw new IOException("The quoted field of the line " + recordLine + " isn't closed.");
+		}
+		if (empty && field.length() == 0) {
+			return null;
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * @return the line of the file on which the last record read starts,
+	 *         starting at 1
+	 */
+	public long getRecordLine() {
+		return recordLine;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
@@ -0,0 +1,74 @@
+package com.abernathyclinic.mediscreen.service_sql.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Keep a client on the primary right after it has written, so that it reads
+ * its own writes even while the replicas lag behind. <br>
+ * Every request which isn't a read is served by the primary, and answers with
+ * a cookie pinning the following requests of the client to the primary until
+ * the window is over. The lookup of several patients is a read despite its
+ * POST. <br>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+	public static final String COOKIE_NAME = "patient-primary-until";
+
+	private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+	private final Duration window;
+
+	/**
+	 * @param window : how long a client reads from the primary after a write
+	 */
+	public ReadYourWritesFilter(Duration window) {
+		this.window = window;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		boolean write = !READ_METHODS.contains(request.getMethod())
+				&& !PatientController.LOOKUP_PATH.equals(request.getServletPath());
+		if (write) {
+			// Set before the body is written, once the response is committed the cookie would be dropped
+			Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(System.currentTimeMillis() + window.toMillis()));
+			cookie.setMaxAge((int) Math.max(1, (window.toMillis() + 999) / 1000));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			response.addCookie(cookie);
+		}
+
+		ReplicaRoutingDataSource.pinToPrimary(write || isWithinWindow(request));
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			ReplicaRoutingDataSource.pinToPrimary(false);
+		}
+	}
+
+	private static boolean isWithinWindow(HttpServletRequest request) {
+		Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+		if (cookie == null) {
+			return false;
+		}
+		try {
+			return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+		} catch (NumberFormatException exception) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.abernathyclinic.mediscreen.service_sql.datasource;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Replaces the {@link DataSource} of Spring Boot by a
+ * {@link ReplicaRoutingDataSource} when {@code patient.datasource.replica-urls}
+ * is set. <br>
+ * The primary is built from the {@code spring.datasource.*} properties, each
+ * replica gets its own pool with the same {@code spring.datasource.hikari.*}
+ * settings. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("!reactive")
+@ConditionalOnProperty("patient.datasource.replica-urls")
+public class ReplicaDataSourceConfiguration {
+
+	@Bean
+	public DataSource dataSource(DataSourceProperties dataSourceProperties, Environment environment,
+			ObjectProvider<MeterRegistry> meterRegistry,
+			@Value("${patient.datasource.replica-urls}") List<String> replicaUrls,
+			@Value("${patient.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+			@Value("${patient.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+			@Value("${patient.datasource.replica-connection-timeout:PT1S}") Duration replicaConnectionTimeout,
+			@Value("${patient.datasource.replica-ejection:PT30S}") Duration replicaEjection) {
+		Binder binder = Binder.get(environment);
+		MeterRegistry registry = meterRegistry.getIfAvailable();
+
+		HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class)
+				.build();
+		configure(primary, "primary", binder, registry);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < replicaUrls.size(); i++) {
+			HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+					.url(replicaUrls.get(i).trim()).username(replicaUsername).password(replicaPassword).build();
+			configure(replica, "replica-" + i, binder, registry);
+			// Short, so that a replica which is down is ejected instead of holding the request
+			replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+			replicas.put(replica.getPoolName(), replica);
+		}
+
+		ReplicaRoutingDataSource replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replicas,
+				replicaEjection);
+		if (registry != null) {
+			replicaRoutingDataSource.bindTo(registry);
+		}
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	@Bean
+	public ReadYourWritesFilter readYourWritesFilter(
+			@Value("${patient.datasource.read-your-writes-window:PT5S}") Duration readYourWritesWindow) {
+		return new ReadYourWritesFilter(readYourWritesWindow);
+	}
+
+	private static void configure(HikariDataSource dataSource, String poolName, Binder binder,
+			MeterRegistry registry) {
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		dataSource.setPoolName(poolName);
+		// The pools are hidden behind the routing, Spring Boot can't find them to publish their metrics
+		if (registry != null) {
+			dataSource.setMetricRegistry(registry);
+		}
+	}
+}
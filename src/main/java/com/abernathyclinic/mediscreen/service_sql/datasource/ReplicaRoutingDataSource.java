@@ -0,0 +1,137 @@
+package com.abernathyclinic.mediscreen.service_sql.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * {@link DataSource} sending the read-only transactions to the replicas, and
+ * everything else to the primary. <br>
+ * The replicas are used in turn. A replica which can't give a connection is
+ * ejected for a while, its reads go to the next replica, or to the primary when
+ * none is left. <br>
+ * It must be wrapped in a {@link LazyConnectionDataSourceProxy}, as the
+ * read-only flag of a transaction is only known once it has begun. <br>
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+	private static final ThreadLocal<Boolean> primaryPinned = ThreadLocal.withInitial(() -> false);
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<>();
+	private final long ejectionNanos;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	/**
+	 * @param primary  : receiving the writes, and the reads when no replica is
+	 *                 available
+	 * @param replicas : by name, receiving the read-only transactions
+	 * @param ejection : how long a failing replica is left aside
+	 */
+	public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration ejection) {
+		this.primary = primary;
+		replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+		this.ejectionNanos = ejection.toNanos();
+	}
+
+	/**
+	 * Send every connection of the current thread to the primary, whether the
+	 * transaction is read-only or not. <br>
+	 *
+	 * @param pinned : true to pin the thread to the primary, false to release it
+	 */
+	public static void pinToPrimary(boolean pinned) {
+		if (pinned) {
+			primaryPinned.set(true);
+		} else {
+			primaryPinned.remove();
+		}
+	}
+
+	/**
+	 * @return whether the connections of the current thread are sent to the
+	 *         primary
+	 */
+	public static boolean isPinnedToPrimary() {
+		return primaryPinned.get();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (primaryPinned.get() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return primary.getConnection();
+		}
+
+		int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = replicas.get((first + i) % replicas.size());
+			long now = System.nanoTime();
+			if (replica.isEjected(now)) {
+				continue;
+			}
+			try {
+				return replica.dataSource.getConnection();
+			} catch (SQLException | RuntimeException exception) {
+				// Hikari throws a PoolInitializationException when the replica is down at the first connection
+				replica.ejectedUntil = now + ejectionNanos;
+				logger.warn("The replica '{}' is ejected, it failed to give a connection : {}", replica.name,
+						exception.getMessage());
+			}
+		}
+		return primary.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException(
+				"The connections are taken from the pools of the primary and the replicas, with their own credentials.");
+	}
+
+	/**
+	 * Publish the availability of each replica as the
+	 * {@code patient.datasource.replica.available} gauge. <br>
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (Replica replica : replicas) {
+			Gauge.builder("patient.datasource.replica.available", replica,
+					value -> value.isEjected(System.nanoTime()) ? 0 : 1).tag("replica", replica.name)
+					.description("Whether the replica receives the read-only transactions").register(registry);
+		}
+	}
+
+	private static final class Replica {
+
+		private final String name;
+		private final DataSource dataSource;
+		private volatile long ejectedUntil = System.nanoTime();
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+
+		private boolean isEjected(long now) {
+			return now - ejectedUntil < 0;
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.abernathyclinic.mediscreen.service_sql.documentation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import springfox.documentation.builders.PathSelectors;
+import springfox.documentation.builders.RequestHandlerSelectors;
+import springfox.documentation.spi.DocumentationType;
+import springfox.documentation.spring.web.plugins.Docket;
+
+/**
+ * Swagger configuration, only loaded along with Springfox when
+ * {@code springfox.documentation.enabled=true}: the controllers aren't scanned
+ * at boot in production. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "springfox.documentation.enabled", havingValue = "true")
+public class SwaggerConfiguration {
+
+	/**
+	 * Ask to work for the controller package only, that's to disable the
+	 * documentation of the default Spring Boot error controller. <br>
+	 */
+	@Bean
+	public Docket swaggerConfigurationBean() {
+		return new Docket(DocumentationType.SWAGGER_2).select()
+				.apis(RequestHandlerSelectors.basePackage("com.abernathyclinic.mediscreen.service_sql.controller"))
+				.paths(PathSelectors.any()).build();
+	}
+}
@@ -0,0 +1,70 @@
+package com.abernathyclinic.mediscreen.service_sql.duplicates;
+
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the {@link BlockingKeyIndex} with the keys of the patients which have
+ * none, once the application is ready: the patients written before the index
+ * existed. <br>
+ * The patients are read page by page, in the order of their UUIDs, each page
+ * in its own transaction. It can be disabled with
+ * {@code patient.duplicates.backfill-on-startup=false}. <br>
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(value = "patient.duplicates.backfill-on-startup", matchIfMissing = true)
+public class BlockingKeyBackfill {
+
+	private static final Logger logger = LoggerFactory.getLogger(BlockingKeyBackfill.class);
+
+	private final TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${patient.duplicates.backfill-page-size:1000}")
+	private int pageSize;
+
+	public BlockingKeyBackfill(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void backfill() {
+		long count = 0;
+		UUID after = null;
+		List<UUID> uuids;
+		do {
+			UUID last = after;
+			uuids = transactionTemplate
+					.execute(status -> entityManager.unwrap(Session.class).doReturningWork(connection -> {
+						List<UUID> page = BlockingKeyIndex.findPatientsWithoutKeys(connection, last, pageSize);
+						BlockingKeyIndex.refresh(connection, page);
+						return page;
+					}));
+			if (!uuids.isEmpty()) {
+				after = uuids.get(uuids.size() - 1);
+				count += uuids.size();
+			}
+		} while (uuids.size() == pageSize);
+		if (count > 0) {
+			logger.info("The blocking keys of {} patients have been filled", count);
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package com.abernathyclinic.mediscreen.service_sql.duplicates;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import com.abernathyclinic.mediscreen.service_sql.changes.PatientChangeLog;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Reads and writes the {@code patient_blocking_keys} table, which holds the
+ * {@link BlockingKeys} of every patient, one row per key. <br>
+ * The keys of the patients written are refreshed in the transaction of the
+ * write, along with the changes recorded by the {@link PatientChangeLog}. The
+ * patients are read through JDBC, so that the keys are refreshed from the
+ * state flushed to the database whatever wrote it. <br>
+ */
+public final class BlockingKeyIndex {
+
+	private static final String TABLE = "abernathyclinic_mediscreen.patient_blocking_keys";
+	private static final String SELECT_PATIENTS = "select uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number, version from abernathyclinic_mediscreen.patients where uuid in ";
+	private static final int CHUNK_SIZE = 500;
+
+	private BlockingKeyIndex() {
+	}
+
+	/**
+	 * Replace the keys of the patients by the ones of their current state, the
+	 * patients deleted losing theirs. <br>
+	 *
+	 * @param connection : of the transaction which wrote the patients
+	 * @param uuids      : of the patients written
+	 */
+	public static void refresh(Connection connection, Collection<UUID> uuids) throws SQLException {
+		List<UUID> distinctUuids = new ArrayList<>(new LinkedHashSet<>(uuids));
+		try (PreparedStatement delete = connection.prepareStatement("delete from " + TABLE + " where uuid = ?")) {
+			for (UUID uuid : distinctUuids) {
+				delete.setObject(1, uuid);
+				delete.addBatch();
+			}
+			delete.executeBatch();
+		}
+		insert(connection, findPatients(connection, distinctUuids));
+	}
+
+	/**
+	 * @param connection : to read with
+	 * @param uuids      : of the patients
+	 * @return the patients found, read chunk by chunk
+	 */
+	public static List<Patient> findPatients(Connection connection, List<UUID> uuids) throws SQLException {
+		List<Patient> patients = new ArrayList<>(uuids.size());
+		for (int start = 0; start < uuids.size(); start += CHUNK_SIZE) {
+			List<UUID> chunk = uuids.subList(start, Math.min(start + CHUNK_SIZE, uuids.size()));
+			try (PreparedStatement select = connection
+					.prepareStatement(SELECT_PATIENTS + "(" + String.join(", ", Collections.nCopies(chunk.size(), "?"))
+							+ ")")) {
+				for (int index = 0; index < chunk.size(); index++) {
+					select.setObject(index + 1, chunk.get(index));
+				}
+				try (ResultSet resultSet = select.executeQuery()) {
+					while (resultSet.next()) {
+						patients.add(new Patient(resultSet.getObject("uuid", UUID.class),
+								resultSet.getString("last_name"), resultSet.getString("first_name"),
+								resultSet.getObject("date_of_birth", LocalDate.class), resultSet.getString("gender"),
+								resultSet.getString("home_address"), resultSet.getString("phone_number"),
+								resultSet.getLong("version")));
+					}
+				}
+			}
+		}
+		return patients;
+	}
+
+	/**
+	 * @param connection   : to read with
+	 * @param keys         : of a patient
+	 * @param maxBlockSize : the keys shared by more patients are ignored
+	 * @return the patients sharing one of the keys, the patient itself included
+	 */
+	public static Set<UUID> findCandidates(Connection connection, Collection<String> keys, int maxBlockSize)
+			throws SQLException {
+		Set<UUID> uuids = new LinkedHashSet<>();
+		try (PreparedStatement select = connection.prepareStatement(
+				"select uuid from " + TABLE + " where blocking_key = ? order by uuid")) {
+			// One more row is read to know whether the block is too large
+			select.setMaxRows(maxBlockSize + 1);
+			for (String key : keys) {
+				select.setString(1, key);
+				List<UUID> block = new ArrayList<>();
+				try (ResultSet resultSet = select.executeQuery()) {
+					while (resultSet.next()) {
+						block.add(resultSet.getObject("uuid", UUID.class));
+					}
+				}
+				if (block.size() <= maxBlockSize) {
+					uuids.addAll(block);
+				}
+			}
+		}
+		return uuids;
+	}
+
+	/**
+	 * Go through the blocks of the table, in the order of their keys. <br>
+	 *
+	 * @param connection   : to read with, outside of the auto-commit mode so that
+	 *                     the rows are read with a cursor
+	 * @param fetchSize    : number of rows read at once
+	 * @param maxBlockSize : the blocks of more patients are skipped
+	 * @param consumer     : given each block of at least 2 patients
+	 */
+	public static void forEachBlock(Connection connection, int fetchSize, int maxBlockSize, BlockConsumer consumer)
+			throws SQLException {
+		try (PreparedStatement select = connection.prepareStatement(
+				"select blocking_key, uuid from " + TABLE + " order by blocking_key, uuid",
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+			select.setFetchSize(fetchSize);
+			try (ResultSet resultSet = select.executeQuery()) {
+				String key = null;
+				List<UUID> block = new ArrayList<>();
+				boolean skipped = false;
+				while (resultSet.next()) {
+					String rowKey = resultSet.getString("blocking_key");
+					if (!rowKey.equals(key)) {
+						accept(consumer, key, block);
+						key = rowKey;
+						block.clear();
+						skipped = false;
+					}
+					// A block too large is only counted past its limit
+					if (!skipped) {
+						block.add(resultSet.getObject("uuid", UUID.class));
+						if (block.size() > maxBlockSize) {
+							skipped = true;
+							block.clear();
+						}
+					}
+				}
+				accept(consumer, key, block);
+			}
+		}
+	}
+
+	/**
+	 * @param connection : to read with
+	 * @param after      : the last UUID of the previous page, null for the first
+	 *                   page
+	 * @param limit      : maximum number of UUIDs returned
+	 * @return the UUIDs of the patients without any key, in order
+	 */
+	public static List<UUID> findPatientsWithoutKeys(Connection connection, UUID after, int limit)
+			throws SQLException {
+		List<UUID> uuids = new ArrayList<>();
+		try (PreparedStatement select = connection.prepareStatement(
+				"select p.uuid from abernathyclinic_mediscreen.patients p where not exists (select 1 from " + TABLE
+						+ " k where k.uuid = p.uuid)" + (after == null ? "" : " and p.uuid > ?") + " order by p.uuid")) {
+			if (after != null) {
+				select.setObject(1, after);
+			}
+			select.setMaxRows(limit);
+			try (ResultSet resultSet = select.executeQuery()) {
+				while (resultSet.next()) {
+					uuids.add(resultSet.getObject("uuid", UUID.class));
+				}
+			}
+		}
+		return uuids;
+	}
+
+	private static void insert(Connection connection, List<Patient> patients) throws SQLException {
+		try (PreparedStatement insert = connection
+				.prepareStatement("insert into " + TABLE + " (blocking_key, uuid) values (?, ?)")) {
+			for (Patient patient : patients) {
+				for (String key : BlockingKeys.of(patient)) {
+					insert.setString(1, key);
+					insert.setObject(2, patient.getUuid());
+					insert.addBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+	}
+
+	private static void accept(BlockConsumer consumer, String key, List<UUID> block) throws SQLException {
+		if (block.size() > 1) {
+			consumer.accept(key, block);
+		}
+	}
+
+	/**
+	 * Given the UUIDs of the patients of a block
+	 */
+	@FunctionalInterface
+	public interface BlockConsumer {
+
+		void accept(String key, List<UUID> uuids) throws SQLException;
+	}
+}
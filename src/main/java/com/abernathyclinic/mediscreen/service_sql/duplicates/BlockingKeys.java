@@ -0,0 +1,108 @@
+package com.abernathyclinic.mediscreen.service_sql.duplicates;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Derives the blocking keys of a {@link Patient}: two patients are only
+ * compared as potential duplicates when they share at least one key. <br>
+ * The names are reduced to their Double Metaphone code, after removing the
+ * accents, so that "Dupont" and "Dupond" share the same code. The keys are:
+ * <br>
+ * - {@code N:} the codes of the last name and of the first name, <br>
+ * - {@code F:} the date of birth and the code of the first name, which keeps
+ * together a patient whose last name changed, <br>
+ * - {@code L:} the date of birth and the code of the last name, which keeps
+ * together a patient whose first name is misspelled, <br>
+ * - {@code T:} the last 9 digits of the phone number. <br>
+ */
+public final class BlockingKeys {
+
+	private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+	private static final int MIN_PHONE_DIGITS = 8;
+	private static final int PHONE_DIGITS = 9;
+
+	private BlockingKeys() {
+	}
+
+	/**
+	 * @param patient : whose keys are derived
+	 * @return the keys of the patient, in their natural order
+	 */
+	public static Set<String> of(Patient patient) {
+		return of(patient.getLastName(), patient.getFirstName(), patient.getDateOfBirth(),
+				patient.getPhoneNumber());
+	}
+
+	/**
+	 * @return the keys derived from the fields provided, each of them being
+	 *         optional, in their natural order
+	 */
+	public static Set<String> of(String lastName, String firstName, LocalDate dateOfBirth, String phoneNumber) {
+		String lastNameCode = phonetic(lastName);
+		String firstNameCode = phonetic(firstName);
+		Set<String> keys = new TreeSet<>();
+
+		if (!lastNameCode.isEmpty() && !firstNameCode.isEmpty()) {
+			keys.add("N:" + lastNameCode + ":" + firstNameCode);
+		}
+		if (dateOfBirth != null && !firstNameCode.isEmpty()) {
+			keys.add("F:" + dateOfBirth + ":" + firstNameCode);
+		}
+		if (dateOfBirth != null && !lastNameCode.isEmpty()) {
+			keys.add("L:" + dateOfBirth + ":" + lastNameCode);
+		}
+		String phone = phone(phoneNumber);
+		if (phone != null) {
+			keys.add("T:" + phone);
+		}
+		return keys;
+	}
+
+	/**
+	 * @return the name in upper case, without its accents and keeping its letters
+	 *         only, empty if the name is null
+	 */
+	public static String normalize(String name) {
+		if (name == null) {
+			return "";
+		}
+		String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+		return decomposed.replaceAll("[^\\p{IsAlphabetic}]", "").toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * @return the last digits of the phone number, which don't depend on the
+	 *         international prefix, or null if it has too few digits
+	 */
+	static String phone(String phoneNumber) {
+		if (phoneNumber == null) {
+			return null;
+		}
+		String digits = phoneNumber.replaceAll("[^0-9]", "");
+		if (digits.length() < MIN_PHONE_DIGITS) {
+			return null;
+		}
+		return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits;
+	}
+
+	/**
+	 * @return the Double Metaphone code of the name once normalized, empty if
+	 *         the name has no letter
+	 */
+	public static String phonetic(String name) {
+		String normalized = normalize(name);
+		if (normalized.isEmpty()) {
+			return "";
+		}
+		String code = DOUBLE_METAPHONE.doubleMetaphone(normalized);
+		return code == null ? "" : code;
+	}
+}
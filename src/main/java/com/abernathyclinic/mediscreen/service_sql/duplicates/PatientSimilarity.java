@@ -0,0 +1,112 @@
+package com.abernathyclinic.mediscreen.service_sql.duplicates;
+
+import java.time.LocalDate;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+
+/**
+ * Scores how likely two {@link Patient} are the same person, from 0 to 1. <br>
+ * The names are compared with the Jaro-Winkler similarity, once normalized by
+ * {@link BlockingKeys}, which tolerates the typos and favours the common
+ * prefixes. The date of birth counts for half when the day and the month are
+ * swapped or when only one of its parts differs. The phone number only counts
+ * when both patients have one. <br>
+ */
+public final class PatientSimilarity {
+
+	private static final double LAST_NAME_WEIGHT = 0.35;
+	private static final double FIRST_NAME_WEIGHT = 0.25;
+	private static final double DATE_OF_BIRTH_WEIGHT = 0.25;
+	private static final double PHONE_NUMBER_WEIGHT = 0.15;
+
+	private PatientSimilarity() {
+	}
+
+	/**
+	 * @return the similarity of the two patients, from 0 to 1
+	 */
+	public static double score(Patient patient, Patient other) {
+		double score = LAST_NAME_WEIGHT * jaroWinkler(BlockingKeys.normalize(patient.getLastName()),
+				BlockingKeys.normalize(other.getLastName()))
+				+ FIRST_NAME_WEIGHT * jaroWinkler(BlockingKeys.normalize(patient.getFirstName()),
+						BlockingKeys.normalize(other.getFirstName()))
+				+ DATE_OF_BIRTH_WEIGHT * dateOfBirth(patient.getDateOfBirth(), other.getDateOfBirth());
+		double weights = LAST_NAME_WEIGHT + FIRST_NAME_WEIGHT + DATE_OF_BIRTH_WEIGHT;
+
+		String phone = BlockingKeys.phone(patient.getPhoneNumber());
+		String otherPhone = BlockingKeys.phone(other.getPhoneNumber());
+		if (phone != null && otherPhone != null) {
+			score += PHONE_NUMBER_WEIGHT * (phone.equals(otherPhone) ? 1 : 0);
+			weights += PHONE_NUMBER_WEIGHT;
+		}
+		return Math.round(score / weights * 1000) / 1000.0;
+	}
+
+	private static double dateOfBirth(LocalDate dateOfBirth, LocalDate other) {
+		if (dateOfBirth == null || other == null) {
+			return 0;
+		}
+		if (dateOfBirth.equals(other)) {
+			return 1;
+		}
+		boolean sameYear = dateOfBirth.getYear() == other.getYear();
+		boolean sameMonth = dateOfBirth.getMonthValue() == other.getMonthValue();
+		boolean sameDay = dateOfBirth.getDayOfMonth() == other.getDayOfMonth();
+		boolean swapped = sameYear && dateOfBirth.getMonthValue() == other.getDayOfMonth()
+				&& dateOfBirth.getDayOfMonth() == other.getMonthValue();
+		return swapped || (sameYear && sameMonth) || (sameYear && sameDay) || (sameMonth && sameDay) ? 0.5 : 0;
+	}
+
+	/**
+	 * Jaro-Winkler similarity of two strings, from 0 to 1
+	 */
+	static double jaroWinkler(String first, String second) {
+		if (first.isEmpty() || second.isEmpty()) {
+			return 0;
+		}
+		if (first.equals(second)) {
+			return 1;
+		}
+		int window = Math.max(0, Math.max(first.length(), second.length()) / 2 - 1);
+		boolean[] firstMatched = new boolean[first.length()];
+		boolean[] secondMatched = new boolean[second.length()];
+
+		int matches = 0;
+		for (int i = 0; i < first.length(); i++) {
+			int end = Math.min(i + window + 1, second.length());
+			for (int j = Math.max(0, i - window); j < end; j++) {
+				if (!secondMatched[j] && first.charAt(i) == second.charAt(j)) {
+					firstMatched[i] = true;
+					secondMatched[j] = true;
+					matches++;
+					break;
+				}
+			}
+		}
+		if (matches == 0) {
+			return 0;
+		}
+
+		int transpositions = 0;
+		for (int i = 0, j = 0; i < first.length(); i++) {
+			if (firstMatched[i]) {
+				while (!secondMatched[j]) {
+					j++;
+				}
+				if (first.charAt(i) != second.charAt(j)) {
+					transpositions++;
+				}
+				j++;
+			}
+		}
+		double jaro = ((double) matches / first.length() + (double) matches / second.length()
+				+ (matches - transpositions / 2.0) / matches) / 3;
+
+		int prefix = 0;
+		while (prefix < Math.min(4, Math.min(first.length(), second.length()))
+				&& first.charAt(prefix) == second.charAt(prefix)) {
+			prefix++;
+		}
+		return jaro + prefix * 0.1 * (1 - jaro);
+	}
+}
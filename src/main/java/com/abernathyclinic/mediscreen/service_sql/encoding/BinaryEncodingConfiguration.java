@@ -0,0 +1,74 @@
+package com.abernathyclinic.mediscreen.service_sql.encoding;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Serves and reads the patients as <b>CBOR</b> ({@code application/cbor}) or
+ * <b>Smile</b> ({@code application/x-jackson-smile}) when the client asks for
+ * it with {@code Accept} or {@code Content-Type}, JSON staying the default.
+ * The reactive profile only serves Smile. <br>
+ * The mappers are built from the {@link Jackson2ObjectMapperBuilder} of Spring
+ * Boot, so that the binary payloads carry the same fields, and the dates as
+ * {@code yyyy-MM-dd}, as the JSON ones. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+public class BinaryEncodingConfiguration {
+
+	/**
+	 * Replaces the CBOR converter registered by Spring MVC, which doesn't apply
+	 * the {@code spring.jackson.*} properties. <br>
+	 */
+	@Bean
+	@Profile("!reactive")
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+			Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		return new MappingJackson2CborHttpMessageConverter(cborMapper(jackson2ObjectMapperBuilder));
+	}
+
+	/**
+	 * Replaces the Smile converter registered by Spring MVC, which doesn't apply
+	 * the {@code spring.jackson.*} properties. <br>
+	 */
+	@Bean
+	@Profile("!reactive")
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+			Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		return new MappingJackson2SmileHttpMessageConverter(smileMapper(jackson2ObjectMapperBuilder));
+	}
+
+	/**
+	 * Registers Smile in WebFlux, which only knows JSON by default. <br>
+	 * CBOR isn't, as its encoder can't write a {@code Flux} such as the unpaged
+	 * listing. <br>
+	 */
+	@Bean
+	@Profile("reactive")
+	public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		ObjectMapper smileMapper = smileMapper(jackson2ObjectMapperBuilder);
+		return configurer -> {
+			configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper));
+			configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper));
+		};
+	}
+
+	private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		return jackson2ObjectMapperBuilder.createXmlMapper(false).factory(new CBORFactory()).build();
+	}
+
+	private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		return jackson2ObjectMapperBuilder.createXmlMapper(false).factory(new SmileFactory()).build();
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Custom exception used in the {@link PatientController} <br>
+ * This exception is used to inform that the fields requested with
+ * {@code fields=} are not fields of a patient. <br>
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class FieldsNotValidException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = -6305871922436417290L;
+
+	/**
+	 * Constructs a {@code FieldsNotValidException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when a field requested is unknown or empty. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public FieldsNotValidException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
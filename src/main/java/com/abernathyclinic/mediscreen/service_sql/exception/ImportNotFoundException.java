@@ -0,0 +1,32 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientImportController;
+
+/**
+ * Custom exception used in the {@link PatientImportController} <br>
+ * This exception is used to inform that the import researched is unknown, or
+ * has been forgotten after its retention. <br>
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ImportNotFoundException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = 5120436691862517328L;
+
+	/**
+	 * Constructs an {@code ImportNotFoundException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when no import is known under the id requested. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public ImportNotFoundException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Custom exception used in the {@link PatientController} <br>
+ * This exception is used to inform that the pagination parameters provided in
+ * the http request can't be used to list the patients. <br>
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class PaginationNotValidException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = 2815093366017250254L;
+
+	/**
+	 * Constructs a {@code PaginationNotValidException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when the page token is altered or when the unpaged
+	 * listing is requested while being disabled. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public PaginationNotValidException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Custom exception used in the {@link PatientController} <br>
+ * This exception is used to inform that several patients share the name
+ * researched, they must then be retrieved by UUID. <br>
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PatientNotUniqueException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = -6471109398512877460L;
+
+	/**
+	 * Constructs a {@code PatientNotUniqueException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when more than one patient is found by name. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public PatientNotUniqueException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
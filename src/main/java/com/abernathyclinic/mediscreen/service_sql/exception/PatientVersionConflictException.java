@@ -0,0 +1,33 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Custom exception used in the {@link PatientController} <br>
+ * This exception is used to inform that the patient to update has been
+ * modified since the version known by the client. <br>
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PatientVersionConflictException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = 6021874413505903257L;
+
+	/**
+	 * Constructs a {@code PatientVersionConflictException} with the specified
+	 * detail message. <br>
+	 * Exception to throw when the version provided by the client doesn't match the
+	 * version of the patient in the database. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public PatientVersionConflictException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
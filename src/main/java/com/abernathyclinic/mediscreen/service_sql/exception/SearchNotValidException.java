@@ -0,0 +1,33 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+
+/**
+ * Custom exception used in the {@link PatientController} <br>
+ * This exception is used to inform that the criteria of a search are not
+ * valid, or would require to read the whole table. <br>
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class SearchNotValidException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = 4178920365512038341L;
+
+	/**
+	 * Constructs a {@code SearchNotValidException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when the criteria of a search are missing or
+	 * inconsistent. <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public SearchNotValidException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.abernathyclinic.mediscreen.service_sql.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.abernathyclinic.mediscreen.service_sql.admission.AdmissionInterceptor;
+
+/**
+ * Custom exception used in the {@link AdmissionInterceptor} <br>
+ * This exception is used to inform that the request has been refused, as too
+ * many requests of the same kind are already waiting for the database. <br>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends RuntimeException {
+
+	/**
+	 * Required serial UID version
+	 */
+	private static final long serialVersionUID = -2904817365218733915L;
+
+	/**
+	 * Constructs a {@code ServiceOverloadedException} with the specified detail
+	 * message. <br>
+	 * Exception to throw when the concurrency limit of the requests is reached.
+	 * <br>
+	 * 
+	 * @param errorMessage : detail message about the error that have been thrown.
+	 */
+	public ServiceOverloadedException(String errorMessage) {
+		super(errorMessage);
+	}
+
+}
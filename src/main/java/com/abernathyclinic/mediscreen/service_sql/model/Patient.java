@@ -1,21 +1,49 @@
 package com.abernathyclinic.mediscreen.service_sql.model;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.abernathyclinic.mediscreen.service_sql.cache.SecondLevelCacheConfiguration;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Entity representing a patient, it is also used to define the database and
  * contains a small validation on fields. <br>
+ * The {@code version} is incremented on each update and guards against lost
+ * updates, it is only read by the clients and sent back through
+ * {@code If-Match}. <br>
+ * The date of birth is stored as a {@code DATE}, indexed along with the UUID
+ * for the keyset pagination of the age range queries. <br>
+ * The names and the phone number are indexed for the lookups and the search,
+ * the functional indexes used by the case insensitive search are created by
+ * the migrations. <br>
+ * It is kept in the second-level cache of Hibernate when the {@code l2cache}
+ * profile is active. <br>
  */
 @Entity
-@Table(name = "patients", schema = "abernathyclinic_mediscreen")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfiguration.PATIENT_REGION)
+@Table(name = "patients", schema = "abernathyclinic_mediscreen", indexes = {
+		@Index(name = "patients_date_of_birth_idx", columnList = "dateOfBirth, uuid"),
+		@Index(name = "patients_name_idx", columnList = "lastName, firstName"),
+		@Index(name = "patients_phone_number_idx", columnList = "phoneNumber") })
 public class Patient {
 
 	@Id
@@ -27,9 +55,9 @@ public class Patient {
 	@NotBlank(message = "The first name is mandatory")
 	@Size(min = 2, max = 32, message = "The first name must be between 2 and 32 characters")
 	private String firstName;
-	@NotBlank(message = "The date of birth is mandatory")
-	@Size(min = 8, max = 16, message = "The date of birth must be between 8 and 16 characters")
-	private String dateOfBirth;
+	@NotNull(message = "The date of birth is mandatory")
+	@Past(message = "The date of birth must be in the past")
+	private LocalDate dateOfBirth;
 	@NotBlank(message = "The gender is mandatory")
 	@Size(min = 1, max = 32, message = "The gender must be between 1 and 32 characters")
 	private String gender;
@@ -37,6 +65,10 @@ public class Patient {
 	private String homeAddress;
 	@Size(min = 8, max = 16, message = "The phone number must be between 8 and 16 characters")
 	private String phoneNumber;
+	@Version
+	@Column(columnDefinition = "bigint not null default 0")
+	@JsonProperty(access = JsonProperty.Access.READ_ONLY)
+	private long version;
 
 	public Patient() {
 	}
@@ -44,7 +76,7 @@ public class Patient {
 	public Patient(
 			@NotBlank(message = "The last name is mandatory") @Size(min = 2, max = 32, message = "The last name must be between 2 and 32 characters") String lastName,
 			@NotBlank(message = "The first name is mandatory") @Size(min = 2, max = 32, message = "The first name must be between 2 and 32 characters") String firstName,
-			@NotBlank(message = "The date of birth is mandatory") @Size(min = 8, max = 16, message = "The date of birth must be between 8 and 16 characters") String dateOfBirth,
+			@NotNull(message = "The date of birth is mandatory") @Past(message = "The date of birth must be in the past") LocalDate dateOfBirth,
 			@NotBlank(message = "The gender is mandatory") @Size(min = 1, max = 32, message = "The gender must be between 1 and 32 characters") String gender,
 			@Size(min = 1, max = 128, message = "The home address must be between 1 and 128 characters") String homeAddress,
 			@Size(min = 8, max = 16, message = "The phone number must be between 8 and 16 characters") String phoneNumber) {
@@ -56,6 +88,17 @@ public class Patient {
 		this.phoneNumber = phoneNumber;
 	}
 
+	/**
+	 * Constructor of a patient read from the database without going through JPA,
+	 * as done by the reactive repository and the blocking keys. <br>
+	 */
+	public Patient(UUID uuid, String lastName, String firstName, LocalDate dateOfBirth, String gender,
+			String homeAddress, String phoneNumber, long version) {
+		this(lastName, firstName, dateOfBirth, gender, homeAddress, phoneNumber);
+		this.uuid = uuid;
+		this.version = version;
+	}
+
 	public UUID getUuid() {
 		return uuid;
 	}
@@ -76,11 +119,11 @@ public class Patient {
 		this.firstName = firstName;
 	}
 
-	public String getDateOfBirth() {
+	public LocalDate getDateOfBirth() {
 		return dateOfBirth;
 	}
 
-	public void setDateOfBirth(String dateOfBirth) {
+	public void setDateOfBirth(LocalDate dateOfBirth) {
 		this.dateOfBirth = dateOfBirth;
 	}
 
@@ -108,11 +151,15 @@ public class Patient {
 		this.phoneNumber = phoneNumber;
 	}
 
+	public long getVersion() {
+		return version;
+	}
+
 	@Override
 	public String toString() {
 		return "Patient [UUID: " + uuid + ", Last Name: " + lastName + ", First Name: " + firstName
 				+ ", Date of Birth: " + dateOfBirth + ", Gender: " + gender + ", Home Address: " + homeAddress
-				+ ", Phone Number: " + phoneNumber + "]";
+				+ ", Phone Number: " + phoneNumber + ", Version: " + version + "]";
 	}
 
 }
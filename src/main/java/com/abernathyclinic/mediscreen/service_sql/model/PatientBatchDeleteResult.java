@@ -0,0 +1,37 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+/**
+ * Result of the bulk deletion of the {@link Patient}. <br>
+ * The UUIDs requested but not deleted were not attributed to an existing
+ * patient. <br>
+ */
+public class PatientBatchDeleteResult {
+
+	private int requested;
+	private int deleted;
+
+	public PatientBatchDeleteResult() {
+	}
+
+	public PatientBatchDeleteResult(int requested, int deleted) {
+		this.requested = requested;
+		this.deleted = deleted;
+	}
+
+	public int getRequested() {
+		return requested;
+	}
+
+	public void setRequested(int requested) {
+		this.requested = requested;
+	}
+
+	public int getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(int deleted) {
+		this.deleted = deleted;
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.UUID;
+
+/**
+ * Result of one {@link Patient} written through the batch endpoint. <br>
+ * The index refers to the position of the patient in the array provided. <br>
+ */
+public class PatientBatchResult {
+
+	public enum Status {
+		CREATED, UPDATED, INVALID, FAILED
+	}
+
+	private int index;
+	private Status status;
+	private UUID uuid;
+	private String message;
+
+	public PatientBatchResult() {
+	}
+
+	public PatientBatchResult(int index, Status status, UUID uuid, String message) {
+		this.index = index;
+		this.status = status;
+		this.uuid = uuid;
+		this.message = message;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public void setIndex(int index) {
+		this.index = index;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public UUID getUuid() {
+		return uuid;
+	}
+
+	public void setUuid(UUID uuid) {
+		this.uuid = uuid;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientBatchResult [Index: " + index + ", Status: " + status + ", UUID: " + uuid + ", Message: "
+				+ message + "]";
+	}
+
+}
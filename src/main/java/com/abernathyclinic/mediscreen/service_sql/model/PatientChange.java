@@ -0,0 +1,100 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+/**
+ * Entity representing a change of a {@link Patient}, appended to the change
+ * feed in the transaction of the write. <br>
+ * The id grows with each change and is the cursor of the feed. <br>
+ * The patient is not stored, the feed attaches its current state when
+ * serving the change, null once deleted. <br>
+ */
+@Entity
+@Table(name = "patient_changes", schema = "abernathyclinic_mediscreen")
+public class PatientChange {
+
+	public enum Type {
+		CREATED, UPDATED, DELETED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private long id;
+	@Column(nullable = false)
+	private UUID uuid;
+	@Enumerated(EnumType.STRING)
+	@Column(length = 8, nullable = false)
+	private Type type;
+	@Column(columnDefinition = "timestamp with time zone", nullable = false)
+	private Instant changedAt;
+	@Transient
+	private Patient patient;
+
+	public PatientChange() {
+	}
+
+	public PatientChange(long id, UUID uuid, Type type, Instant changedAt) {
+		this.id = id;
+		this.uuid = uuid;
+		this.type = type;
+		this.changedAt = changedAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public UUID getUuid() {
+		return uuid;
+	}
+
+	public void setUuid(UUID uuid) {
+		this.uuid = uuid;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public void setType(Type type) {
+		this.type = type;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+
+	public void setChangedAt(Instant changedAt) {
+		this.changedAt = changedAt;
+	}
+
+	public Patient getPatient() {
+		return patient;
+	}
+
+	public void setPatient(Patient patient) {
+		this.patient = patient;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientChange [Id: " + id + ", UUID: " + uuid + ", Type: " + type + ", Changed At: " + changedAt
+				+ "]";
+	}
+
+}
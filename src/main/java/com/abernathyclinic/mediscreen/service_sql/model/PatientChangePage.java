@@ -0,0 +1,55 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.List;
+
+/**
+ * A page of the change feed of the {@link Patient}. <br>
+ * The changes are in the order they were recorded, the {@code cursor} is the
+ * one to send back as {@code since} to read the following changes, and
+ * {@code hasNext} tells whether more changes are already waiting. <br>
+ */
+public class PatientChangePage {
+
+	private List<PatientChange> changes;
+	private long cursor;
+	private boolean hasNext;
+
+	public PatientChangePage() {
+	}
+
+	public PatientChangePage(List<PatientChange> changes, long cursor, boolean hasNext) {
+		this.changes = changes;
+		this.cursor = cursor;
+		this.hasNext = hasNext;
+	}
+
+	public List<PatientChange> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<PatientChange> changes) {
+		this.changes = changes;
+	}
+
+	public long getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(long cursor) {
+		this.cursor = cursor;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientChangePage [Changes: " + changes + ", Cursor: " + cursor + ", Has Next: " + hasNext + "]";
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+/**
+ * A {@link Patient} likely to be a duplicate of another one, with the score of
+ * their similarity, from 0 to 1. <br>
+ */
+public class PatientDuplicate {
+
+	private Patient patient;
+	private double score;
+
+	public PatientDuplicate() {
+	}
+
+	public PatientDuplicate(Patient patient, double score) {
+		this.patient = patient;
+		this.score = score;
+	}
+
+	public Patient getPatient() {
+		return patient;
+	}
+
+	public void setPatient(Patient patient) {
+		this.patient = patient;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public void setScore(double score) {
+		this.score = score;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientDuplicate [Patient: " + patient + ", Score: " + score + "]";
+	}
+
+}
@@ -0,0 +1,54 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.UUID;
+
+/**
+ * Two {@link Patient} likely to be the same person, listed by the duplicates
+ * report with the score of their similarity, from 0 to 1. <br>
+ * The first UUID is the one sorted first by the database. <br>
+ */
+public class PatientDuplicatePair {
+
+	private UUID first;
+	private UUID second;
+	private double score;
+
+	public PatientDuplicatePair() {
+	}
+
+	public PatientDuplicatePair(UUID first, UUID second, double score) {
+		this.first = first;
+		this.second = second;
+		this.score = score;
+	}
+
+	public UUID getFirst() {
+		return first;
+	}
+
+	public void setFirst(UUID first) {
+		this.first = first;
+	}
+
+	public UUID getSecond() {
+		return second;
+	}
+
+	public void setSecond(UUID second) {
+		this.second = second;
+	}
+
+	public double getScore() {
+		return score;
+	}
+
+	public void setScore(double score) {
+		this.score = score;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientDuplicatePair [First: " + first + ", Second: " + second + ", Score: " + score + "]";
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.FieldsNotValidException;
+
+/**
+ * Fields of the {@link Patient} requested with the {@code fields=} parameter of
+ * the listings, such as {@code fields=lastName,firstName,dateOfBirth}. <br>
+ * Only these columns are selected, the rows are returned in place of the
+ * patients. <br>
+ */
+public final class PatientFields {
+
+	/**
+	 * Fields of the patient, in the order of the entity
+	 */
+	public static final List<String> ALL = List.of("uuid", "lastName", "firstName", "dateOfBirth", "gender",
+			"homeAddress", "phoneNumber", "version");
+
+	private PatientFields() {
+	}
+
+	/**
+	 * @param fields   : the fields requested, comma separated
+	 * @param required : the fields always selected, the ones the page token is
+	 *                 made of
+	 * @return the fields to select, the required ones first, else throw a
+	 *         {@link FieldsNotValidException} if a field is unknown
+	 */
+	public static Set<String> parse(String fields, String... required) {
+		Set<String> selected = new LinkedHashSet<>(Arrays.asList(required));
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if (!ALL.contains(name)) {
+				throw new FieldsNotValidException(
+						"The field provided : '" + name + "' must be one of " + ALL + ".");
+			}
+			selected.add(name);
+		}
+		return selected;
+	}
+
+}
@@ -0,0 +1,159 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * An import of {@link Patient} from a CSV file, run in the background. <br>
+ * It is updated by the thread running the import while being read by the
+ * requests asking for its status, its counters are only written by that
+ * thread. <br>
+ * The {@code rejectedRows} are reported with their line and the reason of
+ * their rejection in the rejections file. <br>
+ */
+public class PatientImportJob {
+
+	public enum Status {
+		QUEUED, RUNNING, COMPLETED, FAILED
+	}
+
+	private final UUID id;
+	private final long size;
+	private final Instant submittedAt;
+	private final Path file;
+	private final Path rejectionsFile;
+
+	private volatile Status status = Status.QUEUED;
+	private volatile long bytesRead;
+	private volatile long rowsRead;
+	private volatile long importedRows;
+	private volatile long rejectedRows;
+	private volatile Instant startedAt;
+	private volatile Instant finishedAt;
+	private volatile String message;
+
+	public PatientImportJob(UUID id, long size, Path file, Path rejectionsFile) {
+		this.id = id;
+		this.size = size;
+		this.submittedAt = Instant.now();
+		this.file = file;
+		this.rejectionsFile = rejectionsFile;
+	}
+
+	public void start() {
+		startedAt = Instant.now();
+		status = Status.RUNNING;
+	}
+
+	public void progress(long bytesRead, long rowsRead) {
+		this.bytesRead = bytesRead;
+		this.rowsRead = rowsRead;
+	}
+
+	public void imported(long rows) {
+		importedRows += rows;
+	}
+
+	public void rejected(long rows) {
+		rejectedRows += rows;
+	}
+
+	public void complete() {
+		bytesRead = size;
+		finishedAt = Instant.now();
+		status = Status.COMPLETED;
+	}
+
+	public void fail(String message) {
+		this.message = message;
+		finishedAt = Instant.now();
+		status = Status.FAILED;
+	}
+
+	public UUID getId() {
+		return id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public long getSize() {
+		return size;
+	}
+
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * @return the share of the file read, from 0 to 100
+	 */
+	public double getProgress() {
+		return size == 0 ? 100 : Math.min(100, 100.0 * bytesRead / size);
+	}
+
+	public long getRowsRead() {
+		return rowsRead;
+	}
+
+	public long getImportedRows() {
+		return importedRows;
+	}
+
+	public long getRejectedRows() {
+		return rejectedRows;
+	}
+
+	/**
+	 * @return the number of rows read per second since the start of the import,
+	 *         until its end
+	 */
+	public double getRowsPerSecond() {
+		Instant start = startedAt;
+		if (start == null) {
+			return 0;
+		}
+		Instant end = finishedAt == null ? Instant.now() : finishedAt;
+		long millis = Math.max(1, Duration.between(start, end).toMillis());
+		return rowsRead * 1000.0 / millis;
+	}
+
+	public Instant getSubmittedAt() {
+		return submittedAt;
+	}
+
+	public Instant getStartedAt() {
+		return startedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@JsonIgnore
+	public Path getFile() {
+		return file;
+	}
+
+	@JsonIgnore
+	public Path getRejectionsFile() {
+		return rejectionsFile;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientImportJob [ID: " + id + ", Status: " + status + ", Size: " + size + ", Bytes Read: "
+				+ bytesRead + ", Rows Read: " + rowsRead + ", Imported Rows: " + importedRows + ", Rejected Rows: "
+				+ rejectedRows + ", Message: " + message + "]";
+	}
+
+}
@@ -0,0 +1,45 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of the lookup of several {@link Patient} by UUID. <br>
+ * The patients found are in the order of the UUIDs requested, the UUIDs not
+ * attributed to an existing patient are listed as missing. <br>
+ */
+public class PatientLookupResult {
+
+	private List<Patient> patients;
+	private List<UUID> missing;
+
+	public PatientLookupResult() {
+	}
+
+	public PatientLookupResult(List<Patient> patients, List<UUID> missing) {
+		this.patients = patients;
+		this.missing = missing;
+	}
+
+	public List<Patient> getPatients() {
+		return patients;
+	}
+
+	public void setPatients(List<Patient> patients) {
+		this.patients = patients;
+	}
+
+	public List<UUID> getMissing() {
+		return missing;
+	}
+
+	public void setMissing(List<UUID> missing) {
+		this.missing = missing;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientLookupResult [Patients: " + patients + ", Missing: " + missing + "]";
+	}
+
+}
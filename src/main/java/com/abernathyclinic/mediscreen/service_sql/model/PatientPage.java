@@ -0,0 +1,45 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.List;
+
+/**
+ * A page of {@link Patient} returned by the keyset pagination. <br>
+ * The rows are the patients, or only the fields of the patients requested
+ * with {@code fields=}. <br>
+ * The {@code nextPageToken} is null when the last page has been reached. <br>
+ */
+public class PatientPage<T> {
+
+	private List<T> patients;
+	private String nextPageToken;
+
+	public PatientPage() {
+	}
+
+	public PatientPage(List<T> patients, String nextPageToken) {
+		this.patients = patients;
+		this.nextPageToken = nextPageToken;
+	}
+
+	public List<T> getPatients() {
+		return patients;
+	}
+
+	public void setPatients(List<T> patients) {
+		this.patients = patients;
+	}
+
+	public String getNextPageToken() {
+		return nextPageToken;
+	}
+
+	public void setNextPageToken(String nextPageToken) {
+		this.nextPageToken = nextPageToken;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientPage [Patients: " + patients + ", Next Page Token: " + nextPageToken + "]";
+	}
+
+}
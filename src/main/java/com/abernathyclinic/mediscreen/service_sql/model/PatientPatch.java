@@ -0,0 +1,111 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.time.LocalDate;
+
+import javax.validation.constraints.Past;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+/**
+ * Partial update of a {@link Patient}, only the fields provided are written.
+ * <br>
+ * The fields keep the constraints of the entity, the mandatory ones can be
+ * omitted but not blanked. The {@code version} is the one known by the client,
+ * the update is refused when the patient has been modified since. <br>
+ */
+public class PatientPatch {
+
+	private static final String NOT_BLANK = ".*\\S.*";
+
+	@Pattern(regexp = NOT_BLANK, message = "The last name is mandatory")
+	@Size(min = 2, max = 32, message = "The last name must be between 2 and 32 characters")
+	private String lastName;
+	@Pattern(regexp = NOT_BLANK, message = "The first name is mandatory")
+	@Size(min = 2, max = 32, message = "The first name must be between 2 and 32 characters")
+	private String firstName;
+	@Past(message = "The date of birth must be in the past")
+	private LocalDate dateOfBirth;
+	@Pattern(regexp = NOT_BLANK, message = "The gender is mandatory")
+	@Size(min = 1, max = 32, message = "The gender must be between 1 and 32 characters")
+	private String gender;
+	@Size(min = 1, max = 128, message = "The home address must be between 1 and 128 characters")
+	private String homeAddress;
+	@Size(min = 8, max = 16, message = "The phone number must be between 8 and 16 characters")
+	private String phoneNumber;
+	private Long version;
+
+	public PatientPatch() {
+	}
+
+	/**
+	 * @return whether at least one field of the patient is provided
+	 */
+	public boolean hasChanges() {
+		return lastName != null || firstName != null || dateOfBirth != null || gender != null || homeAddress != null
+				|| phoneNumber != null;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public LocalDate getDateOfBirth() {
+		return dateOfBirth;
+	}
+
+	public void setDateOfBirth(LocalDate dateOfBirth) {
+		this.dateOfBirth = dateOfBirth;
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	public void setGender(String gender) {
+		this.gender = gender;
+	}
+
+	public String getHomeAddress() {
+		return homeAddress;
+	}
+
+	public void setHomeAddress(String homeAddress) {
+		this.homeAddress = homeAddress;
+	}
+
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientPatch [Last Name: " + lastName + ", First Name: " + firstName + ", Date of Birth: "
+				+ dateOfBirth + ", Gender: " + gender + ", Home Address: " + homeAddress + ", Phone Number: "
+				+ phoneNumber + ", Version: " + version + "]";
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+
+/**
+ * Criteria of the search of the {@link Patient}, bound from the query
+ * parameters. Every criterion is optional, the ones provided are combined. <br>
+ * The names are matched by prefix and the home address by substring, ignoring
+ * the case. <br>
+ */
+public class PatientSearch {
+
+	/**
+	 * Shortest prefix of a name worth an index scan
+	 */
+	public static final int MIN_NAME_PREFIX = 2;
+	/**
+	 * Shortest substring of the home address the trigram index can search
+	 */
+	public static final int MIN_ADDRESS_SUBSTRING = 3;
+
+	private String lastName;
+	private String firstName;
+	private String gender;
+	@DateTimeFormat(iso = ISO.DATE)
+	private LocalDate bornFrom;
+	@DateTimeFormat(iso = ISO.DATE)
+	private LocalDate bornTo;
+	private String phoneNumber;
+	private String homeAddress;
+
+	public PatientSearch() {
+	}
+
+	/**
+	 * The gender alone, or a name too short, would match a large part of the
+	 * table: at least one criterion must narrow the search down through its
+	 * index. <br>
+	 *
+	 * @return whether the search can be served by an index scan
+	 */
+	public boolean isIndexed() {
+		return length(lastName) >= MIN_NAME_PREFIX || length(firstName) >= MIN_NAME_PREFIX || bornFrom != null
+				|| bornTo != null || length(phoneNumber) > 0 || length(homeAddress) >= MIN_ADDRESS_SUBSTRING;
+	}
+
+	private static int length(String criterion) {
+		return criterion == null ? 0 : criterion.trim().length();
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public String getGender() {
+		return gender;
+	}
+
+	public void setGender(String gender) {
+		this.gender = gender;
+	}
+
+	public LocalDate getBornFrom() {
+		return bornFrom;
+	}
+
+	public void setBornFrom(LocalDate bornFrom) {
+		this.bornFrom = bornFrom;
+	}
+
+	public LocalDate getBornTo() {
+		return bornTo;
+	}
+
+	public void setBornTo(LocalDate bornTo) {
+		this.bornTo = bornTo;
+	}
+
+	public String getPhoneNumber() {
+		return phoneNumber;
+	}
+
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+	}
+
+	public String getHomeAddress() {
+		return homeAddress;
+	}
+
+	public void setHomeAddress(String homeAddress) {
+		this.homeAddress = homeAddress;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientSearch [Last Name: " + lastName + ", First Name: " + firstName + ", Gender: " + gender
+				+ ", Born From: " + bornFrom + ", Born To: " + bornTo + ", Phone Number: " + phoneNumber
+				+ ", Home Address: " + homeAddress + "]";
+	}
+
+}
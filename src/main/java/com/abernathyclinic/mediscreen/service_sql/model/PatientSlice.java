@@ -0,0 +1,67 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.List;
+
+/**
+ * A page of {@link Patient} returned by the search. <br>
+ * The rows are the patients, or only the fields of the patients requested
+ * with {@code fields=}. <br>
+ * The total number of patients matching isn't counted, {@code hasNext} tells
+ * whether a next page exists. <br>
+ */
+public class PatientSlice<T> {
+
+	private List<T> patients;
+	private int page;
+	private int size;
+	private boolean hasNext;
+
+	public PatientSlice() {
+	}
+
+	public PatientSlice(List<T> patients, int page, int size, boolean hasNext) {
+		this.patients = patients;
+		this.page = page;
+		this.size = size;
+		this.hasNext = hasNext;
+	}
+
+	public List<T> getPatients() {
+		return patients;
+	}
+
+	public void setPatients(List<T> patients) {
+		this.patients = patients;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public void setPage(int page) {
+		this.page = page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientSlice [Patients: " + patients + ", Page: " + page + ", Size: " + size + ", Has Next: "
+				+ hasNext + "]";
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A {@link Patient} suggested while typing its name, with what tells the
+ * namesakes apart. <br>
+ * The full patient is then retrieved by its UUID. <br>
+ */
+public class PatientSuggestion {
+
+	private UUID uuid;
+	private String lastName;
+	private String firstName;
+	private LocalDate dateOfBirth;
+
+	public PatientSuggestion() {
+	}
+
+	public PatientSuggestion(UUID uuid, String lastName, String firstName, LocalDate dateOfBirth) {
+		this.uuid = uuid;
+		this.lastName = lastName;
+		this.firstName = firstName;
+		this.dateOfBirth = dateOfBirth;
+	}
+
+	public UUID getUuid() {
+		return uuid;
+	}
+
+	public void setUuid(UUID uuid) {
+		this.uuid = uuid;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public void setLastName(String lastName) {
+		this.lastName = lastName;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public void setFirstName(String firstName) {
+		this.firstName = firstName;
+	}
+
+	public LocalDate getDateOfBirth() {
+		return dateOfBirth;
+	}
+
+	public void setDateOfBirth(LocalDate dateOfBirth) {
+		this.dateOfBirth = dateOfBirth;
+	}
+
+	@Override
+	public String toString() {
+		return "PatientSuggestion [UUID: " + uuid + ", Last Name: " + lastName + ", First Name: " + firstName
+				+ ", Date of Birth: " + dateOfBirth + "]";
+	}
+
+}
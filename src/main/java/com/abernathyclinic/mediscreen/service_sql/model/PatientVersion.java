@@ -0,0 +1,16 @@
+package com.abernathyclinic.mediscreen.service_sql.model;
+
+import java.util.UUID;
+
+/**
+ * Projection of a {@link Patient} on its UUID and version, enough to tell
+ * whether the copy held by a client is still current without loading the
+ * whole patient. <br>
+ */
+public interface PatientVersion {
+
+	UUID getUuid();
+
+	long getVersion();
+
+}
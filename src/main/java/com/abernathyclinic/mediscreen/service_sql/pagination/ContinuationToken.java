@@ -0,0 +1,115 @@
+package com.abernathyclinic.mediscreen.service_sql.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.PaginationNotValidException;
+
+/**
+ * Encode and decode the opaque continuation token used by the keyset
+ * pagination. <br>
+ * The token carries the last key of the previous page, the next page is then
+ * retrieved by seeking after that key, which never requires an
+ * {@code OFFSET}. <br>
+ */
+public final class ContinuationToken {
+
+	private static final String PREFIX = "v1:";
+	private static final String DATE_OF_BIRTH_PREFIX = "v1d:";
+
+	private ContinuationToken() {
+	}
+
+	/**
+	 * Build the token pointing after the given key. <br>
+	 * 
+	 * @param lastKey : the last key of the page that has been served
+	 * @return an URL safe token
+	 */
+	public static String encode(UUID lastKey) {
+		return base64(PREFIX + lastKey);
+	}
+
+	/**
+	 * Build the token pointing after the given date of birth and key, for the
+	 * pagination ordered by date of birth. <br>
+	 * 
+	 * @param lastDateOfBirth : the last date of birth of the page that has been
+	 *                        served
+	 * @param lastKey         : the last key of the page that has been served
+	 * @return an URL safe token
+	 */
+	public static String encode(LocalDate lastDateOfBirth, UUID lastKey) {
+		return base64(DATE_OF_BIRTH_PREFIX + lastDateOfBirth + "/" + lastKey);
+	}
+
+	/**
+	 * Read back the key stored in a token. <br>
+	 * 
+	 * @param token : provided by the client
+	 * @return the key to seek after, else throw a
+	 *         {@link PaginationNotValidException} if the token has been altered
+	 */
+	public static UUID decode(String token) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			if (!decoded.startsWith(PREFIX)) {
+				throw new IllegalArgumentException();
+			}
+			return UUID.fromString(decoded.substring(PREFIX.length()));
+		} catch (IllegalArgumentException illegalArgumentException) {
+			throw new PaginationNotValidException("The page token provided : '" + token + "' is not valid.");
+		}
+	}
+
+	/**
+	 * Read back the date of birth and the key stored in a token built by
+	 * {@link #encode(LocalDate, UUID)}. <br>
+	 * 
+	 * @param token : provided by the client
+	 * @return the date of birth and the key to seek after, else throw a
+	 *         {@link PaginationNotValidException} if the token has been altered
+	 */
+	public static DateOfBirthKey decodeDateOfBirthKey(String token) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = decoded.indexOf('/');
+			if (!decoded.startsWith(DATE_OF_BIRTH_PREFIX) || separator < 0) {
+				throw new IllegalArgumentException();
+			}
+			return new DateOfBirthKey(LocalDate.parse(decoded.substring(DATE_OF_BIRTH_PREFIX.length(), separator)),
+					UUID.fromString(decoded.substring(separator + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException exception) {
+			throw new PaginationNotValidException("The page token provided : '" + token + "' is not valid.");
+		}
+	}
+
+	private static String base64(String key) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Position in the pagination ordered by date of birth, then by UUID. <br>
+	 */
+	public static final class DateOfBirthKey {
+
+		private final LocalDate dateOfBirth;
+		private final UUID uuid;
+
+		public DateOfBirthKey(LocalDate dateOfBirth, UUID uuid) {
+			this.dateOfBirth = dateOfBirth;
+			this.uuid = uuid;
+		}
+
+		public LocalDate getDateOfBirth() {
+			return dateOfBirth;
+		}
+
+		public UUID getUuid() {
+			return uuid;
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package com.abernathyclinic.mediscreen.service_sql.reactive;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.validation.Valid;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientETags;
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PaginationNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotUniqueException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientVersionConflictException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPage;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the {@link PatientController}, on WebFlux and
+ * R2DBC, active with the {@code reactive} profile. <br>
+ * It serves the same CRUD mapping with the same errors, no thread is held while
+ * the database answers. A body which doesn't satisfy the constraints of the
+ * entity is refused with a 400. <br>
+ */
+@RestController
+@Profile("reactive")
+public class ReactivePatientController {
+
+	/**
+	 * Types the patients are served as, JSON first as the default one
+	 */
+	private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON,
+			PatientETags.APPLICATION_SMILE);
+
+	private final ReactivePatientRepository reactivePatientRepository;
+
+	@Value("${patient.pagination.default-page-size:20}")
+	private int defaultPageSize;
+
+	@Value("${patient.pagination.max-page-size:100}")
+	private int maxPageSize;
+
+	@Value("${patient.pagination.unpaged-enabled:false}")
+	private boolean unpagedEnabled;
+
+	public ReactivePatientController(ReactivePatientRepository reactivePatientRepository) {
+		this.reactivePatientRepository = reactivePatientRepository;
+	}
+
+	@GetMapping("/")
+	public String index() {
+		return "Welcome on the Service-SQL REST API, targeted to be used as a micro-service to communicate with a relational database.";
+	}
+
+	/**
+	 * GET mapping to retrieve a {@link Patient} from the database by using his
+	 * UUID. <br>
+	 * The response carries the version of the patient as {@code ETag}, along with
+	 * its representation, a 304 is returned when it matches
+	 * {@code If-None-Match}. <br>
+	 *
+	 * @param UUID : of the patient to retrieve
+	 * @return the patient if present in the database, else a
+	 *         {@link PatientNotFoundException}
+	 */
+	@GetMapping("/patient/{UUID}")
+	public Mono<Patient> getPatientByUUID(@PathVariable("UUID") UUID uuid, ServerWebExchange exchange) {
+		String representation = representation(exchange);
+		return reactivePatientRepository.findById(uuid).switchIfEmpty(Mono.error(() -> patientNotFound(uuid)))
+				.filter(patient -> !exchange
+						.checkNotModified(PatientETags.eTag(patient.getVersion(), representation)));
+	}
+
+	/**
+	 * GET mapping to retrieve a {@link Patient} from the database by using his last
+	 * name and first name. <br>
+	 *
+	 * @param lastName and firstName : of the patient to retrieve
+	 * @return the patient if present in the database, else a
+	 *         {@link PatientNotFoundException}, or a
+	 *         {@link PatientNotUniqueException} if several patients share the
+	 *         name
+	 */
+	@GetMapping("/patient/lastName&firstName")
+	public Mono<Patient> getPatient(@RequestParam("lastName") String lastName,
+			@RequestParam("firstName") String firstName, ServerWebExchange exchange) {
+		String representation = representation(exchange);
+		return reactivePatientRepository.findByLastNameAndFirstName(lastName, firstName).collectList()
+				.flatMap(patients -> {
+					if (patients.isEmpty()) {
+						return Mono.error(new PatientNotFoundException("The patient with the last name provided : '"
+								+ lastName + "' and first name provided : '" + firstName
+								+ "' could not be found in the database."));
+					}
+					if (patients.size() > 1) {
+						return Mono.error(new PatientNotUniqueException(patients.size()
+								+ " patients share the last name provided : '" + lastName
+								+ "' and first name provided : '" + firstName + "', retrieve them by UUID : "
+								+ patients.stream().map(patient -> patient.getUuid().toString()).sorted()
+										.collect(Collectors.joining(", "))
+								+ "."));
+					}
+					return Mono.just(patients.get(0));
+				}).filter(patient -> !exchange.checkNotModified(
+						PatientETags.eTag(patient.getUuid(), patient.getVersion(), representation)));
+	}
+
+	/**
+	 * GET mapping to retrieve the {@link Patient} from the database page by page,
+	 * with the same keyset pagination as {@link PatientController#getPatients}.
+	 * <br>
+	 *
+	 * @param pageToken : the token returned with the previous page, omitted to
+	 *                  get the first page
+	 * @param size      : the number of patients wanted, capped by
+	 *                  {@code patient.pagination.max-page-size}
+	 * @return a page of patients along with the token of the next page, else a
+	 *         {@link PaginationNotValidException} if the token is not valid
+	 */
+	@GetMapping("/patient")
+	public Mono<PatientPage<Patient>> getPatients(@RequestParam(value = "pageToken", required = false) String pageToken,
+			@RequestParam(value = "size", required = false) Integer size) {
+		int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+
+		// One more row is read to know whether a next page exists
+		Flux<Patient> patients = pageToken == null ? reactivePatientRepository.findAllByOrderByUuidAsc(pageSize + 1)
+				: Mono.fromCallable(() -> ContinuationToken.decode(pageToken)).flatMapMany(
+						afterUuid -> reactivePatientRepository.findByUuidGreaterThanOrderByUuidAsc(afterUuid,
+								pageSize + 1));
+		return patients.collectList().map(rows -> page(rows, pageSize));
+	}
+
+	/**
+	 * GET mapping to retrieve all {@link Patient} from the database at once, only
+	 * available when {@code patient.pagination.unpaged-enabled} is set. <br>
+	 *
+	 * @return all the patients present in the database, else a
+	 *         {@link PaginationNotValidException} if the unpaged listing is
+	 *         disabled
+	 */
+	@GetMapping(value = "/patient", params = "unpaged=true")
+	public Flux<Patient> getAllPatients() {
+		if (!unpagedEnabled) {
+			return Flux.error(new PaginationNotValidException(
+					"The unpaged listing of the patients is disabled, use the page token instead."));
+		}
+		return reactivePatientRepository.findAll();
+	}
+
+	/**
+	 * POST mapping to save a {@link Patient} in the database. <br>
+	 *
+	 * @param patient : to save
+	 * @return a success message if the request is a success
+	 */
+	@PostMapping("/patient")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<String> savePatient(@Valid @RequestBody Patient patient) {
+		return reactivePatientRepository.insert(patient).thenReturn("Patient sucessfully saved");
+	}
+
+	/**
+	 * PUT mapping to update an existing {@link Patient} in the database, with a
+	 * single {@code UPDATE}. <br>
+	 * When the {@code If-Match} header carries the version of the patient known by
+	 * the client, the update is refused if the patient has been modified since.
+	 * <br>
+	 *
+	 * @param uuid    : of the patient to update
+	 * @param patient : the informations to update
+	 * @param ifMatch : the version of the patient known by the client, optional
+	 * @return a success message if the request is a success, else a
+	 *         {@link PatientNotFoundException} or a
+	 *         {@link PatientVersionConflictException}
+	 */
+	@PutMapping("/patient/{uuid}")
+	public Mono<String> updatePatient(@PathVariable("uuid") UUID uuid, @Valid @RequestBody Patient patient,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		Long expectedVersion = PatientETags.parseIfMatch(ifMatch, uuid);
+		return reactivePatientRepository.update(uuid, patient, expectedVersion)
+				.flatMap(updated -> updated(uuid, updated, expectedVersion));
+	}
+
+	/**
+	 * PATCH mapping to update some fields of an existing {@link Patient}, see
+	 * {@link PatientController#patchPatient}. <br>
+	 *
+	 * @param uuid         : of the patient to update
+	 * @param patientPatch : the fields to update
+	 * @param ifMatch      : the version of the patient known by the client,
+	 *                     optional
+	 * @return a success message if the request is a success, else a
+	 *         {@link PatientNotFoundException}, a {@link BodyNotValidException} or
+	 *         a {@link PatientVersionConflictException}
+	 */
+	@PatchMapping("/patient/{uuid}")
+	public Mono<String> patchPatient(@PathVariable("uuid") UUID uuid, @Valid @RequestBody PatientPatch patientPatch,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		if (!patientPatch.hasChanges()) {
+			return Mono.error(new BodyNotValidException(
+					"The patch provided : '" + patientPatch.toString() + "' doesn't contain any field to update."));
+		}
+		Long expectedVersion = PatientETags.parseIfMatch(ifMatch, uuid);
+		if (expectedVersion != null) {
+			patientPatch.setVersion(expectedVersion);
+		}
+		return reactivePatientRepository.patch(uuid, patientPatch)
+				.flatMap(updated -> updated(uuid, updated, patientPatch.getVersion()));
+	}
+
+	/**
+	 * DELETE mapping used to delete a {@link Patient} with a single
+	 * {@code DELETE}. <br>
+	 *
+	 * @param uuid : of the patient to delete
+	 * @return a success message if the request is a success, else a
+	 *         {@link PatientNotFoundException}
+	 */
+	@DeleteMapping("/patient/{uuid}")
+	public Mono<String> deletePatient(@PathVariable("uuid") UUID uuid) {
+		return reactivePatientRepository.deleteByUuid(uuid).flatMap(deleted -> deleted == 0
+				? Mono.error(new PatientNotFoundException(
+						"The provided uuid : '" + uuid + "' is not attributed to an existing patient."))
+				: Mono.just("The patient has been successfully deleted in the database."));
+	}
+
+	/**
+	 * Representation of the patient served, the response varying on it. <br>
+	 */
+	private static String representation(ServerWebExchange exchange) {
+		exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+		return PatientETags.representation(exchange.getRequest().getHeaders().get(HttpHeaders.ACCEPT),
+				REPRESENTATIONS);
+	}
+
+	private Mono<String> updated(UUID uuid, int updated, Long expectedVersion) {
+		if (updated > 0) {
+			return Mono.just("Patient successfully updated");
+		}
+		// Only looked up when the update failed, to tell the missing patient from the conflict
+		Mono<Boolean> conflict = expectedVersion == null ? Mono.just(false)
+				: reactivePatientRepository.existsById(uuid);
+		return conflict.flatMap(exists -> Mono.error(exists
+				? new PatientVersionConflictException("The patient with the provided uuid : '" + uuid
+						+ "' has been modified since the version : '" + expectedVersion + "'.")
+				: new PatientNotFoundException(
+						"The provided uuid : '" + uuid + "' is not attributed to an existing patient.")));
+	}
+
+	private static PatientPage<Patient> page(List<Patient> patients, int pageSize) {
+		if (patients.size() <= pageSize) {
+			return new PatientPage<>(patients, null);
+		}
+		List<Patient> page = patients.subList(0, pageSize);
+		return new PatientPage<>(page, ContinuationToken.encode(page.get(pageSize - 1).getUuid()));
+	}
+
+	private static PatientNotFoundException patientNotFound(UUID uuid) {
+		return new PatientNotFoundException(
+				"The patient with the provided UUID : '" + uuid + "' could not be found in the database.");
+	}
+}
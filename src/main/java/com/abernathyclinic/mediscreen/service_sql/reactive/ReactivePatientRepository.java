@@ -0,0 +1,203 @@
+package com.abernathyclinic.mediscreen.service_sql.reactive;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeyIndex;
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeys;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the {@link PatientRepository}, on R2DBC. <br>
+ * The statements are written by hand on the {@link DatabaseClient}: the
+ * {@link Patient} stays a JPA entity, and a Spring Data R2DBC repository of the
+ * same entity would be claimed by Spring Data JPA as well. <br>
+ * The writes refresh the keys of the {@link BlockingKeyIndex} in their
+ * transaction, as the JPA writes do. <br>
+ */
+@Repository
+@Profile("reactive")
+public class ReactivePatientRepository {
+
+	private static final String TABLE = "abernathyclinic_mediscreen.patients";
+	private static final String BLOCKING_KEYS_TABLE = "abernathyclinic_mediscreen.patient_blocking_keys";
+	private static final String SELECT = "SELECT uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number, version FROM "
+			+ TABLE;
+
+	private final DatabaseClient databaseClient;
+	private final TransactionalOperator transactionalOperator;
+
+	public ReactivePatientRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+		this.databaseClient = databaseClient;
+		this.transactionalOperator = transactionalOperator;
+	}
+
+	public Mono<Patient> findById(UUID uuid) {
+		return databaseClient.sql(SELECT + " WHERE uuid = :uuid").bind("uuid", uuid)
+				.map((row, rowMetadata) -> patient(row)).one();
+	}
+
+	public Mono<Boolean> existsById(UUID uuid) {
+		return databaseClient.sql("SELECT 1 FROM " + TABLE + " WHERE uuid = :uuid").bind("uuid", uuid)
+				.map((row, rowMetadata) -> true).first().defaultIfEmpty(false);
+	}
+
+	/**
+	 * Patients by name, several patients can share the same name. <br>
+	 */
+	public Flux<Patient> findByLastNameAndFirstName(String lastName, String firstName) {
+		return databaseClient.sql(SELECT + " WHERE last_name = :lastName AND first_name = :firstName")
+				.bind("lastName", lastName).bind("firstName", firstName).map((row, rowMetadata) -> patient(row))
+				.all();
+	}
+
+	/**
+	 * First page of the keyset pagination, see
+	 * {@link PatientRepository#findAllByOrderByUuidAsc}. <br>
+	 */
+	public Flux<Patient> findAllByOrderByUuidAsc(int limit) {
+		return databaseClient.sql(SELECT + " ORDER BY uuid LIMIT :limit").bind("limit", limit)
+				.map((row, rowMetadata) -> patient(row)).all();
+	}
+
+	/**
+	 * Following pages of the keyset pagination, seeking after the last UUID
+	 * served. <br>
+	 */
+	public Flux<Patient> findByUuidGreaterThanOrderByUuidAsc(UUID uuid, int limit) {
+		return databaseClient.sql(SELECT + " WHERE uuid > :uuid ORDER BY uuid LIMIT :limit").bind("uuid", uuid)
+				.bind("limit", limit).map((row, rowMetadata) -> patient(row)).all();
+	}
+
+	public Flux<Patient> findAll() {
+		return databaseClient.sql(SELECT).map((row, rowMetadata) -> patient(row)).all();
+	}
+
+	/**
+	 * Insert a new patient, its UUID is generated here as the table has no
+	 * default for it. <br>
+	 *
+	 * @return the UUID of the patient inserted
+	 */
+	public Mono<UUID> insert(Patient patient) {
+		UUID uuid = UUID.randomUUID();
+		Map<String, Object> columns = columns(patient);
+		GenericExecuteSpec spec = databaseClient.sql("INSERT INTO " + TABLE + " (uuid, "
+				+ String.join(", ", columns.keySet()) + ", version) VALUES (:uuid, "
+				+ columns.keySet().stream().map(column -> ":" + column).collect(Collectors.joining(", ")) + ", 0)")
+				.bind("uuid", uuid);
+		return bind(spec, columns).then(refreshBlockingKeys(uuid)).thenReturn(uuid)
+				.as(transactionalOperator::transactional);
+	}
+
+	/**
+	 * Overwrite every field of a patient, see {@link #patch}. <br>
+	 */
+	public Mono<Integer> update(UUID uuid, Patient patient, Long expectedVersion) {
+		return update(uuid, columns(patient), expectedVersion);
+	}
+
+	/**
+	 * Write the fields provided by the patch with a single {@code UPDATE}, see
+	 * {@link PatientRepository#patch}. <br>
+	 *
+	 * @return the number of rows updated, 0 if the patient doesn't exist or its
+	 *         version doesn't match
+	 */
+	public Mono<Integer> patch(UUID uuid, PatientPatch patientPatch) {
+		Map<String, Object> columns = columns(patientPatch.getLastName(), patientPatch.getFirstName(),
+				patientPatch.getDateOfBirth(), patientPatch.getGender(), patientPatch.getHomeAddress(),
+				patientPatch.getPhoneNumber());
+		columns.values().removeIf(value -> value == null);
+		return update(uuid, columns, patientPatch.getVersion());
+	}
+
+	/**
+	 * Delete a patient with a single {@code DELETE}. <br>
+	 *
+	 * @return the number of patients deleted, 0 if the patient doesn't exist
+	 */
+	public Mono<Integer> deleteByUuid(UUID uuid) {
+		return databaseClient.sql("DELETE FROM " + TABLE + " WHERE uuid = :uuid").bind("uuid", uuid).fetch()
+				.rowsUpdated().flatMap(rowsUpdated -> refreshBlockingKeys(uuid).thenReturn(rowsUpdated))
+				.as(transactionalOperator::transactional);
+	}
+
+	private Mono<Integer> update(UUID uuid, Map<String, Object> columns, Long expectedVersion) {
+		String assignments = columns.keySet().stream().map(column -> column + " = :" + column)
+				.collect(Collectors.joining(", "));
+		GenericExecuteSpec spec = databaseClient
+				.sql("UPDATE " + TABLE + " SET " + assignments + ", version = version + 1 WHERE uuid = :uuid"
+						+ (expectedVersion == null ? "" : " AND version = :version"))
+				.bind("uuid", uuid);
+		if (expectedVersion != null) {
+			spec = spec.bind("version", expectedVersion);
+		}
+		return bind(spec, columns)
+				.flatMap(rowsUpdated -> rowsUpdated == 0 ? Mono.just(rowsUpdated)
+						: refreshBlockingKeys(uuid).thenReturn(rowsUpdated))
+				.as(transactionalOperator::transactional);
+	}
+
+	/**
+	 * Replace the keys of a patient by the ones of its current state, see
+	 * {@link BlockingKeyIndex#refresh}. <br>
+	 */
+	private Mono<Void> refreshBlockingKeys(UUID uuid) {
+		return databaseClient.sql("DELETE FROM " + BLOCKING_KEYS_TABLE + " WHERE uuid = :uuid").bind("uuid", uuid)
+				.then().then(findById(uuid)).flatMapIterable(BlockingKeys::of)
+				.concatMap(key -> databaseClient
+						.sql("INSERT INTO " + BLOCKING_KEYS_TABLE + " (blocking_key, uuid) VALUES (:key, :uuid)")
+						.bind("key", key).bind("uuid", uuid).then())
+				.then();
+	}
+
+	private static Mono<Integer> bind(GenericExecuteSpec spec, Map<String, Object> columns) {
+		for (Map.Entry<String, Object> column : columns.entrySet()) {
+			spec = column.getValue() == null
+					? spec.bindNull(column.getKey(), "date_of_birth".equals(column.getKey()) ? LocalDate.class
+							: String.class)
+					: spec.bind(column.getKey(), column.getValue());
+		}
+		return spec.fetch().rowsUpdated();
+	}
+
+	private static Map<String, Object> columns(Patient patient) {
+		return columns(patient.getLastName(), patient.getFirstName(), patient.getDateOfBirth(), patient.getGender(),
+				patient.getHomeAddress(), patient.getPhoneNumber());
+	}
+
+	private static Map<String, Object> columns(String lastName, String firstName, LocalDate dateOfBirth,
+			String gender, String homeAddress, String phoneNumber) {
+		Map<String, Object> columns = new LinkedHashMap<>();
+		columns.put("last_name", lastName);
+		columns.put("first_name", firstName);
+		columns.put("date_of_birth", dateOfBirth);
+		columns.put("gender", gender);
+		columns.put("home_address", homeAddress);
+		columns.put("phone_number", phoneNumber);
+		return columns;
+	}
+
+	private static Patient patient(Row row) {
+		return new Patient(row.get("uuid", UUID.class), row.get("last_name", String.class),
+				row.get("first_name", String.class), row.get("date_of_birth", LocalDate.class),
+				row.get("gender", String.class), row.get("home_address", String.class),
+				row.get("phone_number", String.class), row.get("version", Long.class));
+	}
+}
@@ -0,0 +1,43 @@
+package com.abernathyclinic.mediscreen.service_sql.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+
+/**
+ * Interface used to read the change feed of the patients, the changes are
+ * written by the {@code PatientChangeLog}. <br>
+ * Both queries only read the changes recorded more than the given settle time
+ * ago, by the clock of the database which recorded them, and are served by the
+ * primary key. <br>
+ */
+public interface PatientChangeRepository extends JpaRepository<PatientChange, Long> {
+
+	/**
+	 * Settled limit of the queries, {@code clock_timestamp()} being the time of
+	 * the call rather than the start of the transaction. <br>
+	 */
+	String SETTLED_BEFORE = "clock_timestamp() - cast(:settleMillis as bigint) * interval '0.001' second";
+
+	/**
+	 * Changes following the cursor, in the order they were recorded. <br>
+	 */
+	@Query(value = "select * from abernathyclinic_mediscreen.patient_changes where id > :id and changed_at < "
+			+ SETTLED_BEFORE + " order by id", nativeQuery = true)
+	List<PatientChange> findSettledAfter(@Param("id") long id, @Param("settleMillis") long settleMillis,
+			Pageable pageable);
+
+	/**
+	 * Last change recorded, the head of the feed. <br>
+	 */
+	@Query(value = "select * from abernathyclinic_mediscreen.patient_changes where changed_at < " + SETTLED_BEFORE
+			+ " order by id desc limit 1", nativeQuery = true)
+	Optional<PatientChange> findLastSettled(@Param("settleMillis") long settleMillis);
+
+}
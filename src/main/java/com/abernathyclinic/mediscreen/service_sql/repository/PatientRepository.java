@@ -1,19 +1,73 @@
 package com.abernathyclinic.mediscreen.service_sql.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.abernathyclinic.mediscreen.service_sql.cache.SecondLevelCacheConfiguration;
 import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientVersion;
 
 /**
  * Interface used to define <b>CRUD</b> operations with the patient table. <br>
- * It extends the {@link JpaRepository} interface delivered by Spring Data JPA.
+ * It extends the {@link JpaRepository} interface delivered by Spring Data JPA,
+ * and the {@link PatientRepositoryCustom} fragment for the partial updates and
+ * the deletes.
+ * <br>
+ * The queries declared here run in a read-only transaction, so that they can
+ * be served by a replica. <br>
  */
-public interface PatientRepository extends JpaRepository<Patient, UUID>, JpaSpecificationExecutor<Patient> {
+@Transactional(readOnly = true)
+public interface PatientRepository
+		extends JpaRepository<Patient, UUID>, JpaSpecificationExecutor<Patient>, PatientRepositoryCustom {
+
+	/**
+	 * Patients by name, several patients can share the same name. <br>
+	 * Its result is kept in the query cache of Hibernate when the {@code l2cache}
+	 * profile is active. <br>
+	 */
+	@QueryHints({ @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION,
+					value = SecondLevelCacheConfiguration.PATIENT_QUERY_REGION) })
+	List<Patient> findByLastNameAndFirstName(String lastName, String firstName);
+
+	/**
+	 * Version of a patient, read without loading the patient. <br>
+	 */
+	@Query("select p.version from Patient p where p.uuid = :uuid")
+	Optional<Long> findVersionByUuid(@Param("uuid") UUID uuid);
+
+	/**
+	 * UUID and version of the patients sharing a name, read without loading the
+	 * patients. <br>
+	 */
+	List<PatientVersion> findVersionByLastNameAndFirstName(String lastName, String firstName);
+
+	List<Patient> findByLastNameInAndFirstNameIn(Collection<String> lastNames, Collection<String> firstNames);
+
+	/**
+	 * First page of the keyset pagination. <br>
+	 * Returning a {@link List} instead of a {@code Page} avoids the
+	 * {@code COUNT(*)} query, and the pageable must always target the first page
+	 * so that no {@code OFFSET} is issued. <br>
+	 */
+	List<Patient> findAllByOrderByUuidAsc(Pageable pageable);
 
-	Optional<Patient> findByLastNameAndFirstName(String lastName, String firstName);
+	/**
+	 * Following pages of the keyset pagination, seeking after the last UUID
+	 * served. <br>
+	 */
+	List<Patient> findByUuidGreaterThanOrderByUuidAsc(UUID uuid, Pageable pageable);
 
 }
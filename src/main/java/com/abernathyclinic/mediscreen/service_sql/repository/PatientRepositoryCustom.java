@@ -0,0 +1,107 @@
+package com.abernathyclinic.mediscreen.service_sql.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken.DateOfBirthKey;
+
+/**
+ * Operations of the {@link PatientRepository} that can't be derived by Spring
+ * Data JPA, implemented in {@link PatientRepositoryCustomImpl}. <br>
+ */
+public interface PatientRepositoryCustom {
+
+	/**
+	 * Write the fields provided by the patch with a single {@code UPDATE}, without
+	 * loading the patient. <br>
+	 * The version is incremented, and when the patch carries a version the row is
+	 * only updated if it still has this version. <br>
+	 * The update is recorded in the change feed. <br>
+	 * 
+	 * @param uuid         : of the patient to update
+	 * @param patientPatch : the fields to write
+	 * @return the number of rows updated, 0 if the patient doesn't exist or its
+	 *         version doesn't match
+	 */
+	int patch(UUID uuid, PatientPatch patientPatch);
+
+	/**
+	 * Delete a patient with a single {@code DELETE}, without loading it first.
+	 * <br>
+	 * The delete is recorded in the change feed. <br>
+	 * 
+	 * @param uuid : of the patient to delete
+	 * @return the number of patients deleted, 0 if the patient doesn't exist
+	 */
+	int deleteByUuid(UUID uuid);
+
+	/**
+	 * Delete the patients with a single {@code DELETE ... IN}, without loading
+	 * them first. <br>
+	 * The UUIDs of the patients present are locked and read beforehand, so that
+	 * only the patients actually deleted are recorded in the change feed. <br>
+	 * 
+	 * @param uuids : of the patients to delete
+	 * @return the number of patients deleted
+	 */
+	int deleteByUuidIn(Collection<UUID> uuids);
+
+	/**
+	 * Patients born within the given dates, optionally of the given gender,
+	 * ordered by date of birth then by UUID. <br>
+	 * Only the matching rows are read, through the index on the date of birth,
+	 * and each page seeks after the last patient of the previous one. <br>
+	 * 
+	 * @param bornFrom : first date of birth included, null for no lower bound
+	 * @param bornTo   : last date of birth included, null for no upper bound
+	 * @param gender   : of the patients, null for any
+	 * @param after    : position of the last patient served, null for the first
+	 *                 page
+	 * @param limit    : maximum number of patients returned
+	 * @return the patients matching, at most {@code limit}
+	 */
+	List<Patient> searchByDateOfBirth(LocalDate bornFrom, LocalDate bornTo, String gender, DateOfBirthKey after,
+			int limit);
+
+	/**
+	 * Patients matching the specification, for the page requested. <br>
+	 * Unlike {@code findAll(Specification, Pageable)} of the
+	 * {@code JpaSpecificationExecutor}, no {@code COUNT(*)} is issued: one more
+	 * row is read to know whether a next page exists. The UUID is added to the
+	 * sort so that the pages don't overlap. <br>
+	 * 
+	 * @param specification : the criteria of the search
+	 * @param pageable      : the page, its size and its sort
+	 * @return the patients of the page
+	 */
+	Slice<Patient> search(Specification<Patient> specification, Pageable pageable);
+
+	/**
+	 * Only the given fields of the patients matching the specification. <br>
+	 * The {@code SELECT} reads these columns only, and the rows aren't entities:
+	 * nothing is kept in the persistence context, whatever the number of rows.
+	 * <br>
+	 * 
+	 * @param specification : the criteria of the patients
+	 * @param fields        : the fields to read, as named in {@link Patient}
+	 * @param sort          : the order of the rows, it must end with a unique
+	 *                      field for the pages not to overlap
+	 * @param offset        : number of rows skipped
+	 * @param limit         : maximum number of rows returned
+	 * @return a row by patient, from the name of each field to its value, in the
+	 *         order of the fields
+	 */
+	List<Map<String, Object>> findFields(Specification<Patient> specification, Collection<String> fields, Sort sort,
+			long offset, int limit);
+
+}
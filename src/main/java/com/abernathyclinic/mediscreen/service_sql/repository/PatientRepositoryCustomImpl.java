@@ -0,0 +1,192 @@
+package com.abernathyclinic.mediscreen.service_sql.repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.changes.PatientChangeLog;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken.DateOfBirthKey;
+
+/**
+ * Implementation of the {@link PatientRepositoryCustom} fragment, picked up by
+ * Spring Data JPA through its {@code Impl} suffix. <br>
+ * The bulk updates and deletes aren't seen by the {@code PatientChangeListener}
+ * of Hibernate, they record their changes themselves. <br>
+ */
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int patch(UUID uuid, PatientPatch patientPatch) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Patient> update = criteriaBuilder.createCriteriaUpdate(Patient.class);
+		Root<Patient> patient = update.from(Patient.class);
+
+		set(update, patient, "lastName", patientPatch.getLastName());
+		set(update, patient, "firstName", patientPatch.getFirstName());
+		set(update, patient, "dateOfBirth", patientPatch.getDateOfBirth());
+		set(update, patient, "gender", patientPatch.getGender());
+		set(update, patient, "homeAddress", patientPatch.getHomeAddress());
+		set(update, patient, "phoneNumber", patientPatch.getPhoneNumber());
+		update.set(patient.<Long>get("version"), criteriaBuilder.sum(patient.<Long>get("version"), 1L));
+
+		Predicate predicate = criteriaBuilder.equal(patient.get("uuid"), uuid);
+		if (patientPatch.getVersion() != null) {
+			predicate = criteriaBuilder.and(predicate,
+					criteriaBuilder.equal(patient.get("version"), patientPatch.getVersion()));
+		}
+		update.where(predicate);
+
+		int updated = entityManager.createQuery(update).executeUpdate();
+		if (updated == 1) {
+			PatientChangeLog.record(session(), uuid, PatientChange.Type.UPDATED);
+		}
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public int deleteByUuid(UUID uuid) {
+		int deleted = entityManager.createQuery("delete from Patient p where p.uuid = :uuid")
+				.setParameter("uuid", uuid).executeUpdate();
+		if (deleted == 1) {
+			PatientChangeLog.record(session(), uuid, PatientChange.Type.DELETED);
+		}
+		return deleted;
+	}
+
+	@Override
+	@Transactional
+	public int deleteByUuidIn(Collection<UUID> uuids) {
+		// Locked until the commit, the patients read are the ones the DELETE removes
+		List<UUID> present = entityManager
+				.createQuery("select p.uuid from Patient p where p.uuid in :uuids", UUID.class)
+				.setParameter("uuids", uuids).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+		if (present.isEmpty()) {
+			return 0;
+		}
+
+		int deleted = entityManager.createQuery("delete from Patient p where p.uuid in :uuids")
+				.setParameter("uuids", present).executeUpdate();
+		SessionImplementor session = session();
+		for (UUID uuid : present) {
+			PatientChangeLog.record(session, uuid, PatientChange.Type.DELETED);
+		}
+		return deleted;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Patient> searchByDateOfBirth(LocalDate bornFrom, LocalDate bornTo, String gender,
+			DateOfBirthKey after, int limit) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Patient> query = criteriaBuilder.createQuery(Patient.class);
+		Root<Patient> patient = query.from(Patient.class);
+
+		Predicate predicate = PatientSpecifications.bornWithin(bornFrom, bornTo, gender, after).toPredicate(patient,
+				query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(criteriaBuilder.asc(patient.get("dateOfBirth")), criteriaBuilder.asc(patient.get("uuid")));
+
+		return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<Patient> search(Specification<Patient> specification, Pageable pageable) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Patient> query = criteriaBuilder.createQuery(Patient.class);
+		Root<Patient> patient = query.from(Patient.class);
+
+		Predicate predicate = specification.toPredicate(patient, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		List<Order> orders = new ArrayList<>(QueryUtils.toOrders(pageable.getSort(), patient, criteriaBuilder));
+		orders.add(criteriaBuilder.asc(patient.get("uuid")));
+		query.orderBy(orders);
+
+		// One more row is read to know whether a next page exists
+		List<Patient> patients = entityManager.createQuery(query).setFirstResult((int) pageable.getOffset())
+				.setMaxResults(pageable.getPageSize() + 1).getResultList();
+
+		boolean hasNext = patients.size() > pageable.getPageSize();
+		return new SliceImpl<>(hasNext ? patients.subList(0, pageable.getPageSize()) : patients, pageable, hasNext);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Map<String, Object>> findFields(Specification<Patient> specification, Collection<String> fields,
+			Sort sort, long offset, int limit) {
+		CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+		CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+		Root<Patient> patient = query.from(Patient.class);
+
+		List<Selection<?>> selections = new ArrayList<>(fields.size());
+		for (String field : fields) {
+			selections.add(patient.get(field).alias(field));
+		}
+		query.multiselect(selections);
+		Predicate predicate = specification.toPredicate(patient, query, criteriaBuilder);
+		if (predicate != null) {
+			query.where(predicate);
+		}
+		query.orderBy(QueryUtils.toOrders(sort, patient, criteriaBuilder));
+
+		List<Tuple> tuples = entityManager.createQuery(query).setFirstResult((int) offset).setMaxResults(limit)
+				.getResultList();
+		List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			Map<String, Object> row = new LinkedHashMap<>();
+			for (String field : fields) {
+				row.put(field, tuple.get(field));
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	private SessionImplementor session() {
+		return entityManager.unwrap(SessionImplementor.class);
+	}
+
+	private static <T> void set(CriteriaUpdate<Patient> update, Root<Patient> patient, String field, T value) {
+		if (value != null) {
+			update.set(patient.<T>get(field), value);
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.abernathyclinic.mediscreen.service_sql.repository;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.persistence.criteria.Path;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSearch;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken.DateOfBirthKey;
+
+/**
+ * {@link Specification} of the {@link Patient}, combined by
+ * {@link #of(PatientSearch)} from the criteria of a search. <br>
+ * Each predicate is written the way its index is declared: the names and the
+ * home address are compared lower-cased, so that the functional indexes on
+ * {@code lower(...)} are used. <br>
+ */
+public final class PatientSpecifications {
+
+	private static final char ESCAPE = '\\';
+
+	private PatientSpecifications() {
+	}
+
+	/**
+	 * @param search : the criteria, the ones null or blank are ignored
+	 * @return the specification matching every criterion provided
+	 */
+	public static Specification<Patient> of(PatientSearch search) {
+		Specification<Patient> specification = Specification.where(null);
+		if (isProvided(search.getLastName())) {
+			specification = specification.and(startsWith("lastName", search.getLastName()));
+		}
+		if (isProvided(search.getFirstName())) {
+			specification = specification.and(startsWith("firstName", search.getFirstName()));
+		}
+		if (isProvided(search.getGender())) {
+			specification = specification.and(equalTo("gender", search.getGender().trim()));
+		}
+		if (search.getBornFrom() != null) {
+			specification = specification.and(bornFrom(search.getBornFrom()));
+		}
+		if (search.getBornTo() != null) {
+			specification = specification.and(bornTo(search.getBornTo()));
+		}
+		if (isProvided(search.getPhoneNumber())) {
+			specification = specification.and(equalTo("phoneNumber", search.getPhoneNumber().trim()));
+		}
+		if (isProvided(search.getHomeAddress())) {
+			specification = specification.and(contains("homeAddress", search.getHomeAddress()));
+		}
+		return specification;
+	}
+
+	public static Specification<Patient> startsWith(String field, String prefix) {
+		return (patient, query, criteriaBuilder) -> criteriaBuilder.like(
+				criteriaBuilder.lower(patient.get(field)), escape(prefix) + "%", ESCAPE);
+	}
+
+	public static Specification<Patient> contains(String field, String substring) {
+		return (patient, query, criteriaBuilder) -> criteriaBuilder.like(
+				criteriaBuilder.lower(patient.get(field)), "%" + escape(substring) + "%", ESCAPE);
+	}
+
+	public static Specification<Patient> equalTo(String field, String value) {
+		return (patient, query, criteriaBuilder) -> criteriaBuilder.equal(patient.get(field), value);
+	}
+
+	public static Specification<Patient> bornFrom(LocalDate bornFrom) {
+		return (patient, query, criteriaBuilder) -> criteriaBuilder
+				.greaterThanOrEqualTo(patient.<LocalDate>get("dateOfBirth"), bornFrom);
+	}
+
+	public static Specification<Patient> bornTo(LocalDate bornTo) {
+		return (patient, query, criteriaBuilder) -> criteriaBuilder
+				.lessThanOrEqualTo(patient.<LocalDate>get("dateOfBirth"), bornTo);
+	}
+
+	/**
+	 * Patients born within the given dates, optionally of the given gender, after
+	 * the position of the last patient served ordered by date of birth then by
+	 * UUID. <br>
+	 * 
+	 * @param bornFrom : first date of birth included, null for no lower bound
+	 * @param bornTo   : last date of birth included, null for no upper bound
+	 * @param gender   : of the patients, null for any
+	 * @param after    : position of the last patient served, null for the first
+	 *                 page
+	 * @return the specification of the page of the age range query
+	 */
+	public static Specification<Patient> bornWithin(LocalDate bornFrom, LocalDate bornTo, String gender,
+			DateOfBirthKey after) {
+		Specification<Patient> specification = Specification.where(null);
+		if (bornFrom != null) {
+			specification = specification.and(bornFrom(bornFrom));
+		}
+		if (bornTo != null) {
+			specification = specification.and(bornTo(bornTo));
+		}
+		if (gender != null) {
+			specification = specification.and(equalTo("gender", gender));
+		}
+		if (after != null) {
+			specification = specification.and(after(after));
+		}
+		return specification;
+	}
+
+	/**
+	 * Seek after the last patient served by the keyset pagination ordered by
+	 * UUID, every patient if null. <br>
+	 */
+	public static Specification<Patient> after(UUID uuid) {
+		return (patient, query, criteriaBuilder) -> uuid == null ? null
+				: criteriaBuilder.greaterThan(patient.<UUID>get("uuid"), uuid);
+	}
+
+	/**
+	 * Seek after the last patient served by the keyset pagination ordered by
+	 * date of birth then by UUID. <br>
+	 */
+	public static Specification<Patient> after(DateOfBirthKey after) {
+		return (patient, query, criteriaBuilder) -> {
+			Path<LocalDate> dateOfBirth = patient.get("dateOfBirth");
+			// The first condition is implied by the second, it lets the index scan start at the last patient served
+			return criteriaBuilder.and(criteriaBuilder.greaterThanOrEqualTo(dateOfBirth, after.getDateOfBirth()),
+					criteriaBuilder.or(criteriaBuilder.greaterThan(dateOfBirth, after.getDateOfBirth()),
+							criteriaBuilder.and(criteriaBuilder.equal(dateOfBirth, after.getDateOfBirth()),
+									criteriaBuilder.greaterThan(patient.<UUID>get("uuid"), after.getUuid()))));
+		};
+	}
+
+	private static boolean isProvided(String criterion) {
+		return criterion != null && !criterion.isBlank();
+	}
+
+	/**
+	 * The wildcards typed by the client are matched literally. <br>
+	 */
+	private static String escape(String value) {
+		return value.trim().toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+}
@@ -0,0 +1,189 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchDeleteResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchResult.Status;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+/**
+ * Service used to write a large number of {@link Patient} at once. <br>
+ * The patients are validated one by one, then written chunk by chunk, each
+ * chunk in its own transaction using the JDBC batching configured with
+ * {@code hibernate.jdbc.batch_size}. <br>
+ * A chunk which fails is reported as such without affecting the others. <br>
+ * The bulk deletion is chunked the same way, one {@code DELETE ... IN} per
+ * chunk. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientBatchWriter {
+
+	private final PatientRepository patientRepository;
+	private final PatientCache patientCache;
+	private final Validator validator;
+	private final TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${patient.batch.chunk-size:500}")
+	private int chunkSize;
+
+	public PatientBatchWriter(PatientRepository patientRepository, PatientCache patientCache, Validator validator,
+			PlatformTransactionManager transactionManager) {
+		this.patientRepository = patientRepository;
+		this.patientCache = patientCache;
+		this.validator = validator;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Validate and write the patients provided. <br>
+	 * When {@code upsert} is set, a patient sharing the same last name, first name
+	 * and date of birth than an existing one updates it instead of creating a
+	 * duplicate. <br>
+	 * 
+	 * @param patients : to write
+	 * @param upsert   : whether the natural key is used to update the existing
+	 *                 patients
+	 * @return one result per patient, in the same order
+	 */
+	public List<PatientBatchResult> write(List<Patient> patients, boolean upsert) {
+		PatientBatchResult[] results = new PatientBatchResult[patients.size()];
+
+		for (int start = 0; start < patients.size(); start += chunkSize) {
+			int end = Math.min(start + chunkSize, patients.size());
+			List<Integer> validIndexes = new ArrayList<>();
+
+			for (int index = start; index < end; index++) {
+				String violations = validate(patients.get(index));
+				if (violations == null) {
+					validIndexes.add(index);
+				} else {
+					results[index] = new PatientBatchResult(index, Status.INVALID, null, violations);
+				}
+			}
+
+			try {
+				transactionTemplate.executeWithoutResult(status -> writeChunk(patients, validIndexes, upsert, results));
+				for (Integer index : validIndexes) {
+					if (results[index].getStatus() == Status.UPDATED) {
+						patientCache.invalidate(results[index].getUuid());
+					}
+				}
+			} catch (RuntimeException runtimeException) {
+				for (Integer index : validIndexes) {
+					results[index] = new PatientBatchResult(index, Status.FAILED, null,
+							NestedExceptionUtils.getMostSpecificCause(runtimeException).getMessage());
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * Delete the patients provided, chunk by chunk. <br>
+	 * Each chunk is deleted in its own transaction, so that a large purge doesn't
+	 * hold its locks until the end. <br>
+	 * 
+	 * @param uuids : of the patients to delete, the duplicates are ignored
+	 * @return the number of distinct UUIDs requested and of patients deleted
+	 */
+	public PatientBatchDeleteResult delete(List<UUID> uuids) {
+		List<UUID> distinctUuids = new ArrayList<>(new LinkedHashSet<>(uuids));
+		int deleted = 0;
+
+		for (int start = 0; start < distinctUuids.size(); start += chunkSize) {
+			List<UUID> chunk = distinctUuids.subList(start, Math.min(start + chunkSize, distinctUuids.size()));
+			deleted += patientRepository.deleteByUuidIn(chunk);
+			chunk.forEach(patientCache::invalidate);
+		}
+		return new PatientBatchDeleteResult(distinctUuids.size(), deleted);
+	}
+
+	private void writeChunk(List<Patient> patients, List<Integer> validIndexes, boolean upsert,
+			PatientBatchResult[] results) {
+		Map<String, Patient> existingPatients = upsert ? findExistingPatients(patients, validIndexes) : Map.of();
+		List<Patient> patientsToCreate = new ArrayList<>();
+
+		for (Integer index : validIndexes) {
+			Patient patient = patients.get(index);
+			Patient existingPatient = existingPatients.get(naturalKey(patient));
+
+			if (existingPatient == null) {
+				patientsToCreate.add(patient);
+				if (upsert) {
+					// A later duplicate of the same chunk updates this one
+					existingPatients.put(naturalKey(patient), patient);
+				}
+				results[index] = new PatientBatchResult(index, Status.CREATED, null, null);
+			} else {
+				existingPatient.setGender(patient.getGender());
+				existingPatient.setHomeAddress(patient.getHomeAddress());
+				existingPatient.setPhoneNumber(patient.getPhoneNumber());
+				results[index] = new PatientBatchResult(index, Status.UPDATED, null, null);
+			}
+		}
+
+		patientRepository.saveAll(patientsToCreate);
+		patientRepository.flush();
+
+		for (Integer index : validIndexes) {
+			Patient patient = results[index].getStatus() == Status.CREATED ? patients.get(index)
+					: existingPatients.get(naturalKey(patients.get(index)));
+			results[index].setUuid(patient.getUuid());
+		}
+		// Release the entities of the chunk, they are not used anymore
+		entityManager.clear();
+	}
+
+	private Map<String, Patient> findExistingPatients(List<Patient> patients, List<Integer> validIndexes) {
+		Set<String> lastNames = validIndexes.stream().map(index -> patients.get(index).getLastName())
+				.collect(Collectors.toSet());
+		Set<String> firstNames = validIndexes.stream().map(index -> patients.get(index).getFirstName())
+				.collect(Collectors.toSet());
+
+		Map<String, Patient> existingPatients = new HashMap<>();
+		if (!validIndexes.isEmpty()) {
+			for (Patient existingPatient : patientRepository.findByLastNameInAndFirstNameIn(lastNames, firstNames)) {
+				existingPatients.putIfAbsent(naturalKey(existingPatient), existingPatient);
+			}
+		}
+		return existingPatients;
+	}
+
+	private String validate(Patient patient) {
+		Set<ConstraintViolation<Patient>> violations = validator.validate(patient);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+	}
+
+	private static String naturalKey(Patient patient) {
+		return patient.getLastName() + '\u0000' + patient.getFirstName() + '\u0000' + patient.getDateOfBirth();
+	}
+}
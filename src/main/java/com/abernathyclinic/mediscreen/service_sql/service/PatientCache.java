@@ -0,0 +1,165 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReplicaRoutingDataSource;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-process read-through cache of the {@link Patient} by UUID. <br>
+ * It is bounded in size and in time, and must be invalidated by every write on
+ * a patient. The hits, misses and evictions are published as the
+ * {@code cache.*} metrics with the {@code cache=patients} tag. <br>
+ * The clients reading their own writes, pinned to the primary, bypass it. A
+ * patient written less than {@code patient.datasource.read-your-writes-window}
+ * ago is loaded from the primary, so that the old version still on a replica
+ * is never cached. <br>
+ * It can be turned off with {@code patient.cache.enabled=false}, every lookup
+ * then goes to the loader. <br>
+ */
+@Service
+public class PatientCache implements MeterBinder {
+
+	private static final String CACHE_NAME = "patients";
+
+	private final Cache<UUID, Patient> cache;
+	private final Cache<UUID, Boolean> recentlyWritten;
+
+	public PatientCache(@Value("${patient.cache.enabled:true}") boolean enabled,
+			@Value("${patient.cache.maximum-size:10000}") long maximumSize,
+			@Value("${patient.cache.expire-after-write:PT5M}") Duration expireAfterWrite,
+			@Value("${patient.datasource.read-your-writes-window:PT5S}") Duration readYourWritesWindow) {
+		this.cache = enabled
+				? Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(expireAfterWrite).recordStats()
+						.build()
+				: null;
+		this.recentlyWritten = enabled
+				? Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(readYourWritesWindow).build()
+				: null;
+	}
+
+	/**
+	 * Retrieve a patient from the cache, or from the loader when it is not cached
+	 * yet. <br>
+	 * A patient which is not found is not cached. A client pinned to the primary
+	 * always gets it from the loader. <br>
+	 * 
+	 * @param uuid   : of the patient to retrieve
+	 * @param loader : used on a cache miss, typically the repository
+	 * @return the patient if present in the cache or found by the loader
+	 */
+	public Optional<Patient> get(UUID uuid, Function<UUID, Optional<Patient>> loader) {
+		if (cache == null || ReplicaRoutingDataSource.isPinnedToPrimary()) {
+			return loader.apply(uuid);
+		}
+		return Optional.ofNullable(cache.get(uuid,
+				key -> load(isRecentlyWritten(List.of(key)), () -> loader.apply(key).orElse(null))));
+	}
+
+	/**
+	 * Retrieve several patients from the cache, and the ones not cached yet with a
+	 * single call to the loader. <br>
+	 * The patients which are not found are not cached. <br>
+	 * 
+	 * @param uuids  : of the patients to retrieve
+	 * @param loader : used with the UUIDs missing from the cache, typically the
+	 *               repository
+	 * @return the patients present in the cache or found by the loader, by UUID
+	 */
+	public Map<UUID, Patient> getAll(Collection<UUID> uuids,
+			Function<Collection<UUID>, Map<UUID, Patient>> loader) {
+		if (cache == null || ReplicaRoutingDataSource.isPinnedToPrimary()) {
+			return loader.apply(uuids);
+		}
+		return cache.getAll(uuids, missing -> {
+			Collection<UUID> missingUuids = new ArrayList<>();
+			missing.forEach(missingUuids::add);
+			return load(isRecentlyWritten(missingUuids), () -> loader.apply(missingUuids));
+		});
+	}
+
+	/**
+	 * Retrieve a patient from the cache only, without loading it. <br>
+	 * 
+	 * @param uuid : of the patient to retrieve
+	 * @return the patient if present in the cache
+	 */
+	public Optional<Patient> getIfPresent(UUID uuid) {
+		if (cache == null || ReplicaRoutingDataSource.isPinnedToPrimary()) {
+			return Optional.empty();
+		}
+		return Optional.ofNullable(cache.getIfPresent(uuid));
+	}
+
+	/**
+	 * Remove a patient from the cache, to call once the patient has been written.
+	 * <br>
+	 * 
+	 * @param uuid : of the patient written
+	 */
+	public void invalidate(UUID uuid) {
+		if (cache != null && uuid != null) {
+			// Marked first, so that a load following the invalidation goes to the primary
+			recentlyWritten.put(uuid, Boolean.TRUE);
+			cache.invalidate(uuid);
+		}
+	}
+
+	public boolean isEnabled() {
+		return cache != null;
+	}
+
+	public CacheStats stats() {
+		return cache == null ? CacheStats.empty() : cache.stats();
+	}
+
+	private boolean isRecentlyWritten(Collection<UUID> uuids) {
+		for (UUID uuid : uuids) {
+			if (recentlyWritten.getIfPresent(uuid) != null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Run the load, on the primary when a replica may still have an older
+	 * version of the patients. <br>
+	 */
+	private static <T> T load(boolean onPrimary, Supplier<T> load) {
+		if (!onPrimary) {
+			return load.get();
+		}
+		ReplicaRoutingDataSource.pinToPrimary(true);
+		try {
+			return load.get();
+		} finally {
+			ReplicaRoutingDataSource.pinToPrimary(false);
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		if (cache != null) {
+			CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+		}
+	}
+}
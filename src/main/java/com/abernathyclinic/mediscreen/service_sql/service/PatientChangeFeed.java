@@ -0,0 +1,97 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChangePage;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientChangeRepository;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+/**
+ * Service used to read the change feed of the {@link Patient}, from a cursor.
+ * <br>
+ * The ids of the changes are taken just before the commit of their
+ * transaction, two concurrent transactions can still commit in the reverse
+ * order of their ids. Only the changes recorded more than
+ * {@code patient.changes.settle-time} ago are served, so that the feed never
+ * moves past a change not yet committed. The time of the changes and the
+ * current time are both read from the clock of the database, a skew between
+ * the clocks of the instances can't shorten the settle time. <br>
+ * The changes and the patients are read in a transaction which isn't
+ * read-only, served by the primary: a replica late by more than the settle
+ * time could hide a change. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientChangeFeed {
+
+	private final PatientChangeRepository patientChangeRepository;
+	private final PatientRepository patientRepository;
+
+	@Value("${patient.changes.settle-time:PT1S}")
+	private Duration settleTime;
+
+	public PatientChangeFeed(PatientChangeRepository patientChangeRepository,
+			PatientRepository patientRepository) {
+		this.patientChangeRepository = patientChangeRepository;
+		this.patientRepository = patientRepository;
+	}
+
+	/**
+	 * @param since : the cursor after which the changes are read, null to only
+	 *              get the cursor of the last change
+	 * @param limit : maximum number of changes returned
+	 * @return the changes following the cursor with the current state of their
+	 *         patient, and the cursor to read the next ones
+	 */
+	@Transactional
+	public PatientChangePage read(Long since, int limit) {
+		long settleMillis = settleTime.toMillis();
+		if (since == null) {
+			long head = patientChangeRepository.findLastSettled(settleMillis).map(PatientChange::getId).orElse(0L);
+			return new PatientChangePage(List.of(), head, false);
+		}
+
+		// One more change is read to know whether more are waiting
+		List<PatientChange> changes = patientChangeRepository.findSettledAfter(since, settleMillis,
+				PageRequest.of(0, limit + 1));
+		boolean hasNext = changes.size() > limit;
+		if (hasNext) {
+			changes = changes.subList(0, limit);
+		}
+		if (changes.isEmpty()) {
+			return new PatientChangePage(changes, since, false);
+		}
+
+		// Read in the same transaction rather than from the cache, the patients are at least as recent as the changes
+		Set<UUID> uuids = new LinkedHashSet<>();
+		for (PatientChange change : changes) {
+			if (change.getType() != PatientChange.Type.DELETED) {
+				uuids.add(change.getUuid());
+			}
+		}
+		Map<UUID, Patient> patients = new HashMap<>();
+		if (!uuids.isEmpty()) {
+			for (Patient patient : patientRepository.findAllById(uuids)) {
+				patients.put(patient.getUuid(), patient);
+			}
+		}
+		for (PatientChange change : changes) {
+			change.setPatient(patients.get(change.getUuid()));
+		}
+		return new PatientChangePage(changes, changes.get(changes.size() - 1).getId(), hasNext);
+	}
+}
@@ -0,0 +1,197 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeyIndex;
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeys;
+import com.abernathyclinic.mediscreen.service_sql.duplicates.PatientSimilarity;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientDuplicate;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientDuplicatePair;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Service used to find the {@link Patient} likely to be the same person. <br>
+ * The patients are only compared within the blocks of the
+ * {@link BlockingKeyIndex}, the patients sharing a blocking key, and scored by
+ * {@link PatientSimilarity}: the table is never compared with itself. The
+ * blocks of more than {@code patient.duplicates.max-block-size} patients, like
+ * a phone number shared by a whole facility, are too common to tell anything
+ * and are skipped. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientDuplicateFinder {
+
+	private final PatientRepository patientRepository;
+	private final EntityManager entityManager;
+	private final SessionFactory sessionFactory;
+	private final ObjectWriter objectWriter;
+
+	@Value("${patient.duplicates.min-score:0.9}")
+	private double minScore;
+
+	@Value("${patient.duplicates.max-block-size:1000}")
+	private int maxBlockSize;
+
+	@Value("${patient.duplicates.fetch-size:500}")
+	private int fetchSize;
+
+	@Value("${patient.duplicates.flush-interval:1000}")
+	private int flushInterval;
+
+	public PatientDuplicateFinder(PatientRepository patientRepository, EntityManager entityManager,
+			EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper) {
+		this.patientRepository = patientRepository;
+		this.entityManager = entityManager;
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * @param uuid : of the patient
+	 * @return the patients likely to be duplicates of the patient, the most
+	 *         similar first, or empty if the patient doesn't exist
+	 */
+	@Transactional(readOnly = true)
+	public Optional<List<PatientDuplicate>> findDuplicates(UUID uuid) {
+		return patientRepository.findById(uuid).map(this::findDuplicates);
+	}
+
+	private List<PatientDuplicate> findDuplicates(Patient patient) {
+		Set<String> keys = BlockingKeys.of(patient);
+		Set<UUID> candidates = entityManager.unwrap(Session.class)
+				.doReturningWork(connection -> BlockingKeyIndex.findCandidates(connection, keys, maxBlockSize));
+		candidates.remove(patient.getUuid());
+
+		List<PatientDuplicate> duplicates = new ArrayList<>();
+		for (Patient candidate : patientRepository.findAllById(candidates)) {
+			double score = PatientSimilarity.score(patient, candidate);
+			if (score >= minScore) {
+				duplicates.add(new PatientDuplicate(candidate, score));
+			}
+		}
+		duplicates.sort(Comparator.comparingDouble(PatientDuplicate::getScore).reversed()
+				.thenComparing(duplicate -> duplicate.getPatient().getUuid()));
+		return duplicates;
+	}
+
+	/**
+	 * Write every pair of patients likely to be the same person, one JSON
+	 * document per line. <br>
+	 * The blocks are read with a forward-only cursor, in the order of their keys,
+	 * and a pair sharing several keys is only written for the first of their
+	 * blocks compared. The keys of the blocks compared are remembered rather than
+	 * compared with the current one, the order of the database depending on its
+	 * collation. <br>
+	 *
+	 * @param outputStream : where to write the pairs, it is left open
+	 * @return the number of pairs written
+	 * @throws IOException if the client went away during the report
+	 */
+	public long report(OutputStream outputStream) throws IOException {
+		long[] count = { 0 };
+		try (StatelessSession session = sessionFactory.openStatelessSession();
+				JsonGenerator jsonGenerator = objectWriter.getFactory().createGenerator(outputStream)) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// The PostgreSQL driver only uses a cursor outside of the auto-commit mode
+			Transaction transaction = session.beginTransaction();
+			try {
+				session.doWork((Connection connection) -> {
+					connection.setReadOnly(true);
+					Set<String> comparedKeys = new HashSet<>();
+					BlockingKeyIndex.forEachBlock(connection, fetchSize, maxBlockSize, (key, uuids) -> {
+						Map<UUID, Patient> patients = BlockingKeyIndex.findPatients(connection, uuids).stream()
+								.collect(Collectors.toMap(Patient::getUuid, Function.identity()));
+						for (PatientDuplicatePair pair : pairs(uuids, patients, comparedKeys)) {
+							write(jsonGenerator, pair, ++count[0]);
+						}
+						comparedKeys.add(key);
+					});
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			} finally {
+				transaction.rollback();
+			}
+		}
+		return count[0];
+	}
+
+	private List<PatientDuplicatePair> pairs(List<UUID> uuids, Map<UUID, Patient> patients,
+			Set<String> comparedKeys) {
+		List<PatientDuplicatePair> pairs = new ArrayList<>();
+		for (int i = 0; i < uuids.size(); i++) {
+			Patient patient = patients.get(uuids.get(i));
+			if (patient == null) {
+				continue;
+			}
+			Set<String> keys = BlockingKeys.of(patient);
+			for (int j = i + 1; j < uuids.size(); j++) {
+				Patient other = patients.get(uuids.get(j));
+				if (other == null || sharedEarlier(keys, BlockingKeys.of(other), comparedKeys)) {
+					continue;
+				}
+				double score = PatientSimilarity.score(patient, other);
+				if (score >= minScore) {
+					pairs.add(new PatientDuplicatePair(patient.getUuid(), other.getUuid(), score));
+				}
+			}
+		}
+		return pairs;
+	}
+
+	/**
+	 * @return whether the two patients share a key whose block has been compared
+	 *         already
+	 */
+	private static boolean sharedEarlier(Set<String> keys, Set<String> otherKeys, Set<String> comparedKeys) {
+		for (String sharedKey : keys) {
+			if (otherKeys.contains(sharedKey) && comparedKeys.contains(sharedKey)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void write(JsonGenerator jsonGenerator, PatientDuplicatePair pair, long count) {
+		try {
+			objectWriter.writeValue(jsonGenerator, pair);
+			jsonGenerator.writeRaw('\n');
+			if (count == 1 || count % flushInterval == 0) {
+				jsonGenerator.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
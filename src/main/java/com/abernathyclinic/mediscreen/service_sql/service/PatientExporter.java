@@ -0,0 +1,84 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Service used to export the whole patient table as newline-delimited JSON.
+ * <br>
+ * The rows are read with a forward-only cursor from a Hibernate
+ * {@link StatelessSession}, so no entity is ever kept in a persistence context
+ * and the memory use doesn't depend on the size of the table. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientExporter {
+
+	private final SessionFactory sessionFactory;
+	private final ObjectWriter objectWriter;
+
+	@Value("${patient.export.fetch-size:500}")
+	private int fetchSize;
+
+	@Value("${patient.export.flush-interval:1000}")
+	private int flushInterval;
+
+	public PatientExporter(EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Write every {@link Patient} of the database, one JSON document per line.
+	 * <br>
+	 * The output is flushed after the first row, so the client receives the first
+	 * byte right away, then every {@code patient.export.flush-interval} rows. <br>
+	 * 
+	 * @param outputStream : where to write the patients, it is left open
+	 * @return the number of patients written
+	 * @throws IOException if the client went away during the export
+	 */
+	public long export(OutputStream outputStream) throws IOException {
+		long count = 0;
+		try (StatelessSession session = sessionFactory.openStatelessSession();
+				JsonGenerator jsonGenerator = objectWriter.getFactory().createGenerator(outputStream)) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			// The PostgreSQL driver only uses a cursor outside of the auto-commit mode
+			Transaction transaction = session.beginTransaction();
+			session.doWork((Connection connection) -> connection.setReadOnly(true));
+
+			try (ScrollableResults results = session.createQuery("from Patient", Patient.class)
+					.setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+				while (results.next()) {
+					objectWriter.writeValue(jsonGenerator, results.get(0));
+					jsonGenerator.writeRaw('\n');
+					count++;
+					if (count == 1 || count % flushInterval == 0) {
+						jsonGenerator.flush();
+					}
+				}
+			} finally {
+				transaction.rollback();
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,149 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.abernathyclinic.mediscreen.service_sql.exception.BodyNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientImportJob;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+/**
+ * Service used to run the imports of {@link Patient} in the background, one at
+ * a time, and to keep track of them. <br>
+ * The file uploaded is copied to a temporary file as it is received, so that
+ * it is never held in memory and the request ends before the import. At most
+ * {@code patient.import.queue-capacity} imports wait for their turn, the next
+ * ones are refused. <br>
+ * The jobs and their files are kept for {@code patient.import.retention} after
+ * their last update. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientImportJobs implements DisposableBean {
+
+	private final PatientImporter patientImporter;
+	private final Cache<UUID, PatientImportJob> jobs;
+	private final ThreadPoolExecutor executor;
+	private final long maxSize;
+
+	public PatientImportJobs(PatientImporter patientImporter,
+			@Value("${patient.import.queue-capacity:4}") int queueCapacity,
+			@Value("${patient.import.retention:PT24H}") Duration retention,
+			@Value("${patient.import.max-size:1GB}") DataSize maxSize) {
+		this.patientImporter = patientImporter;
+		// The files are deleted by the thread removing the job, before the shutdown completes
+		this.jobs = Caffeine.newBuilder().expireAfterWrite(retention).executor(Runnable::run)
+				.removalListener((UUID id, PatientImportJob job, RemovalCause cause) -> {
+					if (job != null && cause != RemovalCause.REPLACED) {
+						delete(job.getFile());
+						delete(job.getRejectionsFile());
+					}
+				}).build();
+		// A single import at a time, they compete for the same table and the same disk
+		this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("patient-import-"));
+		this.maxSize = maxSize.toBytes();
+	}
+
+	/**
+	 * Copy the file provided, then queue its import. <br>
+	 *
+	 * @param inputStream : the CSV file to import
+	 * @return the job of the import, queued
+	 * @throws IOException if the file can't be received or copied
+	 */
+	public PatientImportJob submit(InputStream inputStream) throws IOException {
+		Path file = Files.createTempFile("patient-import-", ".csv");
+		Path rejectionsFile = null;
+		try {
+			long size = copy(inputStream, file);
+			rejectionsFile = Files.createTempFile("patient-import-", "-rejections.csv");
+
+			PatientImportJob job = new PatientImportJob(UUID.randomUUID(), size, file, rejectionsFile);
+			try {
+				executor.execute(() -> {
+					try {
+						patientImporter.run(job);
+					} finally {
+						delete(job.getFile());
+						// Restarts the retention from the end of the import
+						jobs.put(job.getId(), job);
+					}
+				});
+			} catch (RejectedExecutionException rejectedExecutionException) {
+				throw new ServiceOverloadedException(
+						"Too many imports are waiting, the import has been refused, retry later.");
+			}
+			jobs.put(job.getId(), job);
+			return job;
+		} catch (IOException | RuntimeException exception) {
+			delete(file);
+			delete(rejectionsFile);
+			throw exception;
+		}
+	}
+
+	/**
+	 * @param id : of the job
+	 * @return the job if it is known
+	 */
+	public Optional<PatientImportJob> get(UUID id) {
+		return Optional.ofNullable(jobs.getIfPresent(id));
+	}
+
+	@Override
+	public void destroy() {
+		// The import running is stopped after its current chunk
+		executor.shutdownNow();
+		jobs.invalidateAll();
+	}
+
+	private long copy(InputStream inputStream, Path file) throws IOException {
+		byte[] buffer = new byte[8192];
+		long size = 0;
+		try (OutputStream outputStream = Files.newOutputStream(file)) {
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				size += read;
+				if (size > maxSize) {
+					throw new BodyNotValidException(
+							"The file provided is larger than the maximum of " + maxSize + " bytes.");
+				}
+				outputStream.write(buffer, 0, read);
+			}
+		}
+		return size;
+	}
+
+	private static void delete(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException ioException) {
+			file.toFile().deleteOnExit();
+		}
+	}
+}
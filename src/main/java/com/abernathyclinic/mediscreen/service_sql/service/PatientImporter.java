@@ -0,0 +1,338 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abernathyclinic.mediscreen.service_sql.changes.PatientChangeLog;
+import com.abernathyclinic.mediscreen.service_sql.csv.CsvReader;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientImportJob;
+
+/**
+ * Service used to load the {@link Patient} of a CSV file into the database.
+ * <br>
+ * The file is read record by record, each row is validated against the
+ * constraints of the patient, then the valid rows are written chunk by chunk,
+ * each chunk in its own transaction: through {@code COPY} on PostgreSQL, and
+ * through a JDBC batch of {@code INSERT} on the other databases. A chunk which
+ * fails is rejected as a whole, the chunks already written are kept. <br>
+ * The rows bypass Hibernate, so each chunk records its changes in the change
+ * feed and invalidates the second-level cache of the patients itself. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientImporter {
+
+	private static final String COPY = "copy abernathyclinic_mediscreen.patients (uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number, version) from stdin with (format csv)";
+	private static final String INSERT = "insert into abernathyclinic_mediscreen.patients (uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number, version) values (?, ?, ?, ?, ?, ?, ?, 0)";
+
+	/**
+	 * Columns of the file, named after the fields of the patient, the case and
+	 * the underscores being ignored
+	 */
+	private static final List<String> COLUMNS = List.of("lastname", "firstname", "dateofbirth", "gender",
+			"homeaddress", "phonenumber");
+	private static final Set<String> MANDATORY_COLUMNS = Set.of("lastname", "firstname", "dateofbirth", "gender");
+
+	private final Validator validator;
+	private final TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${patient.import.chunk-size:1000}")
+	private int chunkSize;
+
+	public PatientImporter(Validator validator, PlatformTransactionManager transactionManager) {
+		this.validator = validator;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Import the file of the job, and report its progress in the job. <br>
+	 * The file must start with a header naming its columns, the last name, the
+	 * first name, the date of birth ({@code yyyy-MM-dd}) and the gender being
+	 * mandatory. <br>
+	 *
+	 * @param job : whose file is imported, it is left completed or failed
+	 */
+	public void run(PatientImportJob job) {
+		job.start();
+		try (CountingInputStream inputStream = new CountingInputStream(Files.newInputStream(job.getFile()));
+				CsvReader csvReader = new CsvReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+				Writer rejections = Files.newBufferedWriter(job.getRejectionsFile(), StandardCharsets.UTF_8)) {
+			rejections.write("line,message\n");
+			List<String> header = csvReader.readRecord();
+			if (header == null) {
+				job.fail("The file is empty.");
+				return;
+			}
+			int[] columns = columns(header);
+			if (columns == null) {
+				job.fail("The header must name the columns lastName, firstName, dateOfBirth and gender.");
+				return;
+			}
+
+			Chunk chunk = new Chunk();
+			long rowsRead = 0;
+			List<String> record;
+			while ((record = csvReader.readRecord()) != null) {
+				rowsRead++;
+				long line = csvReader.getRecordLine();
+				try {
+					Patient patient = patient(record, header.size(), columns);
+					String violations = validate(patient);
+					if (violations == null) {
+						chunk.add(line, patient);
+					} else {
+						reject(job, rejections, line, violations);
+					}
+				} catch (IllegalArgumentException illegalArgumentException) {
+					reject(job, rejections, line, illegalArgumentException.getMessage());
+				}
+
+				if (chunk.lines.size() == chunkSize) {
+					write(job, chunk, rejections);
+					job.progress(inputStream.count, rowsRead);
+					if (Thread.currentThread().isInterrupted()) {
+						job.fail("The import has been interrupted after " + rowsRead + " rows.");
+						return;
+					}
+				}
+			}
+			write(job, chunk, rejections);
+			job.progress(inputStream.count, rowsRead);
+			job.complete();
+		} catch (IOException | RuntimeException exception) {
+			job.fail(NestedExceptionUtils.getMostSpecificCause(exception).getMessage());
+		}
+	}
+
+	private void write(PatientImportJob job, Chunk chunk, Writer rejections) throws IOException {
+		if (chunk.lines.isEmpty()) {
+			return;
+		}
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+				session.doWork(connection -> {
+					if (connection.isWrapperFor(PGConnection.class)) {
+						copy(connection, chunk.patients);
+					} else {
+						insert(connection, chunk.patients);
+					}
+				});
+				for (Patient patient : chunk.patients) {
+					PatientChangeLog.record(session, patient.getUuid(), PatientChange.Type.CREATED);
+				}
+				// Evicts the cached queries on the patients at the commit, as after a native query
+				Set<String> querySpaces = Arrays
+						.stream(session.getFactory().getMetamodel().entityPersister(Patient.class).getQuerySpaces())
+						.map(String.class::cast).collect(Collectors.toSet());
+				session.getActionQueue().addAction(new BulkOperationCleanupAction(session, querySpaces));
+			});
+			job.imported(chunk.lines.size());
+		} catch (RuntimeException runtimeException) {
+			String message = NestedExceptionUtils.getMostSpecificCause(runtimeException).getMessage();
+			for (Long line : chunk.lines) {
+				reject(job, rejections, line, message);
+			}
+		}
+		rejections.flush();
+		chunk.clear();
+	}
+
+	private static void copy(Connection connection, List<Patient> patients) throws SQLException {
+		StringBuilder csv = new StringBuilder(patients.size() * 128);
+		for (Patient patient : patients) {
+			csv.append(patient.getUuid()).append(',');
+			appendQuoted(csv, patient.getLastName()).append(',');
+			appendQuoted(csv, patient.getFirstName()).append(',');
+			csv.append(patient.getDateOfBirth()).append(',');
+			appendQuoted(csv, patient.getGender()).append(',');
+			appendQuoted(csv, patient.getHomeAddress()).append(',');
+			appendQuoted(csv, patient.getPhoneNumber()).append(",0\n");
+		}
+		try {
+			connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY, new StringReader(csv.toString()));
+		} catch (IOException ioException) {
+			throw new SQLException(ioException);
+		}
+	}
+
+	private static void insert(Connection connection, List<Patient> patients) throws SQLException {
+		try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+			for (Patient patient : patients) {
+				statement.setObject(1, patient.getUuid());
+				statement.setString(2, patient.getLastName());
+				statement.setString(3, patient.getFirstName());
+				statement.setObject(4, patient.getDateOfBirth());
+				statement.setString(5, patient.getGender());
+				statement.setString(6, patient.getHomeAddress());
+				statement.setString(7, patient.getPhoneNumber());
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+
+	/**
+	 * A null value is left unquoted, {@code COPY} then reads it as {@code NULL}
+	 */
+	private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+		if (value != null) {
+			csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+		}
+		return csv;
+	}
+
+	/**
+	 * @return the index of each column in the file, -1 when it is missing, or
+	 *         null if a mandatory column is missing
+	 */
+	private static int[] columns(List<String> header) {
+		int[] columns = new int[COLUMNS.size()];
+		Arrays.fill(columns, -1);
+		Set<String> found = new HashSet<>();
+		for (int index = 0; index < header.size(); index++) {
+			String name = header.get(index).replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT);
+			int column = COLUMNS.indexOf(name);
+			if (column != -1 && columns[column] == -1) {
+				columns[column] = index;
+				found.add(name);
+			}
+		}
+		return found.containsAll(MANDATORY_COLUMNS) ? columns : null;
+	}
+
+	private static Patient patient(List<String> record, int headerSize, int[] columns) {
+		if (record.size() != headerSize) {
+			throw new IllegalArgumentException(
+					"The row has " + record.size() + " fields while the header has " + headerSize + ".");
+		}
+		String dateOfBirth = field(record, columns[2]);
+		LocalDate parsedDateOfBirth = null;
+		if (dateOfBirth != null) {
+			try {
+				parsedDateOfBirth = LocalDate.parse(dateOfBirth);
+			} catch (DateTimeParseException dateTimeParseException) {
+				throw new IllegalArgumentException("The date of birth must be formatted as yyyy-MM-dd");
+			}
+		}
+		return new Patient(UUID.randomUUID(), field(record, columns[0]), field(record, columns[1]),
+				parsedDateOfBirth, field(record, columns[3]), field(record, columns[4]), field(record, columns[5]),
+				0);
+	}
+
+	/**
+	 * @return the value of the column, null when it is empty or missing
+	 */
+	private static String field(List<String> record, int column) {
+		if (column == -1) {
+			return null;
+		}
+		String value = record.get(column).trim();
+		return value.isEmpty() ? null : value;
+	}
+
+	private String validate(Patient patient) {
+		Set<ConstraintViolation<Patient>> violations = validator.validate(patient);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+	}
+
+	private static void reject(PatientImportJob job, Writer rejections, long line, String message)
+			throws IOException {
+		rejections.write(Long.toString(line));
+		rejections.write(",\"");
+		rejections.write(message == null ? "" : message.replace("\"", "\"\""));
+		rejections.write("\"\n");
+		job.rejected(1);
+	}
+
+	/**
+	 * The valid rows waiting to be written, with their line in the file
+	 */
+	private static final class Chunk {
+
+		private final List<Long> lines = new ArrayList<>();
+		private final List<Patient> patients = new ArrayList<>();
+
+		private void add(long line, Patient patient) {
+			lines.add(line);
+			patients.add(patient);
+		}
+
+		private void clear() {
+			lines.clear();
+			patients.clear();
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the file, to report the progress of the import
+	 */
+	private static final class CountingInputStream extends FilterInputStream {
+
+		private long count;
+
+		private CountingInputStream(InputStream inputStream) {
+			super(inputStream);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int read = super.read();
+			if (read != -1) {
+				count++;
+			}
+			return read;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = super.read(buffer, offset, length);
+			if (read > 0) {
+				count += read;
+			}
+			return read;
+		}
+	}
+}
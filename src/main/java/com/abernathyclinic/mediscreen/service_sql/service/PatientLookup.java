@@ -0,0 +1,74 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientLookupResult;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+/**
+ * Service used to resolve many {@link Patient} by UUID at once. <br>
+ * The patients already in the {@link PatientCache} are served from it, the
+ * others are read chunk by chunk, one {@code SELECT ... IN} per chunk, and
+ * cached for the following lookups. <br>
+ */
+@Service
+@Profile("!reactive")
+public class PatientLookup {
+
+	private final PatientRepository patientRepository;
+	private final PatientCache patientCache;
+
+	@Value("${patient.lookup.chunk-size:500}")
+	private int chunkSize;
+
+	public PatientLookup(PatientRepository patientRepository, PatientCache patientCache) {
+		this.patientRepository = patientRepository;
+		this.patientCache = patientCache;
+	}
+
+	/**
+	 * @param uuids : of the patients to retrieve, the duplicates are resolved
+	 *              once
+	 * @return the patients found in the order of the UUIDs, and the UUIDs not
+	 *         found
+	 */
+	public PatientLookupResult lookup(List<UUID> uuids) {
+		LinkedHashSet<UUID> distinctUuids = new LinkedHashSet<>(uuids);
+		Map<UUID, Patient> found = patientCache.getAll(distinctUuids, this::load);
+
+		List<Patient> patients = new ArrayList<>(found.size());
+		List<UUID> missing = new ArrayList<>();
+		for (UUID uuid : distinctUuids) {
+			Patient patient = found.get(uuid);
+			if (patient != null) {
+				patients.add(patient);
+			} else {
+				missing.add(uuid);
+			}
+		}
+		return new PatientLookupResult(patients, missing);
+	}
+
+	private Map<UUID, Patient> load(Collection<UUID> uuids) {
+		List<UUID> toLoad = new ArrayList<>(uuids);
+		Map<UUID, Patient> loaded = new HashMap<>();
+		for (int start = 0; start < toLoad.size(); start += chunkSize) {
+			for (Patient patient : patientRepository
+					.findAllById(toLoad.subList(start, Math.min(start + chunkSize, toLoad.size())))) {
+				loaded.put(patient.getUuid(), patient);
+			}
+		}
+		return loaded;
+	}
+}
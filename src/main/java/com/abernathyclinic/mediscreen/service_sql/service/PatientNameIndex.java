@@ -0,0 +1,280 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeys;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSuggestion;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * In-process index of the names of the {@link Patient}, used to suggest them
+ * while their name is typed. <br>
+ * Every word of the last name and of the first name is indexed once
+ * normalized, without accents nor case, in a sorted map where a prefix is a
+ * range of keys, and by its Double Metaphone code, so that "Dupond" finds
+ * "Dupont". Each word holds its patients sorted by name, so that the first
+ * matches are read without sorting. <br>
+ * It is filled by the {@link PatientNameIndexLoader} and updated by the
+ * writes. The reads never lock, the writes are serialized. The number of
+ * patients indexed is published as the {@code patient.suggest.size} metric.
+ * <br>
+ */
+@Service
+public class PatientNameIndex implements MeterBinder {
+
+	private static final String WORD_SEPARATORS = "[\\s,\\-']+";
+	private static final int MIN_PHONETIC_LENGTH = 3;
+
+	private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+	private final ConcurrentSkipListMap<String, Set<Entry>> words = new ConcurrentSkipListMap<>();
+	private final Map<String, Set<Entry>> codes = new ConcurrentHashMap<>();
+	private final Object writeLock = new Object();
+	private final int maxScan;
+
+	public PatientNameIndex(@Value("${patient.suggest.max-scan:10000}") int maxScan) {
+		this.maxScan = maxScan;
+	}
+
+	/**
+	 * Suggest the patients whose name matches every word of the query. <br>
+	 * The longest word of the query drives the search: the patients having this
+	 * word come first, then those having a word starting with it, then those
+	 * having a word which sounds alike, each group sorted by name. The other
+	 * words of the query filter the patients the same way. At most
+	 * {@code patient.suggest.max-scan} patients are looked at. <br>
+	 *
+	 * @param query : the start of the name typed, the last name and the first
+	 *              name in any order
+	 * @param limit : maximum number of patients suggested
+	 * @return the patients suggested, the best matches first
+	 */
+	public List<PatientSuggestion> suggest(String query, int limit) {
+		List<String> queryWords = queryWords(query);
+		if (queryWords.isEmpty() || limit <= 0) {
+			return List.of();
+		}
+		String driving = queryWords.stream().max(Comparator.comparingInt(String::length)).get();
+		List<String> filters = new ArrayList<>(queryWords);
+		filters.remove(driving);
+
+		Map<UUID, Entry> found = new LinkedHashMap<>();
+		int[] scanned = { 0 };
+		collect(words.get(driving), filters, found, limit, scanned);
+		NavigableMap<String, Set<Entry>> completions = words.subMap(driving, false, driving + Character.MAX_VALUE,
+				false);
+		for (Set<Entry> completion : completions.values()) {
+			if (!collect(completion, filters, found, limit, scanned)) {
+				break;
+			}
+		}
+		if (driving.length() >= MIN_PHONETIC_LENGTH) {
+			collect(codes.get(BlockingKeys.phonetic(driving)), filters, found, limit, scanned);
+		}
+
+		List<PatientSuggestion> suggestions = new ArrayList<>(found.size());
+		for (Entry entry : found.values()) {
+			suggestions.add(new PatientSuggestion(entry.uuid, entry.lastName, entry.firstName, entry.dateOfBirth));
+		}
+		return suggestions;
+	}
+
+	/**
+	 * Index a patient, or replace the names indexed for it. <br>
+	 *
+	 * @param patient : as written
+	 */
+	public void put(Patient patient) {
+		put(patient.getUuid(), patient.getLastName(), patient.getFirstName(), patient.getDateOfBirth());
+	}
+
+	/**
+	 * Index a patient, or replace the names indexed for it. <br>
+	 */
+	public void put(UUID uuid, String lastName, String firstName, LocalDate dateOfBirth) {
+		if (uuid == null) {
+			return;
+		}
+		Entry entry = new Entry(uuid, lastName, firstName, dateOfBirth);
+		synchronized (writeLock) {
+			unindex(entries.put(uuid, entry));
+			for (String word : entry.words) {
+				words.computeIfAbsent(word, key -> new ConcurrentSkipListSet<>(Entry.ORDER)).add(entry);
+			}
+			for (String code : entry.codes) {
+				codes.computeIfAbsent(code, key -> new ConcurrentSkipListSet<>(Entry.ORDER)).add(entry);
+			}
+		}
+	}
+
+	/**
+	 * Update the fields provided of a patient already indexed, the null ones
+	 * being kept. <br>
+	 */
+	public void patch(UUID uuid, String lastName, String firstName, LocalDate dateOfBirth) {
+		synchronized (writeLock) {
+			Entry entry = entries.get(uuid);
+			if (entry != null) {
+				put(uuid, lastName == null ? entry.lastName : lastName,
+						firstName == null ? entry.firstName : firstName,
+						dateOfBirth == null ? entry.dateOfBirth : dateOfBirth);
+			}
+		}
+	}
+
+	/**
+	 * Remove a patient from the index. <br>
+	 *
+	 * @param uuid : of the patient deleted
+	 */
+	public void remove(UUID uuid) {
+		if (uuid == null) {
+			return;
+		}
+		synchronized (writeLock) {
+			unindex(entries.remove(uuid));
+		}
+	}
+
+	/**
+	 * @return the number of patients indexed
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		Gauge.builder("patient.suggest.size", this, PatientNameIndex::size)
+				.description("Number of patients in the name index").register(meterRegistry);
+	}
+
+	/**
+	 * @return whether more patients are wanted
+	 */
+	private boolean collect(Set<Entry> candidates, List<String> filters, Map<UUID, Entry> found, int limit,
+			int[] scanned) {
+		if (candidates == null) {
+			return found.size() < limit && scanned[0] < maxScan;
+		}
+		for (Entry entry : candidates) {
+			if (found.size() >= limit || scanned[0]++ >= maxScan) {
+				return false;
+			}
+			if (!found.containsKey(entry.uuid) && filters.stream().allMatch(entry::matches)) {
+				found.put(entry.uuid, entry);
+			}
+		}
+		return found.size() < limit && scanned[0] < maxScan;
+	}
+
+	private void unindex(Entry entry) {
+		if (entry == null) {
+			return;
+		}
+		for (String word : entry.words) {
+			unindex(words, word, entry);
+		}
+		for (String code : entry.codes) {
+			unindex(codes, code, entry);
+		}
+	}
+
+	private static void unindex(Map<String, Set<Entry>> map, String key, Entry entry) {
+		Set<Entry> set = map.get(key);
+		if (set != null) {
+			set.remove(entry);
+			if (set.isEmpty()) {
+				map.remove(key, set);
+			}
+		}
+	}
+
+	private static List<String> queryWords(String query) {
+		Set<String> queryWords = new LinkedHashSet<>();
+		if (query != null) {
+			for (String part : query.split(WORD_SEPARATORS)) {
+				String word = BlockingKeys.normalize(part);
+				if (!word.isEmpty()) {
+					queryWords.add(word);
+				}
+			}
+		}
+		return new ArrayList<>(queryWords);
+	}
+
+	/**
+	 * Names of a patient as indexed, immutable. <br>
+	 */
+	private static final class Entry {
+
+		private static final Comparator<Entry> ORDER = Comparator.comparing((Entry entry) -> entry.sortName)
+				.thenComparing(entry -> entry.uuid);
+
+		private final UUID uuid;
+		private final String lastName;
+		private final String firstName;
+		private final LocalDate dateOfBirth;
+		private final String sortName;
+		private final Set<String> words = new LinkedHashSet<>();
+		private final Set<String> codes = new LinkedHashSet<>();
+
+		private Entry(UUID uuid, String lastName, String firstName, LocalDate dateOfBirth) {
+			this.uuid = uuid;
+			this.lastName = lastName;
+			this.firstName = firstName;
+			this.dateOfBirth = dateOfBirth;
+			this.sortName = BlockingKeys.normalize(lastName) + " " + BlockingKeys.normalize(firstName);
+			addWords(lastName);
+			addWords(firstName);
+		}
+
+		private void addWords(String name) {
+			if (name == null) {
+				return;
+			}
+			for (String part : name.split(WORD_SEPARATORS)) {
+				String word = BlockingKeys.normalize(part);
+				if (!word.isEmpty()) {
+					words.add(word);
+					String code = BlockingKeys.phonetic(word);
+					if (word.length() >= MIN_PHONETIC_LENGTH && !code.isEmpty()) {
+						codes.add(code);
+					}
+				}
+			}
+			// A compound name is also found when typed without its separator
+			String whole = BlockingKeys.normalize(name);
+			if (!whole.isEmpty()) {
+				words.add(whole);
+			}
+		}
+
+		private boolean matches(String queryWord) {
+			for (String word : words) {
+				if (word.startsWith(queryWord)) {
+					return true;
+				}
+			}
+			return queryWord.length() >= MIN_PHONETIC_LENGTH && codes.contains(BlockingKeys.phonetic(queryWord));
+		}
+	}
+}
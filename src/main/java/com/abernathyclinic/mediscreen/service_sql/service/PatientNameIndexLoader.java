@@ -0,0 +1,127 @@
+package com.abernathyclinic.mediscreen.service_sql.service;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChangePage;
+
+/**
+ * Fills the {@link PatientNameIndex} once the application is ready, then
+ * keeps it up to date by following the {@link PatientChangeFeed}. <br>
+ * The cursor of the feed is taken before the table is read, so that the
+ * changes made during the reading are applied after it. The feed brings the
+ * writes the controller doesn't apply itself, the batch, the imports and the
+ * bulk deletes, and the writes of the other instances, every
+ * {@code patient.suggest.refresh-interval}. <br>
+ * Both run on a background thread, the suggestions are partial until the
+ * table has been read, which is tried again at every refresh until it
+ * succeeds. <br>
+ */
+@Component
+@Profile("!reactive")
+public class PatientNameIndexLoader implements DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(PatientNameIndexLoader.class);
+
+	private final PatientNameIndex patientNameIndex;
+	private final PatientChangeFeed patientChangeFeed;
+	private final SessionFactory sessionFactory;
+	private final ScheduledExecutorService executor;
+
+	@Value("${patient.suggest.refresh-interval:PT5S}")
+	private Duration refreshInterval;
+
+	@Value("${patient.suggest.fetch-size:500}")
+	private int fetchSize;
+
+	@Value("${patient.changes.max-limit:1000}")
+	private int changesLimit;
+
+	private boolean loaded;
+	private long cursor;
+
+	public PatientNameIndexLoader(PatientNameIndex patientNameIndex, PatientChangeFeed patientChangeFeed,
+			EntityManagerFactory entityManagerFactory) {
+		this.patientNameIndex = patientNameIndex;
+		this.patientChangeFeed = patientChangeFeed;
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("patient-names-"));
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void start() {
+		executor.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+	}
+
+	private void load() {
+		long start = System.nanoTime();
+		cursor = patientChangeFeed.read(null, 0).getCursor();
+		try (StatelessSession session = sessionFactory.openStatelessSession()) {
+			// The PostgreSQL driver only uses a cursor outside of the auto-commit mode
+			Transaction transaction = session.beginTransaction();
+			session.doWork((Connection connection) -> connection.setReadOnly(true));
+			try (ScrollableResults results = session.createQuery("from Patient", Patient.class)
+					.setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+				while (results.next()) {
+					patientNameIndex.put((Patient) results.get(0));
+				}
+			} finally {
+				transaction.rollback();
+			}
+		}
+		logger.info("The names of {} patients have been indexed in {} ms", patientNameIndex.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+
+	private void refresh() {
+		try {
+			if (!loaded) {
+				load();
+				loaded = true;
+				return;
+			}
+			PatientChangePage page;
+			do {
+				page = patientChangeFeed.read(cursor, changesLimit);
+				for (PatientChange change : page.getChanges()) {
+					if (change.getPatient() == null) {
+						patientNameIndex.remove(change.getUuid());
+					} else {
+						patientNameIndex.put(change.getPatient());
+					}
+				}
+				cursor = page.getCursor();
+			} while (page.isHasNext());
+		} catch (RuntimeException runtimeException) {
+			// Tried again at the next refresh, the cursor didn't move past the changes not applied
+			logger.warn("The name index couldn't be updated: {}", runtimeException.getMessage());
+		}
+	}
+}
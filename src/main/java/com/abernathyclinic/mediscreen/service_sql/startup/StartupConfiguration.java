@@ -0,0 +1,27 @@
+package com.abernathyclinic.mediscreen.service_sql.startup;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Configuration of the {@code fast-start} profile, which creates the beans
+ * lazily. <br>
+ * The migrations and Hibernate are still started at boot: a container must not
+ * report itself started before its schema is migrated, and the first request
+ * would otherwise wait for the whole persistence layer. <br>
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("fast-start")
+public class StartupConfiguration {
+
+	@Bean
+	public static LazyInitializationExcludeFilter eagerPersistence() {
+		return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class,
+				EntityManagerFactory.class);
+	}
+}
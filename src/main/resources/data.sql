@@ -1,23 +1,5 @@
-BEGIN;
-CREATE SCHEMA IF NOT EXISTS abernathyclinic_mediscreen;
+-- -------| Data used for testing purpose, loaded in the H2 database once migrated |-------
 
-CREATE TABLE abernathyclinic_mediscreen.patients
-(
-    uuid uuid NOT NULL,
-    last_name character varying(32),
-    first_name character varying(32),
-    date_of_birth character varying(16),
-    gender character varying(32),
-    home_address character varying(128),
-    phone_number character varying(16),
-    PRIMARY KEY (uuid)
-);
-COMMIT;
-
--- -------| Below are data used for testing purpose |-------
-
-BEGIN;
 INSERT INTO abernathyclinic_mediscreen.patients(
 	uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number)
-VALUES ('b42a8ef5-8baa-4bc2-89aa-d18cdc3239f9', 'lastName', 'firstName', '01/01/0001', 'Binary', 'homeAddress', '123.456.789');
-COMMIT;
+VALUES ('b42a8ef5-8baa-4bc2-89aa-d18cdc3239f9', 'lastName', 'firstName', '1970-01-01', 'Binary', 'homeAddress', '123.456.789');
@@ -0,0 +1,29 @@
+-- Schema of the in-memory H2 database, used by the tests, the benchmarks and the load test.
+-- It is the current schema of the PostgreSQL migrations at once, without the indexes specific to PostgreSQL.
+-- A migration added for PostgreSQL is added here too, with the same version, when H2 needs it.
+CREATE SCHEMA IF NOT EXISTS abernathyclinic_mediscreen;
+
+CREATE TABLE abernathyclinic_mediscreen.patients
+(
+    uuid uuid NOT NULL,
+    last_name character varying(32),
+    first_name character varying(32),
+    date_of_birth date,
+    gender character varying(32),
+    home_address character varying(128),
+    phone_number character varying(16),
+    version bigint NOT NULL DEFAULT 0,
+    PRIMARY KEY (uuid)
+);
+CREATE INDEX patients_date_of_birth_idx ON abernathyclinic_mediscreen.patients (date_of_birth, uuid);
+CREATE INDEX patients_name_idx ON abernathyclinic_mediscreen.patients (last_name, first_name);
+CREATE INDEX patients_phone_number_idx ON abernathyclinic_mediscreen.patients (phone_number);
+
+CREATE TABLE abernathyclinic_mediscreen.patient_changes
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    uuid uuid NOT NULL,
+    type character varying(8) NOT NULL,
+    changed_at timestamp with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,8 @@
+-- Blocking keys of the patients, as in the PostgreSQL migration of the same version.
+CREATE TABLE abernathyclinic_mediscreen.patient_blocking_keys
+(
+    blocking_key character varying(64) NOT NULL,
+    uuid uuid NOT NULL,
+    PRIMARY KEY (blocking_key, uuid)
+);
+CREATE INDEX patient_blocking_keys_uuid_idx ON abernathyclinic_mediscreen.patient_blocking_keys (uuid);
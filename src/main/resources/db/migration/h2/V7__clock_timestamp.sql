@@ -0,0 +1,3 @@
+-- clock_timestamp() of PostgreSQL, which the change feed takes its times from.
+-- Declared in the PUBLIC schema, the schema of the connections of the application.
+CREATE ALIAS IF NOT EXISTS PUBLIC.CLOCK_TIMESTAMP FOR "com.abernathyclinic.mediscreen.service_sql.changes.H2Functions.clockTimestamp";
@@ -0,0 +1,15 @@
+-- Schema of the patients as first deployed, before the migrations were versioned.
+-- An existing database, created by the former init script or by Hibernate, is baselined at this version.
+CREATE SCHEMA IF NOT EXISTS abernathyclinic_mediscreen;
+
+CREATE TABLE IF NOT EXISTS abernathyclinic_mediscreen.patients
+(
+    uuid uuid NOT NULL,
+    last_name character varying(32),
+    first_name character varying(32),
+    date_of_birth character varying(16),
+    gender character varying(32),
+    home_address character varying(128),
+    phone_number character varying(16),
+    PRIMARY KEY (uuid)
+);
@@ -0,0 +1,44 @@
+-- Stores the date of birth as a DATE instead of free-form text, and indexes it for the age range queries.
+-- The text is read as yyyy-MM-dd, else as MM/dd/yyyy (dd/MM/yyyy when the first field can't be a month).
+-- The values which can't be read are kept in patients_date_of_birth_unparsed and set to NULL.
+-- A database already converted by hand, before the migrations were versioned, is left as is.
+CREATE FUNCTION pg_temp.parse_date_of_birth(value text) RETURNS date AS $$
+BEGIN
+    value := trim(value);
+    IF value ~ '^\d{4}-\d{1,2}-\d{1,2}$' THEN
+        RETURN to_date(value, 'YYYY-MM-DD');
+    ELSIF value ~ '^\d{1,2}/\d{1,2}/\d{4}$' THEN
+        IF split_part(value, '/', 1)::int > 12 THEN
+            RETURN to_date(value, 'DD/MM/YYYY');
+        END IF;
+        RETURN to_date(value, 'MM/DD/YYYY');
+    END IF;
+    RETURN NULL;
+EXCEPTION WHEN others THEN
+    -- Out of range day or month
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+CREATE TABLE IF NOT EXISTS abernathyclinic_mediscreen.patients_date_of_birth_unparsed
+(
+    uuid uuid NOT NULL,
+    date_of_birth character varying(16),
+    PRIMARY KEY (uuid)
+);
+
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns WHERE table_schema = 'abernathyclinic_mediscreen'
+            AND table_name = 'patients' AND column_name = 'date_of_birth') <> 'date' THEN
+        INSERT INTO abernathyclinic_mediscreen.patients_date_of_birth_unparsed(uuid, date_of_birth)
+        SELECT uuid, date_of_birth FROM abernathyclinic_mediscreen.patients
+        WHERE date_of_birth IS NOT NULL AND pg_temp.parse_date_of_birth(date_of_birth) IS NULL;
+
+        ALTER TABLE abernathyclinic_mediscreen.patients
+            ALTER COLUMN date_of_birth TYPE date USING pg_temp.parse_date_of_birth(date_of_birth);
+    END IF;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS patients_date_of_birth_idx ON abernathyclinic_mediscreen.patients (date_of_birth, uuid);
@@ -0,0 +1,17 @@
+-- Indexes of the search: every criterion accepted alone by GET /patient/search is served by one of them.
+-- The names are searched by lower-cased prefix, served by text_pattern_ops whatever the collation,
+-- and the home address by lower-cased substring, served by the trigrams of pg_trgm.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS patients_name_idx
+    ON abernathyclinic_mediscreen.patients (last_name, first_name);
+CREATE INDEX IF NOT EXISTS patients_phone_number_idx
+    ON abernathyclinic_mediscreen.patients (phone_number);
+CREATE INDEX IF NOT EXISTS patients_last_name_lower_idx
+    ON abernathyclinic_mediscreen.patients (lower(last_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS patients_first_name_lower_idx
+    ON abernathyclinic_mediscreen.patients (lower(first_name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS patients_home_address_trgm_idx
+    ON abernathyclinic_mediscreen.patients USING gin (lower(home_address) gin_trgm_ops);
+
+ANALYZE abernathyclinic_mediscreen.patients;
@@ -0,0 +1,10 @@
+-- Change feed of the patients: every write appends its changes in its own transaction,
+-- and GET /patient/changes reads them by id, the cursor of the feed, through the primary key.
+CREATE TABLE IF NOT EXISTS abernathyclinic_mediscreen.patient_changes
+(
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    uuid uuid NOT NULL,
+    type character varying(8) NOT NULL,
+    changed_at timestamp without time zone NOT NULL,
+    PRIMARY KEY (id)
+);
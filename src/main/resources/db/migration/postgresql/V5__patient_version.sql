@@ -0,0 +1,3 @@
+-- Version of the patients, incremented by every update and checked against If-Match.
+-- It was added by Hibernate before the migrations were versioned, it is only created when missing.
+ALTER TABLE abernathyclinic_mediscreen.patients ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
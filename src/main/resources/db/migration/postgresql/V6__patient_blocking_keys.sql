@@ -0,0 +1,9 @@
+-- Blocking keys of the patients, refreshed by every write in its own transaction: two patients are only
+-- compared as potential duplicates when they share a key. The keys of the existing patients are filled at startup.
+CREATE TABLE IF NOT EXISTS abernathyclinic_mediscreen.patient_blocking_keys
+(
+    blocking_key character varying(64) NOT NULL,
+    uuid uuid NOT NULL,
+    PRIMARY KEY (blocking_key, uuid)
+);
+CREATE INDEX IF NOT EXISTS patient_blocking_keys_uuid_idx ON abernathyclinic_mediscreen.patient_blocking_keys (uuid);
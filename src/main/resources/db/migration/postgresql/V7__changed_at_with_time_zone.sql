@@ -0,0 +1,4 @@
+-- The times of the change feed as instants: without a time zone, they were written and compared in the TimeZone
+-- of the session of each instance, and went back an hour at every fall-back of the daylight saving time.
+-- The times already written are read in the TimeZone of the migration, the one of the instances.
+ALTER TABLE abernathyclinic_mediscreen.patient_changes ALTER COLUMN changed_at TYPE timestamp with time zone;
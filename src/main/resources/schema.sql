@@ -1,3 +0,0 @@
-BEGIN;
-CREATE SCHEMA IF NOT EXISTS abernathyclinic_mediscreen;
-COMMIT;
\ No newline at end of file
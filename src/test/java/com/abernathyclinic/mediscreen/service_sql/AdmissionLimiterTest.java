@@ -0,0 +1,190 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import com.abernathyclinic.mediscreen.service_sql.admission.AdmissionInterceptor;
+import com.abernathyclinic.mediscreen.service_sql.admission.AdmissionLimiter;
+import com.abernathyclinic.mediscreen.service_sql.admission.DatabaseTimingDataSource;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+
+class AdmissionLimiterTest {
+
+	private static final long FAST = Duration.ofMillis(2).toNanos();
+	private static final long SLOW = Duration.ofMillis(50).toNanos();
+	private static final String ENDPOINT = "PatientController#getPatientByUUID";
+
+	@DisplayName("The requests over the limit are rejected")
+	@Test
+	void givenTheLimitReached_whenTryAcquire_thenTheRequestIsRejected() {
+		AdmissionLimiter admissionLimiter = new AdmissionLimiter("read", 2, 2, 2, 2.0);
+
+		assertTrue(admissionLimiter.tryAcquire());
+		assertTrue(admissionLimiter.tryAcquire());
+		assertFalse(admissionLimiter.tryAcquire());
+		admissionLimiter.release(ENDPOINT, FAST);
+		assertTrue(admissionLimiter.tryAcquire());
+
+		assertEquals(1, admissionLimiter.getRejected());
+	}
+
+	@DisplayName("The limit shrinks when the requests get slower")
+	@Test
+	void givenSlowerRequests_whenRelease_thenTheLimitShrinks() {
+		AdmissionLimiter admissionLimiter = new AdmissionLimiter("read", 10, 2, 40, 2.0);
+
+		// Enough requests for the long-term latency to settle
+		for (int round = 0; round < 50; round++) {
+			admit(admissionLimiter, 10, FAST);
+		}
+		for (int round = 0; round < 50; round++) {
+			admit(admissionLimiter, admissionLimiter.getLimit(), SLOW);
+		}
+
+		assertEquals(2, admissionLimiter.getLimit());
+	}
+
+	@DisplayName("The limit grows while the requests stay fast and the limit is used")
+	@Test
+	void givenFastRequestsAtTheLimit_whenRelease_thenTheLimitGrows() {
+		AdmissionLimiter admissionLimiter = new AdmissionLimiter("read", 10, 2, 40, 2.0);
+
+		for (int round = 0; round < 50; round++) {
+			admit(admissionLimiter, admissionLimiter.getLimit(), FAST);
+		}
+
+		assertTrue(admissionLimiter.getLimit() > 10);
+	}
+
+	@DisplayName("Latencies spread around the same median don't shrink the limit, at the limit or below it")
+	@Test
+	void givenVaryingLatencies_whenRelease_thenTheLimitDoesNotShrink() {
+		for (double sigma : new double[] { 0.2, 0.3, 0.5 }) {
+			for (int inFlight : new int[] { 10, 4 }) {
+				AdmissionLimiter admissionLimiter = new AdmissionLimiter("read", 10, 2, 40, 2.0);
+				Random random = new Random(42);
+
+				for (int round = 0; round < 500; round++) {
+					int admitted = 0;
+					while (admitted < Math.min(inFlight, admissionLimiter.getLimit())
+							&& admissionLimiter.tryAcquire()) {
+						admitted++;
+					}
+					for (int i = 0; i < admitted; i++) {
+						// Log-normal around FAST, as the latencies of a database are
+						admissionLimiter.release(ENDPOINT, (long) (FAST * Math.exp(sigma * random.nextGaussian())));
+					}
+				}
+
+				assertTrue(admissionLimiter.getLimit() >= 10, "sigma " + sigma + ", " + inFlight + " in flight");
+			}
+		}
+	}
+
+	@DisplayName("A mix of requests served from memory, fast lookups and slow pages doesn't shrink the limit")
+	@Test
+	void givenABimodalMixOfEndpoints_whenRelease_thenTheLimitDoesNotCollapse() {
+		AdmissionLimiter admissionLimiter = new AdmissionLimiter("read", 10, 2, 40, 2.0);
+
+		for (int round = 0; round < 200; round++) {
+			int admitted = 0;
+			while (admitted < admissionLimiter.getLimit() && admissionLimiter.tryAcquire()) {
+				admitted++;
+			}
+			for (int i = 0; i < admitted; i++) {
+				switch (i % 3) {
+				case 0:
+					// Served by the cache, the database isn't reached
+					admissionLimiter.release(ENDPOINT, 0);
+					break;
+				case 1:
+					admissionLimiter.release(ENDPOINT, FAST);
+					break;
+				default:
+					admissionLimiter.release("PatientController#getPatients", SLOW);
+				}
+			}
+		}
+
+		assertTrue(admissionLimiter.getLimit() >= 10);
+	}
+
+	@DisplayName("The time spent in the database is measured between start and stop only")
+	@Test
+	void givenAMeasuredThread_whenAStatementIsExecuted_thenItsTimeIsMeasured() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement preparedStatement = mock(PreparedStatement.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement("SELECT 1")).thenReturn(preparedStatement);
+		when(preparedStatement.execute()).then(invocation -> {
+			Thread.sleep(5);
+			return true;
+		});
+		DatabaseTimingDataSource databaseTimingDataSource = new DatabaseTimingDataSource(dataSource);
+
+		databaseTimingDataSource.getConnection().prepareStatement("SELECT 1").execute();
+		DatabaseTimingDataSource.start();
+		assertEquals(0, DatabaseTimingDataSource.stop());
+		DatabaseTimingDataSource.start();
+		databaseTimingDataSource.getConnection().prepareStatement("SELECT 1").execute();
+
+		assertTrue(DatabaseTimingDataSource.stop() >= Duration.ofMillis(5).toNanos());
+		assertEquals(0, DatabaseTimingDataSource.stop());
+	}
+
+	@DisplayName("A request over the limit gets a 503 with Retry-After, the permit is released on completion")
+	@Test
+	void givenTheLimitReached_whenPreHandle_thenServiceOverloadedWithRetryAfter() throws Exception {
+		AdmissionLimiter readLimiter = new AdmissionLimiter("read", 2, 2, 2, 2.0);
+		AdmissionInterceptor admissionInterceptor = new AdmissionInterceptor(readLimiter,
+				new AdmissionLimiter("write", 2, 2, 2, 2.0), new AdmissionLimiter("bulk", 1, 1, 1, 2.0),
+				Duration.ofSeconds(3));
+		HandlerMethod handler = new HandlerMethod(new PatientController(), PatientController.class.getMethod("index"));
+		MockHttpServletRequest firstRequest = new MockHttpServletRequest("GET", "/");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		admissionInterceptor.preHandle(firstRequest, new MockHttpServletResponse(), handler);
+		admissionInterceptor.preHandle(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), handler);
+		assertThrows(ServiceOverloadedException.class,
+				() -> admissionInterceptor.preHandle(new MockHttpServletRequest("GET", "/"), response, handler));
+		assertEquals("3", response.getHeader("Retry-After"));
+
+		admissionInterceptor.afterCompletion(firstRequest, new MockHttpServletResponse(), handler, null);
+		assertEquals(1, readLimiter.getInFlight());
+	}
+
+	/**
+	 * Admit then release {@code count} requests at once, as concurrent requests
+	 * would.
+	 */
+	private static void admit(AdmissionLimiter admissionLimiter, int count, long latencyNanos) {
+		int admitted = 0;
+		for (int i = 0; i < count; i++) {
+			if (admissionLimiter.tryAcquire()) {
+				admitted++;
+			}
+		}
+		for (int i = 0; i < admitted; i++) {
+			admissionLimiter.release(ENDPOINT, latencyNanos);
+		}
+	}
+}
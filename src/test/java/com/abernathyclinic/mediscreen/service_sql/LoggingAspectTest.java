@@ -0,0 +1,123 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.abernathyclinic.mediscreen.service_sql.coalescing.PatientReadCoalescer;
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.exception.FieldsNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotFoundException;
+import com.abernathyclinic.mediscreen.service_sql.exception.PatientNotUniqueException;
+import com.abernathyclinic.mediscreen.service_sql.exception.SearchNotValidException;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoggingAspectTest {
+
+	private MeterRegistry meterRegistry;
+	private PatientRepository patientRepository;
+	private PatientController patientController;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		patientRepository = mock(PatientRepository.class);
+
+		PatientController target = new PatientController();
+		ReflectionTestUtils.setField(target, "patientRepository", patientRepository);
+		ReflectionTestUtils.setField(target, "patientCache", new PatientCache(false, 0, Duration.ZERO, Duration.ZERO));
+		ReflectionTestUtils.setField(target, "patientReadCoalescer",
+				new PatientReadCoalescer(patientRepository, true, 500, Duration.ofSeconds(2)));
+
+		AspectJProxyFactory aspectJProxyFactory = new AspectJProxyFactory(target);
+		aspectJProxyFactory.setProxyTargetClass(true);
+		aspectJProxyFactory.addAspect(new LoggingAspect(meterRegistry, true));
+		patientController = aspectJProxyFactory.getProxy();
+	}
+
+	private long count(String method, String outcome) {
+		Timer timer = meterRegistry.find(LoggingAspect.TIMER_NAME).tag("method", method).tag("outcome", outcome)
+				.timer();
+		return timer == null ? 0 : timer.count();
+	}
+
+	@DisplayName("A successful call is timed with the success outcome")
+	@Test
+	void givenASuccessfulCall_whenTheMethodEnds_thenItIsRecordedAsASuccess() {
+		when(patientRepository.findById(any(UUID.class))).thenReturn(Optional.of(new Patient()));
+
+		patientController.getPatientByUUID(UUID.randomUUID(), new ServletWebRequest(new MockHttpServletRequest()),
+				new MockHttpServletResponse());
+
+		assertEquals(1, count("getPatientByUUID", "success"));
+		assertEquals(0, count("getPatientByUUID", "not_found"));
+	}
+
+	@DisplayName("A call throwing a PatientNotFoundException is timed with the not_found outcome")
+	@Test
+	void givenACallOnAMissingPatient_whenTheMethodThrows_thenItIsRecordedAsNotFound() {
+		when(patientRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+		UUID uuid = UUID.randomUUID();
+
+		assertThrows(PatientNotFoundException.class, () -> patientController.getPatientByUUID(uuid,
+				new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse()));
+
+		assertEquals(0, count("getPatientByUUID", "success"));
+		assertEquals(1, count("getPatientByUUID", "not_found"));
+	}
+
+	@DisplayName("A call throwing a SearchNotValidException is timed with the validation_error outcome")
+	@Test
+	void givenABlankSuggestQuery_whenTheMethodThrows_thenItIsRecordedAsAValidationError() {
+		assertThrows(SearchNotValidException.class, () -> patientController.suggestPatients(" ", null));
+
+		assertEquals(0, count("suggestPatients", "error"));
+		assertEquals(1, count("suggestPatients", "validation_error"));
+	}
+
+	@DisplayName("A call throwing a FieldsNotValidException is timed with the validation_error outcome")
+	@Test
+	void givenAnUnknownField_whenTheMethodThrows_thenItIsRecordedAsAValidationError() {
+		assertThrows(FieldsNotValidException.class, () -> patientController.getPatients(null, null, "unknown"));
+
+		assertEquals(0, count("getPatients", "error"));
+		assertEquals(1, count("getPatients", "validation_error"));
+	}
+
+	@DisplayName("A call throwing a PatientNotUniqueException is timed with the conflict outcome")
+	@Test
+	void givenANameSharedByTwoPatients_whenTheMethodThrows_thenItIsRecordedAsAConflict() {
+		when(patientRepository.findByLastNameAndFirstName("lastName", "firstName")).thenReturn(List.of(
+				new Patient(UUID.randomUUID(), "lastName", "firstName", null, null, null, null, 0L),
+				new Patient(UUID.randomUUID(), "lastName", "firstName", null, null, null, null, 0L)));
+
+		assertThrows(PatientNotUniqueException.class, () -> patientController.getPatient("lastName", "firstName",
+				new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse()));
+
+		assertEquals(0, count("getPatient", "error"));
+		assertEquals(1, count("getPatient", "conflict"));
+	}
+
+}
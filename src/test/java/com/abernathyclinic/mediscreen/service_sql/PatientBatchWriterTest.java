@@ -0,0 +1,95 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchDeleteResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchResult;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientBatchResult.Status;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientBatchWriter;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+
+@DataJpaTest
+@Import({ PatientBatchWriter.class, PatientCache.class, ValidationAutoConfiguration.class })
+class PatientBatchWriterTest {
+
+	@Autowired
+	private PatientBatchWriter patientBatchWriter;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@DisplayName("Injected Components Are Rightly Setup")
+	@Test
+	void injectedComponentsAreRightlySetup() {
+		assertThat(patientBatchWriter).isNotNull();
+		assertThat(patientRepository).isNotNull();
+	}
+
+	@DisplayName("POST : /patient/batch")
+	@Test
+	void givenSavingSeveralPatients_whenWrite_thenTheValidOnesAreCreatedAndTheInvalidOnesAreReported() {
+		List<Patient> patients = List.of(
+				new Patient("lastNameBatch", "firstNameBatch", LocalDate.of(2000, 1, 1), "gender", "homeAddress",
+						"123.456.789"),
+				new Patient("lastNameBatch", null, LocalDate.of(2000, 1, 1), "gender", "homeAddress", "123.456.789"));
+
+		List<PatientBatchResult> results = patientBatchWriter.write(patients, false);
+
+		assertEquals(Status.CREATED, results.get(0).getStatus());
+		assertNotNull(results.get(0).getUuid());
+		assertEquals(Status.INVALID, results.get(1).getStatus());
+		assertEquals("The first name is mandatory", results.get(1).getMessage());
+		assertNull(results.get(1).getUuid());
+		assertThat(patientRepository.findById(results.get(0).getUuid())).isPresent();
+	}
+
+	@DisplayName("POST : /patient/batch?upsert=true")
+	@Test
+	void givenUpsertingAnExistingPatient_whenWrite_thenTheExistingPatientIsUpdated() {
+		List<Patient> patients = List.of(new Patient("lastName", "firstName", LocalDate.of(1970, 1, 1), "Ternary",
+				"homeAddress", "123.456.789"));
+
+		List<PatientBatchResult> results = patientBatchWriter.write(patients, true);
+
+		assertEquals(Status.UPDATED, results.get(0).getStatus());
+		assertEquals("b42a8ef5-8baa-4bc2-89aa-d18cdc3239f9", results.get(0).getUuid().toString());
+		assertEquals("Ternary", patientRepository.findById(results.get(0).getUuid()).get().getGender());
+	}
+
+	@DisplayName("DELETE : /patient")
+	@Test
+	void givenDeletingSeveralPatients_whenDelete_thenTheyAreDeletedChunkByChunk() {
+		ReflectionTestUtils.setField(patientBatchWriter, "chunkSize", 2);
+		List<UUID> uuids = new ArrayList<>();
+		for (int index = 0; index < 5; index++) {
+			uuids.add(patientRepository.save(new Patient("lastNamePurge", "firstNamePurge" + index,
+					LocalDate.of(2000, 1, 1), "gender", "homeAddress", "123.456.789")).getUuid());
+		}
+		uuids.add(uuids.get(0));
+		uuids.add(UUID.randomUUID());
+
+		PatientBatchDeleteResult result = patientBatchWriter.delete(uuids);
+
+		assertEquals(6, result.getRequested());
+		assertEquals(5, result.getDeleted());
+		assertThat(patientRepository.findAllById(uuids)).isEmpty();
+	}
+}
@@ -0,0 +1,94 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+
+class PatientCacheTest {
+
+	private final UUID uuid = UUID.randomUUID();
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private Optional<Patient> load(UUID uuid) {
+		loads.incrementAndGet();
+		return Optional.of(new Patient());
+	}
+
+	@DisplayName("A cached patient is not loaded twice")
+	@Test
+	void givenGettingThePatientTwice_whenGet_thenTheLoaderIsCalledOnce() {
+		PatientCache patientCache = new PatientCache(true, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		patientCache.get(uuid, this::load);
+		patientCache.get(uuid, this::load);
+
+		assertEquals(1, loads.get());
+		assertEquals(1, patientCache.stats().hitCount());
+		assertEquals(1, patientCache.stats().missCount());
+	}
+
+	@DisplayName("An invalidated patient is loaded again")
+	@Test
+	void givenInvalidatingThePatient_whenGet_thenTheLoaderIsCalledAgain() {
+		PatientCache patientCache = new PatientCache(true, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		patientCache.get(uuid, this::load);
+		patientCache.invalidate(uuid);
+		patientCache.get(uuid, this::load);
+
+		assertEquals(2, loads.get());
+	}
+
+	@DisplayName("Only the patients not cached are loaded by a lookup of several patients")
+	@Test
+	void givenGettingSeveralPatients_whenGetAll_thenOnlyTheMissingOnesAreLoaded() {
+		PatientCache patientCache = new PatientCache(true, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+		UUID otherUuid = UUID.randomUUID();
+		patientCache.get(uuid, this::load);
+
+		Map<UUID, Patient> patients = patientCache.getAll(List.of(uuid, otherUuid), missing -> {
+			assertEquals(List.of(otherUuid), new ArrayList<>(missing));
+			return Map.of(otherUuid, new Patient());
+		});
+
+		assertEquals(Set.of(uuid, otherUuid), patients.keySet());
+		assertTrue(patientCache.getIfPresent(otherUuid).isPresent());
+	}
+
+	@DisplayName("A patient not found is not cached")
+	@Test
+	void givenGettingAPatientNotFound_whenGet_thenTheAbsenceIsNotCached() {
+		PatientCache patientCache = new PatientCache(true, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		assertFalse(patientCache.get(uuid, key -> Optional.empty()).isPresent());
+		assertTrue(patientCache.get(uuid, this::load).isPresent());
+	}
+
+	@DisplayName("A disabled cache always calls the loader")
+	@Test
+	void givenADisabledCache_whenGet_thenTheLoaderIsAlwaysCalled() {
+		PatientCache patientCache = new PatientCache(false, 10, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+		patientCache.get(uuid, this::load);
+		patientCache.get(uuid, this::load);
+
+		assertFalse(patientCache.isEnabled());
+		assertEquals(2, loads.get());
+	}
+
+}
@@ -0,0 +1,188 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChangePage;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientChangeRepository;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientChangeFeed;
+
+@DataJpaTest
+@Import(PatientChangeFeed.class)
+@TestPropertySource(properties = "patient.changes.settle-time=PT0S")
+// The changes are only written when the transaction of the write commits
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientChangeFeedTest {
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private PatientChangeRepository patientChangeRepository;
+
+	@Autowired
+	private PatientChangeFeed patientChangeFeed;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private long since;
+
+	@BeforeEach
+	void setUp() {
+		since = patientChangeFeed.read(null, 100).getCursor();
+	}
+
+	@DisplayName("Every write of a patient appends a change, in order")
+	@Test
+	void givenWritingAPatient_whenReadingTheFeed_thenEveryWriteIsAChange() {
+		Patient patient = patientRepository.save(new Patient("lastNameFeed", "firstNameFeed",
+				LocalDate.of(2000, 1, 1), "genderFeed", "homeAddressFeed", "123.456.789"));
+		Patient patientToUpdate = patientRepository.findById(patient.getUuid()).get();
+		patientToUpdate.setHomeAddress("otherAddressFeed");
+		patientRepository.save(patientToUpdate);
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setPhoneNumber("987.654.321");
+		patientRepository.patch(patient.getUuid(), patientPatch);
+		patientRepository.deleteByUuid(patient.getUuid());
+
+		PatientChangePage page = patientChangeFeed.read(since, 100);
+
+		assertEquals(List.of(PatientChange.Type.CREATED, PatientChange.Type.UPDATED, PatientChange.Type.UPDATED,
+				PatientChange.Type.DELETED), types(page.getChanges(), patient.getUuid()));
+		assertTrue(page.getChanges().stream().allMatch(change -> change.getPatient() == null));
+		assertEquals(page.getChanges().get(page.getChanges().size() - 1).getId(), page.getCursor());
+		assertFalse(page.isHasNext());
+	}
+
+	@DisplayName("The changes carry the current state of their patient")
+	@Test
+	void givenAPatientUpdated_whenReadingTheFeed_thenTheChangesCarryTheCurrentPatient() {
+		Patient patient = patientRepository.save(new Patient("lastNameState", "firstNameState",
+				LocalDate.of(2000, 1, 1), "genderState", "homeAddressState", "123.456.789"));
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setLastName("lastNamePatched");
+		patientRepository.patch(patient.getUuid(), patientPatch);
+
+		PatientChangePage page = patientChangeFeed.read(since, 100);
+
+		assertEquals(2, page.getChanges().size());
+		assertTrue(page.getChanges().stream()
+				.allMatch(change -> "lastNamePatched".equals(change.getPatient().getLastName())));
+		patientRepository.deleteByUuid(patient.getUuid());
+	}
+
+	@DisplayName("A delete of several patients records the ones deleted only")
+	@Test
+	void givenDeletingPatientsAndAMissingOne_whenDeleteByUuidIn_thenOnlyThePatientsDeletedAreRecorded() {
+		List<Patient> patients = patientRepository.saveAll(List.of(
+				new Patient("lastNameIn", "firstNameIn", LocalDate.of(2000, 1, 1), "gender", null, null),
+				new Patient("lastNameIn", "secondNameIn", LocalDate.of(2000, 1, 1), "gender", null, null)));
+		since = patientChangeFeed.read(null, 100).getCursor();
+		UUID missingUUID = UUID.randomUUID();
+
+		assertEquals(2, patientRepository
+				.deleteByUuidIn(List.of(patients.get(0).getUuid(), missingUUID, patients.get(1).getUuid())));
+
+		List<PatientChange> changes = patientChangeFeed.read(since, 100).getChanges();
+		assertEquals(2, changes.size());
+		assertEquals(Set.of(patients.get(0).getUuid(), patients.get(1).getUuid()),
+				changes.stream().map(PatientChange::getUuid).collect(Collectors.toSet()));
+		assertTrue(changes.stream().allMatch(change -> change.getType() == PatientChange.Type.DELETED));
+	}
+
+	@DisplayName("A write rolled back records nothing")
+	@Test
+	void givenAWriteRolledBack_whenReadingTheFeed_thenNoChangeIsRecorded() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			patientRepository.save(new Patient("lastNameRollback", "firstNameRollback", LocalDate.of(2000, 1, 1),
+					"gender", null, null));
+			patientRepository.flush();
+			status.setRollbackOnly();
+		});
+
+		PatientChangePage page = patientChangeFeed.read(since, 100);
+
+		assertTrue(page.getChanges().isEmpty());
+		assertEquals(since, page.getCursor());
+	}
+
+	@DisplayName("The feed is read page by page from the cursor")
+	@Test
+	void givenMoreChangesThanTheLimit_whenReadingTheFeed_thenTheNextPageStartsAtTheCursor() {
+		List<Patient> patients = patientRepository.saveAll(List.of(
+				new Patient("lastNamePage", "firstNamePage", LocalDate.of(2000, 1, 1), "gender", null, null),
+				new Patient("lastNamePage", "secondNamePage", LocalDate.of(2000, 1, 1), "gender", null, null),
+				new Patient("lastNamePage", "thirdNamePage", LocalDate.of(2000, 1, 1), "gender", null, null)));
+
+		PatientChangePage firstPage = patientChangeFeed.read(since, 2);
+		PatientChangePage secondPage = patientChangeFeed.read(firstPage.getCursor(), 2);
+
+		assertEquals(2, firstPage.getChanges().size());
+		assertTrue(firstPage.isHasNext());
+		assertEquals(1, secondPage.getChanges().size());
+		assertFalse(secondPage.isHasNext());
+		assertTrue(secondPage.getChanges().get(0).getId() > firstPage.getCursor());
+		assertTrue(patientChangeFeed.read(secondPage.getCursor(), 2).getChanges().isEmpty());
+		patientRepository.deleteByUuidIn(patients.stream().map(Patient::getUuid).collect(Collectors.toList()));
+	}
+
+	@DisplayName("A change recorded less than the settle time ago by the clock of the database isn't served")
+	@Test
+	void givenAChangeJustRecorded_whenReadingTheSettledChanges_thenItIsOnlyServedOnceSettled() {
+		Patient patient = patientRepository.save(new Patient("lastNameSettle", "firstNameSettle",
+				LocalDate.of(2000, 1, 1), "gender", null, null));
+
+		assertTrue(patientChangeRepository.findSettledAfter(since, 60000, PageRequest.of(0, 100)).isEmpty());
+		assertTrue(patientChangeRepository.findLastSettled(60000).map(PatientChange::getId).orElse(0L) <= since);
+		assertEquals(List.of(PatientChange.Type.CREATED),
+				types(patientChangeRepository.findSettledAfter(since, 0, PageRequest.of(0, 100)), patient.getUuid()));
+		patientRepository.deleteByUuid(patient.getUuid());
+	}
+
+	@DisplayName("The time of a change is the instant it was recorded, whatever the time zone")
+	@Test
+	void givenAChangeRecorded_whenReadingIt_thenItsTimeIsTheInstantItWasRecorded() {
+		Instant before = Instant.now();
+		Patient patient = patientRepository.save(new Patient("lastNameInstant", "firstNameInstant",
+				LocalDate.of(2000, 1, 1), "gender", null, null));
+		Instant after = Instant.now();
+
+		Instant changedAt = patientChangeRepository.findSettledAfter(since, 0, PageRequest.of(0, 100)).stream()
+				.filter(change -> patient.getUuid().equals(change.getUuid())).findFirst().get().getChangedAt();
+		assertFalse(changedAt.isBefore(before.truncatedTo(ChronoUnit.MILLIS)));
+		assertFalse(changedAt.isAfter(after));
+		patientRepository.deleteByUuid(patient.getUuid());
+	}
+
+	private static List<PatientChange.Type> types(List<PatientChange> changes, UUID uuid) {
+		return changes.stream().filter(change -> uuid.equals(change.getUuid())).map(PatientChange::getType)
+				.collect(Collectors.toList());
+	}
+}
@@ -3,19 +3,31 @@ package com.abernathyclinic.mediscreen.service_sql;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
@@ -23,16 +35,37 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import com.abernathyclinic.mediscreen.service_sql.coalescing.PatientReadCoalescer;
 import com.abernathyclinic.mediscreen.service_sql.controller.PatientController;
+import com.abernathyclinic.mediscreen.service_sql.encoding.BinaryEncodingConfiguration;
 import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChangePage;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientVersion;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken;
 import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientCache;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientChangeFeed;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientLookup;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientNameIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 
 @WebMvcTest(PatientController.class)
+@Import({ PatientCache.class, PatientLookup.class, PatientNameIndex.class, PatientReadCoalescer.class,
+		BinaryEncodingConfiguration.class })
 class PatientControllerTest {
 
 	@Autowired
@@ -41,6 +74,12 @@ class PatientControllerTest {
 	@MockBean
 	private PatientRepository patientRepository;
 
+	@MockBean
+	private PatientChangeFeed patientChangeFeed;
+
+	@Autowired
+	private PatientNameIndex patientNameIndex;
+
 	@DisplayName("Injected Components Are Rightly Setup")
 	@Test
 	void injectedComponentsAreRightlySetup() {
@@ -74,6 +113,66 @@ class PatientControllerTest {
 		verify(patientRepository, times(1)).findById(any(UUID.class));
 	}
 
+	@DisplayName("GET : /patient/{UUID} as CBOR")
+	@Test
+	void givenGettingASpecificPatientAsCBOR_whenGetPatientByUUID_thenThePatientIsEncodedInCBOR() throws Exception {
+		// ARRANGE
+		when(patientRepository.findById(any(UUID.class))).thenReturn(Optional.of(new Patient("lastName",
+				"firstName", LocalDate.of(2000, 1, 1), "gender", "homeAddress", "123.456.789")));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/" + UUID.randomUUID()).accept(MediaType.APPLICATION_CBOR))
+				.andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		assertEquals(MediaType.APPLICATION_CBOR_VALUE, mvcResult.getResponse().getContentType());
+		assertEquals("\"0+cbor\"", mvcResult.getResponse().getHeader("ETag"));
+		assertEquals("Accept", mvcResult.getResponse().getHeader("Vary"));
+		JsonNode patient = new ObjectMapper(new CBORFactory())
+				.readTree(mvcResult.getResponse().getContentAsByteArray());
+		assertEquals("lastName", patient.get("lastName").asText());
+		assertEquals("2000-01-01", patient.get("dateOfBirth").asText());
+	}
+
+	@DisplayName("GET : /patient/{UUID} as CBOR with the ETag of the JSON representation in If-None-Match")
+	@Test
+	void givenGettingAnUnchangedPatientAsCBORWithTheJSONETag_whenGetPatientByUUID_thenItReturnThePatient()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findVersionByUuid(randomUUID)).thenReturn(Optional.of(0L));
+		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(new Patient()));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(
+				get("/patient/" + randomUUID).header("If-None-Match", "\"0\"").accept(MediaType.APPLICATION_CBOR))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		assertEquals("\"0+cbor\"", response.getHeader("ETag"));
+	}
+
+	@DisplayName("GET : /patient/{UUID} twice")
+	@Test
+	void givenGettingTheSamePatientTwice_whenGetPatientByUUID_thenTheSecondCallIsServedByTheCache() throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(new Patient()));
+
+		// ACT
+		mockMvc.perform(get("/patient/" + randomUUID)).andDo(print());
+		MvcResult mvcResult = mockMvc.perform(get("/patient/" + randomUUID)).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		verify(patientRepository, times(1)).findById(randomUUID);
+	}
+
 	@DisplayName("GET : /patient/{UUID} but it throw an exception because the patient is not present in the database")
 	@Test
 	void givenGettingASpecificPatientUsingTheUUIDButWhoDoesntExist_whenGetPatientByUUID_thenItThrowAPatientNotFoundExceptionWithACorrectHTTPStatusCode()
@@ -92,7 +191,7 @@ class PatientControllerTest {
 	void givenGettingASpecificPatient_whenGetPatient_thenItReturnTheRightPatientFromTheDataBase() throws Exception {
 		// ARRANGE
 		when(patientRepository.findByLastNameAndFirstName(any(String.class), any(String.class)))
-				.thenReturn(Optional.of(new Patient()));
+				.thenReturn(List.of(new Patient()));
 
 		// ACT
 		MvcResult mvcResult = mockMvc.perform(get("/patient/lastName&firstName?lastName=lastName&firstName=firstName"))
@@ -117,11 +216,114 @@ class PatientControllerTest {
 		assertEquals(404, status);
 	}
 
+	@DisplayName("GET : /patient/lastName&firstName but it throw an exception because several patients share the name")
+	@Test
+	void givenGettingAPatientWhoseNameIsShared_whenGetPatient_thenItThrowAPatientNotUniqueExceptionListingTheirUUIDs()
+			throws Exception {
+		// ARRANGE
+		UUID firstUUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+		UUID secondUUID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+		when(patientRepository.findByLastNameAndFirstName("Dupont", "Jean")).thenReturn(List.of(
+				new Patient(secondUUID, "Dupont", "Jean", LocalDate.of(1980, 1, 1), "M", null, null, 0),
+				new Patient(firstUUID, "Dupont", "Jean", LocalDate.of(1990, 1, 1), "M", null, null, 0)));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/lastName&firstName?lastName=Dupont&firstName=Jean"))
+				.andDo(print()).andReturn();
+
+		// ASSERT
+		assertEquals(409, mvcResult.getResponse().getStatus());
+		assertTrue(mvcResult.getResolvedException().getMessage().endsWith(firstUUID + ", " + secondUUID + "."));
+	}
+
+	@DisplayName("GET : /patient/{UUID} returns the version of the patient as ETag")
+	@Test
+	void givenGettingASpecificPatientUsingTheUUID_whenGetPatientByUUID_thenTheVersionIsReturnedAsETag()
+			throws Exception {
+		// ARRANGE
+		when(patientRepository.findById(any(UUID.class))).thenReturn(Optional.of(new Patient()));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/" + UUID.randomUUID())).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		assertEquals("\"0\"", response.getHeader("ETag"));
+	}
+
+	@DisplayName("GET : /patient/{UUID} with the current ETag in If-None-Match")
+	@Test
+	void givenGettingAnUnchangedPatientUsingTheUUID_whenGetPatientByUUID_thenItReturnNotModifiedWithoutLoadingThePatient()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findVersionByUuid(randomUUID)).thenReturn(Optional.of(3L));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/" + randomUUID).header("If-None-Match", "\"3\""))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(304, response.getStatus());
+		assertEquals("", response.getContentAsString());
+		verify(patientRepository, times(0)).findById(randomUUID);
+	}
+
+	@DisplayName("GET : /patient/{UUID} with an outdated ETag in If-None-Match")
+	@Test
+	void givenGettingAModifiedPatientUsingTheUUID_whenGetPatientByUUID_thenItReturnThePatient() throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findVersionByUuid(randomUUID)).thenReturn(Optional.of(0L));
+		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(new Patient()));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/" + randomUUID).header("If-None-Match", "\"3\""))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		assertEquals("\"0\"", response.getHeader("ETag"));
+		verify(patientRepository, times(1)).findById(randomUUID);
+	}
+
+	@DisplayName("GET : /patient/lastName&firstName with the current ETag in If-None-Match")
+	@Test
+	void givenGettingAnUnchangedPatient_whenGetPatient_thenItReturnNotModifiedWithoutLoadingThePatient()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findVersionByLastNameAndFirstName("lastName", "firstName"))
+				.thenReturn(List.of(new PatientVersion() {
+					@Override
+					public UUID getUuid() {
+						return randomUUID;
+					}
+
+					@Override
+					public long getVersion() {
+						return 2;
+					}
+				}));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/lastName&firstName?lastName=lastName&firstName=firstName")
+				.header("If-None-Match", "\"" + randomUUID + ".2\"")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(304, response.getStatus());
+		verify(patientRepository, times(0)).findByLastNameAndFirstName(any(String.class), any(String.class));
+	}
+
 	@DisplayName("GET : /patient")
 	@Test
 	void givenGettingAllPatients_whenGetPatients_thenItReturnAllThePatientsFromTheDatabase() throws Exception {
 		// ARRANGE
-		when(patientRepository.findAll()).thenReturn(new ArrayList<Patient>());
+		when(patientRepository.findAllByOrderByUuidAsc(any(Pageable.class))).thenReturn(new ArrayList<Patient>());
 
 		// ACT
 		MvcResult mvcResult = mockMvc.perform(get("/patient")).andDo(print()).andReturn();
@@ -129,19 +331,340 @@ class PatientControllerTest {
 
 		// ASSERT
 		assertEquals(200, status);
+		verify(patientRepository, times(1)).findAllByOrderByUuidAsc(PageRequest.of(0, 21));
+	}
+
+	@DisplayName("POST : /patient/lookup")
+	@Test
+	void givenLookingUpSeveralPatients_whenLookupPatients_thenTheCachedOnesAreNotReadAgain() throws Exception {
+		// ARRANGE
+		UUID cachedUUID = UUID.randomUUID();
+		UUID storedUUID = UUID.randomUUID();
+		UUID missingUUID = UUID.randomUUID();
+		Patient cachedPatient = new Patient(cachedUUID, "cached", "patient", LocalDate.of(2000, 1, 1), "gender",
+				null, null, 0);
+		Patient storedPatient = new Patient(storedUUID, "stored", "patient", LocalDate.of(2000, 1, 1), "gender",
+				null, null, 0);
+		when(patientRepository.findById(cachedUUID)).thenReturn(Optional.of(cachedPatient));
+		when(patientRepository.findAllById(any())).thenReturn(List.of(storedPatient));
+		mockMvc.perform(get("/patient/" + cachedUUID));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(post("/patient/lookup").contentType(MediaType.APPLICATION_JSON)
+				.content("[\"" + storedUUID + "\",\"" + cachedUUID + "\",\"" + missingUUID + "\",\"" + storedUUID
+						+ "\"]"))
+				.andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		assertThat(mvcResult.getResponse().getContentAsString()).matches(".*\"uuid\":\"" + storedUUID
+				+ "\".*\"uuid\":\"" + cachedUUID + "\".*\"missing\":\\[\"" + missingUUID + "\"\\]}");
+		verify(patientRepository, times(1))
+				.findAllById(argThat(uuids -> List.of(storedUUID, missingUUID).equals(uuids)));
+	}
+
+	@DisplayName("POST : /patient/lookup with too many UUIDs")
+	@Test
+	void givenLookingUpTooManyPatients_whenLookupPatients_thenItThrowABodyNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ARRANGE
+		StringBuilder uuids = new StringBuilder("[");
+		for (int index = 0; index <= 1000; index++) {
+			uuids.append(index == 0 ? "" : ",").append('"').append(UUID.randomUUID()).append('"');
+		}
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(post("/patient/lookup").contentType(MediaType.APPLICATION_JSON)
+				.content(uuids.append(']').toString())).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).findAllById(any());
+	}
+
+	@DisplayName("POST : /patient/lookup with a null UUID")
+	@Test
+	void givenLookingUpANullUuid_whenLookupPatients_thenItThrowABodyNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ARRANGE
+		String uuids = "[\"" + UUID.randomUUID() + "\", null]";
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(post("/patient/lookup").contentType(MediaType.APPLICATION_JSON)
+				.content(uuids)).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).findAllById(any());
+	}
+
+	@DisplayName("GET : /patient/changes with a cursor and a limit over the maximum")
+	@Test
+	void givenFollowingTheChangesFromACursor_whenGetPatientChanges_thenTheLimitIsCapped() throws Exception {
+		// ARRANGE
+		UUID uuid = UUID.randomUUID();
+		PatientChange change = new PatientChange(43, uuid, PatientChange.Type.DELETED, Instant.now());
+		when(patientChangeFeed.read(42L, 1000)).thenReturn(new PatientChangePage(List.of(change), 43, true));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/changes?since=42&limit=5000")).andDo(print())
+				.andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		assertThat(mvcResult.getResponse().getContentAsString()).contains("\"uuid\":\"" + uuid + "\"")
+				.contains("\"type\":\"DELETED\"").contains("\"cursor\":43").contains("\"hasNext\":true");
+		verify(patientChangeFeed, times(1)).read(42L, 1000);
+	}
+
+	@DisplayName("GET : /patient/changes but the cursor is negative")
+	@Test
+	void givenFollowingTheChangesFromANegativeCursor_whenGetPatientChanges_thenItThrowAPaginationNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/changes?since=-1")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientChangeFeed, times(0)).read(any(), anyInt());
+	}
+
+	@DisplayName("GET : /patient with a page token")
+	@Test
+	void givenGettingTheNextPageOfPatients_whenGetPatients_thenItSeeksAfterTheUUIDOfTheToken() throws Exception {
+		// ARRANGE
+		UUID lastUUID = UUID.randomUUID();
+		when(patientRepository.findByUuidGreaterThanOrderByUuidAsc(any(UUID.class), any(Pageable.class)))
+				.thenReturn(new ArrayList<Patient>());
+
+		// ACT
+		MvcResult mvcResult = mockMvc
+				.perform(get("/patient?size=1000&pageToken=" + ContinuationToken.encode(lastUUID))).andDo(print())
+				.andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		verify(patientRepository, times(1)).findByUuidGreaterThanOrderByUuidAsc(lastUUID, PageRequest.of(0, 101));
+	}
+
+	@DisplayName("GET : /patient with fields")
+	@Test
+	void givenGettingSomeFieldsOfThePatients_whenGetPatients_thenOnlyTheseFieldsAreRead() throws Exception {
+		// ARRANGE
+		UUID uuid = UUID.randomUUID();
+		Map<String, Object> row = new LinkedHashMap<>();
+		row.put("uuid", uuid);
+		row.put("lastName", "lastName");
+		when(patientRepository.findFields(any(), any(), any(), anyLong(), anyInt())).thenReturn(List.of(row, row));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient?size=1&fields=lastName")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		assertEquals("{\"patients\":[{\"uuid\":\"" + uuid + "\",\"lastName\":\"lastName\"}],\"nextPageToken\":\""
+				+ ContinuationToken.encode(uuid) + "\"}", mvcResult.getResponse().getContentAsString());
+		verify(patientRepository, times(1)).findFields(any(), eq(Set.of("uuid", "lastName")), eq(Sort.by("uuid")),
+				eq(0L), eq(2));
+		verify(patientRepository, times(0)).findAllByOrderByUuidAsc(any(Pageable.class));
+	}
+
+	@DisplayName("GET : /patient with a field unknown")
+	@Test
+	void givenGettingAnUnknownFieldOfThePatients_whenGetPatients_thenItThrowAFieldsNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient?fields=lastName,password")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).findFields(any(), any(), any(), anyLong(), anyInt());
+	}
+
+	@DisplayName("GET : /patient but the page token is not valid")
+	@Test
+	void givenGettingAPageOfPatientsWithAnAlteredToken_whenGetPatients_thenItThrowAPaginationNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient?pageToken=altered")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+	}
+
+	@DisplayName("GET : /patient/dateOfBirth with an age range and a gender")
+	@Test
+	void givenGettingPatientsByAge_whenGetPatientsByDateOfBirth_thenTheAgesAreSearchedAsDatesOfBirth()
+			throws Exception {
+		// ARRANGE
+		LocalDate today = LocalDate.now();
+		when(patientRepository.searchByDateOfBirth(any(), any(), any(), any(), anyInt()))
+				.thenReturn(new ArrayList<Patient>());
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/dateOfBirth?minAge=30&maxAge=40&gender=F"))
+				.andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		verify(patientRepository, times(1)).searchByDateOfBirth(today.minusYears(41).plusDays(1),
+				today.minusYears(30), "F", null, 21);
+	}
+
+	@DisplayName("GET : /patient/dateOfBirth with a page token")
+	@Test
+	void givenGettingTheNextPageOfPatientsByDateOfBirth_whenGetPatientsByDateOfBirth_thenItSeeksAfterTheKeyOfTheToken()
+			throws Exception {
+		// ARRANGE
+		UUID lastUUID = UUID.randomUUID();
+		LocalDate bornFrom = LocalDate.of(1950, 1, 1);
+		LocalDate bornTo = LocalDate.of(1960, 12, 31);
+		when(patientRepository.searchByDateOfBirth(any(), any(), any(), any(), anyInt()))
+				.thenReturn(new ArrayList<Patient>());
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/dateOfBirth?bornFrom=1950-01-01&bornTo=1960-12-31&pageToken="
+				+ ContinuationToken.encode(LocalDate.of(1955, 6, 1), lastUUID))).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		verify(patientRepository, times(1)).searchByDateOfBirth(eq(bornFrom), eq(bornTo), isNull(),
+				argThat(after -> after.getDateOfBirth().equals(LocalDate.of(1955, 6, 1))
+						&& after.getUuid().equals(lastUUID)),
+				eq(21));
+	}
+
+	@DisplayName("GET : /patient/dateOfBirth but no bound of the range is provided")
+	@Test
+	void givenGettingPatientsByGenderOnly_whenGetPatientsByDateOfBirth_thenItThrowASearchNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/dateOfBirth?gender=F")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).searchByDateOfBirth(any(), any(), any(), any(), anyInt());
+	}
+
+	@DisplayName("GET : /patient/search with a name prefix, a gender and a sort")
+	@Test
+	void givenSearchingPatientsByNamePrefix_whenSearchPatients_thenThePageRequestedIsSearched() throws Exception {
+		// ARRANGE
+		when(patientRepository.search(any(), any(Pageable.class)))
+				.thenReturn(new SliceImpl<Patient>(new ArrayList<Patient>()));
+
+		// ACT
+		MvcResult mvcResult = mockMvc
+				.perform(get("/patient/search?lastName=Dup&gender=F&page=2&size=10&sort=dateOfBirth,desc"))
+				.andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(200, status);
+		verify(patientRepository, times(1)).search(any(),
+				eq(PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "dateOfBirth"))));
+	}
+
+	@DisplayName("GET : /patient/search but no criterion is indexed")
+	@Test
+	void givenSearchingPatientsByGenderOnly_whenSearchPatients_thenItThrowASearchNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/search?gender=F&lastName=D")).andDo(print())
+				.andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).search(any(), any(Pageable.class));
+	}
+
+	@DisplayName("GET : /patient/search but the sort isn't allowed")
+	@Test
+	void givenSearchingPatientsSortedByAddress_whenSearchPatients_thenItThrowASearchNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/search?lastName=Dup&sort=homeAddress")).andDo(print())
+				.andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).search(any(), any(Pageable.class));
+	}
+
+	@DisplayName("GET : /patient?unpaged=true but the unpaged listing is disabled")
+	@Test
+	void givenGettingAllPatientsUnpaged_whenGetAllPatients_thenItThrowAPaginationNotValidExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient?unpaged=true")).andDo(print()).andReturn();
+		int status = mvcResult.getResponse().getStatus();
+
+		// ASSERT
+		assertEquals(400, status);
+		verify(patientRepository, times(0)).findAll();
+	}
+
+	@DisplayName("GET : /patient/suggest")
+	@Test
+	void givenTypingTheStartOfAName_whenSuggestPatients_thenTheIndexedPatientIsSuggestedUntilDeleted()
+			throws Exception {
+		// ARRANGE
+		UUID uuid = UUID.randomUUID();
+		patientNameIndex.put(uuid, "Suggested", "Patient", LocalDate.of(2000, 1, 1));
+		when(patientRepository.deleteByUuid(uuid)).thenReturn(1);
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/suggest").param("q", "sugg pat")).andDo(print())
+				.andReturn();
+		mockMvc.perform(delete("/patient/" + uuid)).andDo(print());
+		MvcResult mvcResultAfterDelete = mockMvc.perform(get("/patient/suggest").param("q", "sugg pat"))
+				.andDo(print()).andReturn();
+
+		// ASSERT
+		assertEquals(200, mvcResult.getResponse().getStatus());
+		JsonNode suggestions = new ObjectMapper().readTree(mvcResult.getResponse().getContentAsString());
+		assertEquals(1, suggestions.size());
+		assertEquals(uuid.toString(), suggestions.get(0).get("uuid").asText());
+		assertEquals("2000-01-01", suggestions.get(0).get("dateOfBirth").asText());
+		assertEquals("[]", mvcResultAfterDelete.getResponse().getContentAsString());
+	}
+
+	@DisplayName("GET : /patient/suggest but the query is blank")
+	@Test
+	void givenABlankQuery_whenSuggestPatients_thenItReturnsABadRequest() throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/suggest").param("q", " ")).andDo(print())
+				.andReturn();
+
+		// ASSERT
+		assertEquals(400, mvcResult.getResponse().getStatus());
 	}
 
 	@DisplayName("POST : /patient")
 	@Test
 	void givenSavingAPatient_whenSavePatient_thenItSaveThePatientInTheDataBase() throws Exception {
 		// ARRANGE
-		Patient patientToSave = new Patient("lastName", "firstName", "dateOfBirth", "gender", "homeAddress",
-				"phoneNumber");
+		Patient patientToSave = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
 		when(patientRepository.save(patientToSave)).thenReturn(patientToSave);
 
 		// ACT
 		MvcResult mvcResult = mockMvc.perform(post("/patient").contentType(MediaType.APPLICATION_JSON).content(
-				"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"dateOfBirth\",\"gender\": \"gender\"}"))
+				"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
 				.andDo(print()).andReturn();
 		MockHttpServletResponse response = mvcResult.getResponse();
 
@@ -155,14 +678,14 @@ class PatientControllerTest {
 	void givenSavingAPatientWithAMissingField_whenSavePatient_thenItDoesNotSaveThePatientInTheDataBase()
 			throws Exception {
 		// ARRANGE
-		Patient patientToSave = new Patient("lastName", "firstName", "dateOfBirth", "gender", "homeAddress",
-				"phoneNumber");
+		Patient patientToSave = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
 		when(patientRepository.save(patientToSave)).thenReturn(patientToSave);
 
 		// ACT
 		MvcResult mvcResult = mockMvc
 				.perform(post("/patient").contentType(MediaType.APPLICATION_JSON).content(
-						"{\"lastName\": \"lastName\",\"dateOfBirth\": \"dateOfBirth\",\"gender\": \"gender\"}"))
+						"{\"lastName\": \"lastName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
 				.andDo(print()).andReturn();
 		MockHttpServletResponse response = mvcResult.getResponse();
 
@@ -175,8 +698,8 @@ class PatientControllerTest {
 	@Test
 	void givenUpdatingAPatient_whenUpdatePatient_thenItUpdateThePatientInTheDataBase() throws Exception {
 		// ARRANGE
-		Patient patientToUpdate = new Patient("lastName", "firstName", "dateOfBirth", "gender", "homeAddress",
-				"phoneNumber");
+		Patient patientToUpdate = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
 		UUID randomUUID = UUID.randomUUID();
 		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(patientToUpdate));
 		when(patientRepository.save(patientToUpdate)).thenReturn(patientToUpdate);
@@ -184,7 +707,7 @@ class PatientControllerTest {
 		// ACT
 		MvcResult mvcResult = mockMvc
 				.perform(put("/patient/" + randomUUID).contentType(MediaType.APPLICATION_JSON).content(
-						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"dateOfBirth\",\"gender\": \"gender\"}"))
+						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
 				.andDo(print()).andReturn();
 		MockHttpServletResponse response = mvcResult.getResponse();
 
@@ -214,8 +737,8 @@ class PatientControllerTest {
 	void givenUpdatingAPatientWithAMissingField_whenUpdatePatient_thenItDoesNotUpdateThePatientInTheDataBase()
 			throws Exception {
 		// ARRANGE
-		Patient patientToUpdate = new Patient("lastName", "firstName", "dateOfBirth", "gender", "homeAddress",
-				"phoneNumber");
+		Patient patientToUpdate = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
 		UUID randomUUID = UUID.randomUUID();
 		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(patientToUpdate));
 		when(patientRepository.save(patientToUpdate)).thenReturn(patientToUpdate);
@@ -232,15 +755,166 @@ class PatientControllerTest {
 		verify(patientRepository, times(0)).save(patientToUpdate);
 	}
 
+	@DisplayName("PUT : /patient/{uuid} but the patient has been modified since the version provided")
+	@Test
+	void givenUpdatingAPatientWithAnOutdatedVersion_whenUpdatePatient_thenItThrowAPatientVersionConflictException()
+			throws Exception {
+		// ARRANGE
+		Patient patientToUpdate = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(patientToUpdate));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(put("/patient/" + randomUUID).header("If-Match", "\"3\"")
+				.contentType(MediaType.APPLICATION_JSON).content(
+						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(409, response.getStatus());
+		verify(patientRepository, times(0)).save(patientToUpdate);
+	}
+
+	@DisplayName("PATCH : /patient/{uuid}")
+	@Test
+	void givenPatchingAPatient_whenPatchPatient_thenOnlyTheProvidedFieldsAreUpdatedWithoutReadingThePatient()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.patch(eq(randomUUID), any(PatientPatch.class))).thenReturn(1);
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + randomUUID).header("If-Match", "W/\"2\"")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"phoneNumber\": \"111.111.111\"}"))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		assertEquals("Patient successfully updated", response.getContentAsString());
+		verify(patientRepository, times(1)).patch(eq(randomUUID), argThat(patientPatch -> patientPatch
+				.getVersion() == 2L && "111.111.111".equals(patientPatch.getPhoneNumber())
+				&& patientPatch.getLastName() == null));
+		verify(patientRepository, times(0)).findById(randomUUID);
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} but the patient has been modified since the version provided")
+	@Test
+	void givenPatchingAPatientWithAnOutdatedVersion_whenPatchPatient_thenItThrowAPatientVersionConflictException()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.patch(eq(randomUUID), any(PatientPatch.class))).thenReturn(0);
+		when(patientRepository.existsById(randomUUID)).thenReturn(true);
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + randomUUID).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"gender\": \"Ternary\", \"version\": 1}")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(409, response.getStatus());
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} with the ETag of the patient retrieved by name")
+	@Test
+	void givenPatchingAPatientWithTheETagOfItsName_whenPatchPatient_thenTheVersionOfTheTagIsChecked()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.patch(eq(randomUUID), any(PatientPatch.class))).thenReturn(1);
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + randomUUID)
+				.header("If-Match", "\"" + randomUUID + ".4\"").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"phoneNumber\": \"111.111.111\"}")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		verify(patientRepository, times(1)).patch(eq(randomUUID),
+				argThat(patientPatch -> patientPatch.getVersion() == 4L));
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} with the ETag of another patient retrieved by name")
+	@Test
+	void givenPatchingAPatientWithTheETagOfAnotherPatient_whenPatchPatient_thenItThrowAPatientVersionConflictException()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + randomUUID)
+				.header("If-Match", "\"" + UUID.randomUUID() + ".4\"").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"phoneNumber\": \"111.111.111\"}")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(409, response.getStatus());
+		verify(patientRepository, times(0)).patch(eq(randomUUID), any(PatientPatch.class));
+	}
+
+	@DisplayName("PUT : /patient/{uuid} with the ETag of another patient retrieved by name")
+	@Test
+	void givenUpdatingAPatientWithTheETagOfAnotherPatient_whenUpdatePatient_thenItThrowAPatientVersionConflictException()
+			throws Exception {
+		// ARRANGE
+		Patient patientToUpdate = new Patient("lastName", "firstName", LocalDate.of(2000, 1, 1), "gender",
+				"homeAddress", "phoneNumber");
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(patientToUpdate));
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(put("/patient/" + randomUUID)
+				.header("If-Match", "\"" + UUID.randomUUID() + ".0\"").contentType(MediaType.APPLICATION_JSON)
+				.content(
+						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
+				.andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(409, response.getStatus());
+		verify(patientRepository, times(0)).save(patientToUpdate);
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} but it throw an exception because the patient is not present in the database")
+	@Test
+	void givenPatchingAPatientWhoDoesntExist_whenPatchPatient_thenItThrowAPatientNotFoundExceptionWithACorrectHTTPStatusCode()
+			throws Exception {
+		// ARRANGE
+		UUID randomUUID = UUID.randomUUID();
+		when(patientRepository.patch(eq(randomUUID), any(PatientPatch.class))).thenReturn(0);
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + randomUUID).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"gender\": \"Ternary\"}")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(404, response.getStatus());
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} but no field is provided")
+	@Test
+	void givenPatchingAPatientWithoutAnyField_whenPatchPatient_thenItThrowABodyNotValidException() throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(patch("/patient/" + UUID.randomUUID())
+				.contentType(MediaType.APPLICATION_JSON).content("{\"version\": 1}")).andDo(print()).andReturn();
+		MockHttpServletResponse response = mvcResult.getResponse();
+
+		// ASSERT
+		assertEquals(400, response.getStatus());
+		verify(patientRepository, times(0)).patch(any(UUID.class), any(PatientPatch.class));
+	}
+
 	@DisplayName("DELETE : /patient/{uuid}")
 	@Test
 	void givenDeletingAPatient_whenDeletePatient_thenItDeleteThePatientInTheDataBase() throws Exception {
 		// ARRANGE
-		Patient patientToDelete = new Patient("lastName", "firstName", "dateOfBirth", "gender", "homeAddress",
-				"phoneNumber");
 		UUID randomUUID = UUID.randomUUID();
-		when(patientRepository.findById(randomUUID)).thenReturn(Optional.of(patientToDelete));
-		doNothing().when(patientRepository).delete(patientToDelete);
+		when(patientRepository.deleteByUuid(randomUUID)).thenReturn(1);
 
 		// ACT
 		MvcResult mvcResult = mockMvc.perform(delete("/patient/" + randomUUID).contentType(MediaType.APPLICATION_JSON))
@@ -250,8 +924,8 @@ class PatientControllerTest {
 		// ASSERT
 		assertEquals(200, response.getStatus());
 		assertEquals("The patient has been successfully deleted in the database.", response.getContentAsString());
-		verify(patientRepository, times(1)).findById(randomUUID);
-		verify(patientRepository, times(1)).delete(patientToDelete);
+		verify(patientRepository, times(1)).deleteByUuid(randomUUID);
+		verify(patientRepository, times(0)).findById(randomUUID);
 	}
 
 	@DisplayName("DELETE : /patient/{uuid} but it throw an exception because the patient is not present in the database")
@@ -0,0 +1,136 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientDuplicate;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientDuplicateFinder;
+
+@DataJpaTest
+@Import({ PatientDuplicateFinder.class, JacksonAutoConfiguration.class })
+// The blocking keys are refreshed when the write commits
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientDuplicateFinderTest {
+
+	@Autowired
+	private PatientDuplicateFinder patientDuplicateFinder;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void tearDown() {
+		List<UUID> uuids = patientRepository
+				.findByLastNameInAndFirstNameIn(Set.of("Dupont", "Dupond", "Martin", "Lefebvre", "Durand"),
+						Set.of("Jean", "Paul", "Pierre"))
+				.stream().map(Patient::getUuid).collect(Collectors.toList());
+		if (!uuids.isEmpty()) {
+			patientRepository.deleteByUuidIn(uuids);
+		}
+	}
+
+	@DisplayName("GET : /patient/{uuid}/duplicates")
+	@Test
+	void givenPatientsSpelledAlike_whenFindDuplicates_thenTheyAreFoundAndNotTheOthers() {
+		// ARRANGE
+		Patient dupont = patientRepository
+				.save(new Patient("Dupont", "Jean", LocalDate.of(1980, 5, 12), "M", null, "06 12 34 56 78"));
+		Patient dupond = patientRepository
+				.save(new Patient("Dupond", "Jean", LocalDate.of(1980, 5, 12), "M", null, "+33 612 345 678"));
+		patientRepository.save(new Patient("Martin", "Paul", LocalDate.of(1990, 1, 1), "M", null, null));
+
+		// ACT
+		List<PatientDuplicate> duplicates = patientDuplicateFinder.findDuplicates(dupont.getUuid()).get();
+
+		// ASSERT
+		assertEquals(1, duplicates.size());
+		assertEquals(dupond.getUuid(), duplicates.get(0).getPatient().getUuid());
+		assertTrue(duplicates.get(0).getScore() >= 0.9);
+	}
+
+	@DisplayName("An unknown patient has no duplicates")
+	@Test
+	void givenAnUnknownPatient_whenFindDuplicates_thenItIsEmpty() {
+		// ACT & ASSERT
+		assertTrue(patientDuplicateFinder.findDuplicates(UUID.randomUUID()).isEmpty());
+	}
+
+	@DisplayName("The blocking keys are refreshed by the updates and the deletes")
+	@Test
+	void givenAPatientRenamedThenDeleted_whenFindDuplicates_thenItsKeysFollow() {
+		// ARRANGE
+		Patient durand = patientRepository
+				.save(new Patient("Durand", "Pierre", LocalDate.of(1975, 3, 3), "M", null, null));
+		Patient lefebvre = patientRepository
+				.save(new Patient("Lefebvre", "Pierre", LocalDate.of(1975, 3, 3), "M", null, null));
+		assertTrue(patientDuplicateFinder.findDuplicates(durand.getUuid()).get().isEmpty());
+
+		// ACT
+		lefebvre.setLastName("Durand");
+		patientRepository.save(lefebvre);
+
+		// ASSERT
+		assertEquals(lefebvre.getUuid(),
+				patientDuplicateFinder.findDuplicates(durand.getUuid()).get().get(0).getPatient().getUuid());
+		assertTrue(keys(lefebvre.getUuid()).contains("L:1975-03-03:TRNT"));
+
+		// ACT
+		patientRepository.deleteByUuid(lefebvre.getUuid());
+
+		// ASSERT
+		assertTrue(keys(lefebvre.getUuid()).isEmpty());
+		assertTrue(patientDuplicateFinder.findDuplicates(durand.getUuid()).get().isEmpty());
+	}
+
+	@DisplayName("GET : /patient/duplicates")
+	@Test
+	void givenPatientsSharingSeveralKeys_whenReport_thenTheirPairIsWrittenOnce() throws Exception {
+		// ARRANGE
+		Patient dupont = patientRepository
+				.save(new Patient("Dupont", "Jean", LocalDate.of(1980, 5, 12), "M", null, "06 12 34 56 78"));
+		Patient dupond = patientRepository
+				.save(new Patient("Dupond", "Jean", LocalDate.of(1980, 5, 12), "M", null, "06 12 34 56 78"));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		// ACT
+		long count = patientDuplicateFinder.report(outputStream);
+
+		// ASSERT
+		List<String> lines = Arrays.asList(outputStream.toString(StandardCharsets.UTF_8).split("\n"));
+		assertEquals(count, lines.size());
+		assertEquals(1, lines.stream().filter(
+				line -> line.contains(dupont.getUuid().toString()) && line.contains(dupond.getUuid().toString()))
+				.count());
+	}
+
+	private List<String> keys(UUID uuid) {
+		return jdbcTemplate.queryForList(
+				"select blocking_key from abernathyclinic_mediscreen.patient_blocking_keys where uuid = ?",
+				String.class, uuid);
+	}
+}
@@ -0,0 +1,61 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.abernathyclinic.mediscreen.service_sql.controller.PatientExportController;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientExporter;
+
+@WebMvcTest(PatientExportController.class)
+@TestPropertySource(properties = "patient.export.timeout=PT2M")
+class PatientExportControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private PatientExporter patientExporter;
+
+	@DisplayName("GET : /patient/export runs with its own timeout")
+	@Test
+	void givenExportingAllPatients_whenExportPatients_thenItStreamsThePatientsWithTheTimeoutOfTheExport()
+			throws Exception {
+		// ARRANGE
+		when(patientExporter.export(any(OutputStream.class))).then(invocation -> {
+			invocation.getArgument(0, OutputStream.class).write("{}\n{}\n".getBytes(StandardCharsets.UTF_8));
+			return 2L;
+		});
+
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/export")).andReturn();
+		boolean asyncStarted = mvcResult.getRequest().isAsyncStarted();
+		long timeout = mvcResult.getRequest().getAsyncContext().getTimeout();
+		MockHttpServletResponse response = mockMvc.perform(asyncDispatch(mvcResult)).andDo(print()).andReturn()
+				.getResponse();
+
+		// ASSERT
+		assertTrue(asyncStarted);
+		assertEquals(120000, timeout);
+		assertEquals(200, response.getStatus());
+		assertEquals(PatientExportController.NDJSON, response.getContentType());
+		assertEquals("{}\n{}\n", response.getContentAsString());
+	}
+}
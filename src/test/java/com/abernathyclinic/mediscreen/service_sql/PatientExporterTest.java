@@ -0,0 +1,50 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientExporter;
+
+@DataJpaTest
+@Import({ PatientExporter.class, JacksonAutoConfiguration.class })
+class PatientExporterTest {
+
+	@Autowired
+	private PatientExporter patientExporter;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@DisplayName("Injected Components Are Rightly Setup")
+	@Test
+	void injectedComponentsAreRightlySetup() {
+		assertThat(patientExporter).isNotNull();
+		assertThat(patientRepository).isNotNull();
+	}
+
+	@DisplayName("GET : /patient/export")
+	@Test
+	void givenExportingAllPatients_whenExport_thenItWritesOnePatientPerLine() throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		long count = patientExporter.export(outputStream);
+		String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+		assertEquals(patientRepository.count(), count);
+		assertEquals(count, lines.length);
+		assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"));
+	}
+
+}
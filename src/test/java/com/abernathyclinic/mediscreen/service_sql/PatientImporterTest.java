@@ -0,0 +1,182 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientChange;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientImportJob;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientChangeRepository;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientImporter;
+
+@DataJpaTest
+@Import({ PatientImporter.class, ValidationAutoConfiguration.class })
+@TestPropertySource(properties = "patient.import.chunk-size=2")
+// Each chunk is committed in its own transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PatientImporterTest {
+
+	@Autowired
+	private PatientImporter patientImporter;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private PatientChangeRepository patientChangeRepository;
+
+	@TempDir
+	Path directory;
+
+	@AfterEach
+	void tearDown() {
+		List<UUID> uuids = patientRepository
+				.findByLastNameInAndFirstNameIn(Set.of("lastNameImport"),
+						Set.of("firstNameImport", "secondNameImport", "thirdNameImport", "fourthNameImport",
+								"fourthName, Import", "fifthName \"Import\""))
+				.stream().map(Patient::getUuid).collect(Collectors.toList());
+		if (!uuids.isEmpty()) {
+			patientRepository.deleteByUuidIn(uuids);
+		}
+	}
+
+	@DisplayName("POST : /patient/import")
+	@Test
+	void givenImportingValidAndInvalidRows_whenRun_thenTheValidRowsAreImportedAndTheOthersReported()
+			throws IOException {
+		// ARRANGE
+		PatientImportJob job = job("lastName,firstName,dateOfBirth,gender,homeAddress,phoneNumber\n"
+				+ "lastNameImport,firstNameImport,2000-01-01,M,1 Import Street,123.456.789\n"
+				+ "lastNameImport,secondNameImport,01/01/2000,M,,\n"
+				+ "lastNameImport,thirdNameImport,2000-01-01,,,\n"
+				+ "lastNameImport,too,many,fields,here,for,the,header\n"
+				+ "lastNameImport,fourthNameImport,2000-01-01,F,,\n");
+
+		// ACT
+		patientImporter.run(job);
+
+		// ASSERT
+		assertEquals(PatientImportJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+		assertEquals(5, job.getRowsRead());
+		assertEquals(2, job.getImportedRows());
+		assertEquals(3, job.getRejectedRows());
+		assertEquals(100, job.getProgress());
+		List<String> rejections = Files.readAllLines(job.getRejectionsFile());
+		assertEquals(List.of("line,message", "3,\"The date of birth must be formatted as yyyy-MM-dd\"",
+				"4,\"The gender is mandatory\"", "5,\"The row has 8 fields while the header has 6.\""), rejections);
+
+		List<Patient> patients = patientRepository.findByLastNameInAndFirstNameIn(Set.of("lastNameImport"),
+				Set.of("firstNameImport", "fourthNameImport"));
+		assertEquals(2, patients.size());
+		Patient patient = patients.stream().filter(imported -> "firstNameImport".equals(imported.getFirstName()))
+				.findFirst().get();
+		assertEquals(LocalDate.of(2000, 1, 1), patient.getDateOfBirth());
+		assertEquals("1 Import Street", patient.getHomeAddress());
+	}
+
+	@DisplayName("The imported patients are recorded in the change feed")
+	@Test
+	void givenImportingPatients_whenRun_thenTheirCreationIsRecorded() throws IOException {
+		// ARRANGE
+		PatientImportJob job = job("lastName,firstName,dateOfBirth,gender\n"
+				+ "lastNameImport,firstNameImport,2000-01-01,M\n" + "lastNameImport,secondNameImport,2000-01-01,F\n"
+				+ "lastNameImport,thirdNameImport,2000-01-01,F\n");
+
+		// ACT
+		patientImporter.run(job);
+
+		// ASSERT
+		Set<UUID> uuids = patientRepository
+				.findByLastNameInAndFirstNameIn(Set.of("lastNameImport"),
+						Set.of("firstNameImport", "secondNameImport", "thirdNameImport"))
+				.stream().map(Patient::getUuid).collect(Collectors.toSet());
+		assertEquals(3, uuids.size());
+		assertTrue(uuids.stream().allMatch(uuid -> patientChangeRepository.findAll().stream()
+				.anyMatch(change -> uuid.equals(change.getUuid()) && change.getType() == PatientChange.Type.CREATED)));
+	}
+
+	@DisplayName("The quoted fields and the columns in any order are read")
+	@Test
+	void givenQuotedFieldsAndSnakeCaseColumns_whenRun_thenTheFieldsAreUnquoted() throws IOException {
+		// ARRANGE
+		PatientImportJob job = job("\uFEFFgender,date_of_birth,FIRST_NAME,last_name,home_address\r\n"
+				+ "F,2000-01-01,\"fourthName, Import\",lastNameImport,\"1 Import Street\r\nImport City\"\r\n" + "\r\n"
+				+ "F,2000-01-01,\"fifthName \"\"Import\"\"\",lastNameImport,\r\n");
+
+		// ACT
+		patientImporter.run(job);
+
+		// ASSERT
+		assertEquals(PatientImportJob.Status.COMPLETED, job.getStatus(), job.getMessage());
+		assertEquals(2, job.getImportedRows());
+		List<Patient> patients = patientRepository.findByLastNameInAndFirstNameIn(Set.of("lastNameImport"),
+				Set.of("fourthName, Import", "fifthName \"Import\""));
+		assertEquals(2, patients.size());
+		assertTrue(patients.stream()
+				.anyMatch(patient -> "1 Import Street\r\nImport City".equals(patient.getHomeAddress())));
+		assertTrue(patients.stream().anyMatch(patient -> patient.getHomeAddress() == null));
+	}
+
+	@DisplayName("A file whose header misses a mandatory column fails")
+	@Test
+	void givenAHeaderWithoutTheGender_whenRun_thenTheImportFails() throws IOException {
+		// ARRANGE
+		PatientImportJob job = job("lastName,firstName,dateOfBirth\n" + "lastNameImport,firstNameImport,2000-01-01\n");
+
+		// ACT
+		patientImporter.run(job);
+
+		// ASSERT
+		assertEquals(PatientImportJob.Status.FAILED, job.getStatus());
+		assertEquals("The header must name the columns lastName, firstName, dateOfBirth and gender.",
+				job.getMessage());
+		assertEquals(0, job.getImportedRows());
+	}
+
+	@DisplayName("A quoted field left open fails the import after the chunks already written")
+	@Test
+	void givenAQuoteLeftOpen_whenRun_thenTheImportFails() throws IOException {
+		// ARRANGE
+		PatientImportJob job = job("lastName,firstName,dateOfBirth,gender\n"
+				+ "lastNameImport,firstNameImport,2000-01-01,M\n" + "lastNameImport,secondNameImport,2000-01-01,F\n"
+				+ "lastNameImport,\"thirdNameImport,2000-01-01,F\n");
+
+		// ACT
+		patientImporter.run(job);
+
+		// ASSERT
+		assertEquals(PatientImportJob.Status.FAILED, job.getStatus());
+		assertEquals("The quoted field of the line 4 isn't closed.", job.getMessage());
+		assertEquals(2, job.getImportedRows());
+		assertNotNull(job.getFinishedAt());
+	}
+
+	private PatientImportJob job(String csv) throws IOException {
+		Path file = Files.writeString(directory.resolve("patients.csv"), csv, StandardCharsets.UTF_8);
+		return new PatientImportJob(UUID.randomUUID(), Files.size(file), file, directory.resolve("rejections.csv"));
+	}
+}
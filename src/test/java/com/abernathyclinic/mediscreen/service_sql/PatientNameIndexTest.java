@@ -0,0 +1,77 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSuggestion;
+import com.abernathyclinic.mediscreen.service_sql.service.PatientNameIndex;
+
+class PatientNameIndexTest {
+
+	private final PatientNameIndex patientNameIndex = new PatientNameIndex(10000);
+	private final UUID dupont = UUID.randomUUID();
+	private final UUID dupontel = UUID.randomUUID();
+	private final UUID durand = UUID.randomUUID();
+	private final UUID lefevre = UUID.randomUUID();
+
+	PatientNameIndexTest() {
+		patientNameIndex.put(dupontel, "Dupontel", "Albert", LocalDate.of(1964, 1, 11));
+		patientNameIndex.put(dupont, "Dupont", "Jean", LocalDate.of(1980, 5, 12));
+		patientNameIndex.put(durand, "Durand", "Jean-Pierre", LocalDate.of(1975, 3, 3));
+		patientNameIndex.put(lefevre, "Lefèvre", "Hélène", LocalDate.of(1990, 7, 14));
+	}
+
+	private List<UUID> suggest(String query) {
+		return patientNameIndex.suggest(query, 10).stream().map(PatientSuggestion::getUuid)
+				.collect(Collectors.toList());
+	}
+
+	@DisplayName("The exact name comes before the names it starts")
+	@Test
+	void givenTypingAWholeName_whenSuggest_thenTheExactMatchComesFirst() {
+		assertEquals(List.of(dupont, dupontel), suggest("dupont"));
+		assertEquals(List.of(dupont, dupontel, durand), suggest("Du"));
+	}
+
+	@DisplayName("The other words of the query filter the patients, in any order")
+	@Test
+	void givenTypingTheFirstNameAndTheLastName_whenSuggest_thenOnlyThePatientMatchingBothIsSuggested() {
+		assertEquals(List.of(dupont), suggest("je dup"));
+		assertEquals(List.of(durand), suggest("pierre du"));
+		assertEquals(List.of(durand), suggest("jeanpierre"));
+	}
+
+	@DisplayName("The accents, the case and the spelling are tolerated")
+	@Test
+	void givenTypingANameWithoutAccentOrMisspelled_whenSuggest_thenItIsFound() {
+		assertEquals(List.of(lefevre), suggest("LEFEVRE helene"));
+		assertEquals(List.of(dupont, dupontel), suggest("Dupond"));
+	}
+
+	@DisplayName("The updates and the deletes are reflected at once")
+	@Test
+	void givenRenamingThenRemovingAPatient_whenSuggest_thenItFollows() {
+		patientNameIndex.patch(dupont, "Martin", null, null);
+		assertEquals(List.of(dupont), suggest("mart jean"));
+		assertEquals(List.of(dupontel), suggest("dupont"));
+
+		patientNameIndex.remove(dupont);
+		assertTrue(suggest("mart").isEmpty());
+		assertEquals(3, patientNameIndex.size());
+	}
+
+	@DisplayName("The number of patients suggested is limited")
+	@Test
+	void givenALimit_whenSuggest_thenNoMorePatientsAreSuggested() {
+		assertEquals(2, patientNameIndex.suggest("d", 2).size());
+		assertTrue(patientNameIndex.suggest(" - ", 10).isEmpty());
+	}
+}
@@ -5,16 +5,29 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientSearch;
+import com.abernathyclinic.mediscreen.service_sql.pagination.ContinuationToken.DateOfBirthKey;
 import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientSpecifications;
 
 @DataJpaTest
 class PatientRepositoryTest {
@@ -49,7 +62,7 @@ class PatientRepositoryTest {
 	@DisplayName("GET : /patient/lastName&firstName")
 	@Test
 	void givenGettingASpecificPatient_whenGetPatient_thenItReturnTheRightPatientFromTheDataBase() {
-		assertTrue(patientRepository.findByLastNameAndFirstName("lastName", "firstName").isPresent());
+		assertEquals(1, patientRepository.findByLastNameAndFirstName("lastName", "firstName").size());
 	}
 
 	@DisplayName("GET : /patient")
@@ -58,35 +71,184 @@ class PatientRepositoryTest {
 		assertFalse(patientRepository.findAll().isEmpty());
 	}
 
+	@DisplayName("GET : /patient with a page token")
+	@Test
+	void givenGettingThePatientsPageByPage_whenGetPatients_thenEachPageSeeksAfterThePreviousOne() {
+		patientRepository.save(new Patient("lastNamePage", "firstNamePage", LocalDate.of(2000, 1, 1), "genderPage",
+				"homeAddressPage", "phoneNumberPage"));
+
+		List<Patient> firstPage = patientRepository.findAllByOrderByUuidAsc(PageRequest.of(0, 1));
+		List<Patient> secondPage = patientRepository
+				.findByUuidGreaterThanOrderByUuidAsc(firstPage.get(0).getUuid(), PageRequest.of(0, 1));
+
+		assertEquals(1, firstPage.size());
+		assertEquals(1, secondPage.size());
+		assertTrue(firstPage.get(0).getUuid().compareTo(secondPage.get(0).getUuid()) != 0);
+	}
+
+	@DisplayName("GET : /patient/dateOfBirth with a page token")
+	@Test
+	void givenSearchingPatientsByDateOfBirth_whenSearchByDateOfBirth_thenOnlyTheMatchingPatientsAreReturnedPageByPage() {
+		for (int year = 1950; year <= 1960; year++) {
+			testEntityManager.persist(new Patient("lastNameAge", "firstNameAge" + year, LocalDate.of(year, 6, 1),
+					year % 2 == 0 ? "F" : "M", "homeAddressAge", "000.000.000"));
+		}
+		testEntityManager.flush();
+
+		List<Patient> firstPage = patientRepository.searchByDateOfBirth(LocalDate.of(1952, 1, 1),
+				LocalDate.of(1958, 12, 31), "F", null, 2);
+		Patient last = firstPage.get(1);
+		List<Patient> secondPage = patientRepository.searchByDateOfBirth(LocalDate.of(1952, 1, 1),
+				LocalDate.of(1958, 12, 31), "F", new DateOfBirthKey(last.getDateOfBirth(), last.getUuid()), 10);
+
+		assertEquals(List.of(LocalDate.of(1952, 6, 1), LocalDate.of(1954, 6, 1)),
+				firstPage.stream().map(Patient::getDateOfBirth).collect(Collectors.toList()));
+		assertEquals(List.of(LocalDate.of(1956, 6, 1), LocalDate.of(1958, 6, 1)),
+				secondPage.stream().map(Patient::getDateOfBirth).collect(Collectors.toList()));
+	}
+
+	@DisplayName("GET : /patient/search")
+	@Test
+	void givenSearchingPatientsByNamePrefixAndDateOfBirth_whenSearch_thenOnlyThePatientsMatchingAreReturned() {
+		testEntityManager.persist(new Patient("Dupont", "Anne", LocalDate.of(1960, 1, 1), "F", "1 Rue de Paris",
+				"111.111.111"));
+		testEntityManager.persist(new Patient("DUPUIS", "Bruno", LocalDate.of(1965, 1, 1), "M", "2 Rue de Lyon",
+				"222.222.222"));
+		testEntityManager.persist(new Patient("Dupré", "Claire", LocalDate.of(1990, 1, 1), "F", "3 Rue de Paris",
+				"333.333.333"));
+		testEntityManager.persist(new Patient("Du_pond", "Denis", LocalDate.of(1962, 1, 1), "M", "4 Rue de Nice",
+				"444.444.444"));
+		testEntityManager.flush();
+		PatientSearch patientSearch = new PatientSearch();
+		patientSearch.setLastName("dup");
+		patientSearch.setBornTo(LocalDate.of(1970, 1, 1));
+
+		Slice<Patient> firstPage = patientRepository.search(PatientSpecifications.of(patientSearch),
+				PageRequest.of(0, 1, Sort.by("dateOfBirth")));
+		Slice<Patient> secondPage = patientRepository.search(PatientSpecifications.of(patientSearch),
+				PageRequest.of(1, 1, Sort.by("dateOfBirth")));
+		patientSearch.setHomeAddress("RUE DE PARIS");
+		Slice<Patient> byAddress = patientRepository.search(PatientSpecifications.of(patientSearch),
+				PageRequest.of(0, 10));
+
+		assertEquals("Dupont", firstPage.getContent().get(0).getLastName());
+		assertTrue(firstPage.hasNext());
+		assertEquals("DUPUIS", secondPage.getContent().get(0).getLastName());
+		assertFalse(secondPage.hasNext());
+		assertEquals(List.of("Dupont"),
+				byAddress.getContent().stream().map(Patient::getLastName).collect(Collectors.toList()));
+	}
+
+	@DisplayName("GET : /patient with fields")
+	@Test
+	void givenGettingSomeFieldsOfThePatients_whenFindFields_thenOnlyTheseFieldsAreReadWithoutManagingThePatients() {
+		testEntityManager.clear();
+
+		List<Map<String, Object>> rows = patientRepository.findFields(
+				PatientSpecifications.startsWith("lastName", "lastname"), List.of("uuid", "lastName", "dateOfBirth"),
+				Sort.by("uuid"), 0, 10);
+
+		assertEquals(1, rows.size());
+		assertEquals(List.of("uuid", "lastName", "dateOfBirth"), new ArrayList<>(rows.get(0).keySet()));
+		assertEquals(LocalDate.of(1970, 1, 1), rows.get(0).get("dateOfBirth"));
+		assertEquals(0, testEntityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+	}
+
 	@DisplayName("POST : /patient")
 	@Test
 	void givenSavingAPatient_whenSavePatient_thenItSaveThePatientInTheDataBase() {
-		Patient patientToSave = new Patient("lastNameSave", "firstNameSave", "dateOfBirthSave", "genderSave",
+		Patient patientToSave = new Patient("lastNameSave", "firstNameSave", LocalDate.of(2000, 1, 1), "genderSave",
 				"homeAddressSave", "phoneNumberSave");
 		patientRepository.save(patientToSave);
 
-		assertTrue(patientRepository.findByLastNameAndFirstName("lastNameSave", "firstNameSave").isPresent());
+		assertEquals(1, patientRepository.findByLastNameAndFirstName("lastNameSave", "firstNameSave").size());
 	}
 
 	@DisplayName("PUT : /patient/{uuid}")
 	@Test
 	void givenUpdatingAPatient_whenUpdatePatient_thenItUpdateThePatientInTheDataBase() {
-		Patient patientToUpdate = patientRepository.findByLastNameAndFirstName("lastName", "firstName").get();
+		Patient patientToUpdate = patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0);
 		patientToUpdate.setGender("Ternary");
 		patientRepository.save(patientToUpdate);
 
 		assertEquals("Ternary",
-				patientRepository.findByLastNameAndFirstName("lastName", "firstName").get().getGender());
+				patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0).getGender());
+	}
+
+	@DisplayName("GET : /patient/{UUID} with If-None-Match")
+	@Test
+	void givenCheckingTheVersionOfAPatient_whenFindVersion_thenOnlyTheVersionIsRead() {
+		Patient patient = patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0);
+
+		assertEquals(patient.getVersion(), patientRepository.findVersionByUuid(patient.getUuid()).get());
+		assertEquals(patient.getUuid(),
+				patientRepository.findVersionByLastNameAndFirstName("lastName", "firstName").get(0).getUuid());
+		assertTrue(patientRepository.findVersionByUuid(UUID.randomUUID()).isEmpty());
+	}
+
+	@DisplayName("PATCH : /patient/{uuid}")
+	@Test
+	void givenPatchingAPatient_whenPatch_thenOnlyTheProvidedFieldsAreUpdatedAndTheVersionIncremented() {
+		Patient patientToPatch = testEntityManager.persistFlushFind(new Patient("lastNamePatch", "firstNamePatch",
+				LocalDate.of(2000, 1, 1), "genderPatch", "homeAddressPatch", "000.000.000"));
+		testEntityManager.detach(patientToPatch);
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setPhoneNumber("111.111.111");
+		patientPatch.setVersion(patientToPatch.getVersion());
+
+		int updated = patientRepository.patch(patientToPatch.getUuid(), patientPatch);
+
+		Patient patchedPatient = testEntityManager.find(Patient.class, patientToPatch.getUuid());
+		assertEquals(1, updated);
+		assertEquals("111.111.111", patchedPatient.getPhoneNumber());
+		assertEquals("homeAddressPatch", patchedPatient.getHomeAddress());
+		assertEquals(patientToPatch.getVersion() + 1, patchedPatient.getVersion());
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} with an outdated version")
+	@Test
+	void givenPatchingAPatientWithAnOutdatedVersion_whenPatch_thenNothingIsUpdated() {
+		Patient patientToPatch = testEntityManager.persistFlushFind(new Patient("lastNameStale", "firstNameStale",
+				LocalDate.of(2000, 1, 1), "genderStale", "homeAddressStale", "000.000.000"));
+		testEntityManager.detach(patientToPatch);
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setGender("Ternary");
+		patientPatch.setVersion(patientToPatch.getVersion() + 1);
+
+		int updated = patientRepository.patch(patientToPatch.getUuid(), patientPatch);
+
+		assertEquals(0, updated);
+		assertEquals("genderStale", testEntityManager.find(Patient.class, patientToPatch.getUuid()).getGender());
 	}
 
 	@DisplayName("DELETE : /patient/{uuid}")
 	@Test
 	void givenDeletingAPatient_whenDeletePatient_thenItDeleteThePatientInTheDataBase() {
-		Patient patientToStoreInDB = new Patient("lastNameDelete", "firstNameDelete", "00/00/0000Delete",
+		Patient patientToStoreInDB = new Patient("lastNameDelete", "firstNameDelete", LocalDate.of(2000, 1, 1),
 				"genderDelete", "homeAddressDelete", "000.000.000");
-		testEntityManager.persist(patientToStoreInDB);
-		patientRepository.delete(patientToStoreInDB);
+		testEntityManager.persistAndFlush(patientToStoreInDB);
+		testEntityManager.detach(patientToStoreInDB);
+
+		assertEquals(1, patientRepository.deleteByUuid(patientToStoreInDB.getUuid()));
+		assertEquals(0, patientRepository.deleteByUuid(patientToStoreInDB.getUuid()));
 		assertTrue(patientRepository.findByLastNameAndFirstName("lastNameDelete", "firstNameDelete").isEmpty());
 	}
 
+	@DisplayName("DELETE : /patient")
+	@Test
+	void givenDeletingSeveralPatients_whenDeleteByUuidIn_thenItDeleteThePatientsPresentInTheDataBase() {
+		Patient firstPatient = testEntityManager.persistAndFlush(new Patient("lastNameBulk", "firstNameBulkOne",
+				LocalDate.of(2000, 1, 1), "genderBulk", "homeAddressBulk", "000.000.000"));
+		Patient secondPatient = testEntityManager.persistAndFlush(new Patient("lastNameBulk", "firstNameBulkTwo",
+				LocalDate.of(2000, 1, 1), "genderBulk", "homeAddressBulk", "000.000.000"));
+		testEntityManager.clear();
+
+		int deleted = patientRepository
+				.deleteByUuidIn(List.of(firstPatient.getUuid(), secondPatient.getUuid(), UUID.randomUUID()));
+
+		assertEquals(2, deleted);
+		assertTrue(patientRepository.findById(firstPatient.getUuid()).isEmpty());
+		assertTrue(patientRepository.findById(secondPatient.getUuid()).isEmpty());
+	}
+
 }
@@ -0,0 +1,140 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.reactive.ReactivePatientController;
+import com.abernathyclinic.mediscreen.service_sql.reactive.ReactivePatientRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactivePatientController.class)
+@ActiveProfiles("reactive")
+class ReactivePatientControllerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private ReactivePatientRepository reactivePatientRepository;
+
+	private static Patient patient(UUID uuid, long version) {
+		return new Patient(uuid, "lastName", "firstName", LocalDate.of(2000, 1, 1), "gender", "homeAddress",
+				"123.456.789", version);
+	}
+
+	@DisplayName("GET : /patient/{UUID}")
+	@Test
+	void givenGettingASpecificPatientUsingTheUUID_whenGetPatientByUUID_thenItReturnThePatientWithItsVersionAsETag() {
+		UUID uuid = UUID.randomUUID();
+		when(reactivePatientRepository.findById(uuid)).thenReturn(Mono.just(patient(uuid, 2)));
+
+		webTestClient.get().uri("/patient/" + uuid).exchange().expectStatus().isOk().expectHeader()
+				.valueEquals("ETag", "\"2\"").expectHeader().valueEquals("Vary", "Accept").expectBody()
+				.jsonPath("$.uuid").isEqualTo(uuid.toString());
+	}
+
+	@DisplayName("GET : /patient/{UUID} with the current ETag in If-None-Match")
+	@Test
+	void givenGettingAnUnchangedPatientUsingTheUUID_whenGetPatientByUUID_thenItReturnNotModified() {
+		UUID uuid = UUID.randomUUID();
+		when(reactivePatientRepository.findById(uuid)).thenReturn(Mono.just(patient(uuid, 2)));
+
+		webTestClient.get().uri("/patient/" + uuid).header("If-None-Match", "\"2\"").exchange().expectStatus()
+				.isNotModified().expectBody().isEmpty();
+	}
+
+	@DisplayName("GET : /patient/{UUID} as JSON with the ETag of the Smile representation in If-None-Match")
+	@Test
+	void givenGettingAnUnchangedPatientAsJSONWithTheSmileETag_whenGetPatientByUUID_thenItReturnThePatient() {
+		UUID uuid = UUID.randomUUID();
+		when(reactivePatientRepository.findById(uuid)).thenReturn(Mono.just(patient(uuid, 2)));
+
+		webTestClient.get().uri("/patient/" + uuid).accept(MediaType.APPLICATION_JSON)
+				.header("If-None-Match", "\"2+smile\"").exchange().expectStatus().isOk().expectHeader()
+				.valueEquals("ETag", "\"2\"");
+	}
+
+	@DisplayName("GET : /patient/{UUID} but it throw an exception because the patient is not present in the database")
+	@Test
+	void givenGettingAPatientWhoDoesntExist_whenGetPatientByUUID_thenItThrowAPatientNotFoundExceptionWithACorrectHTTPStatusCode() {
+		when(reactivePatientRepository.findById(any(UUID.class))).thenReturn(Mono.empty());
+
+		webTestClient.get().uri("/patient/" + UUID.randomUUID()).exchange().expectStatus().isNotFound();
+	}
+
+	@DisplayName("GET : /patient")
+	@Test
+	void givenGettingThePatients_whenGetPatients_thenItReturnAPageWithTheTokenOfTheNextPage() {
+		UUID firstUuid = UUID.randomUUID();
+		when(reactivePatientRepository.findAllByOrderByUuidAsc(2))
+				.thenReturn(Flux.just(patient(firstUuid, 0), patient(UUID.randomUUID(), 0)));
+
+		webTestClient.get().uri("/patient?size=1").exchange().expectStatus().isOk().expectBody()
+				.jsonPath("$.patients.length()").isEqualTo(1).jsonPath("$.nextPageToken").isNotEmpty();
+	}
+
+	@DisplayName("GET : /patient but the page token is not valid")
+	@Test
+	void givenGettingThePatientsWithAnInvalidToken_whenGetPatients_thenItThrowAPaginationNotValidException() {
+		webTestClient.get().uri("/patient?pageToken=notAToken").exchange().expectStatus().isBadRequest();
+	}
+
+	@DisplayName("POST : /patient")
+	@Test
+	void givenSavingAPatient_whenSavePatient_thenItSaveThePatientInTheDataBase() {
+		when(reactivePatientRepository.insert(any(Patient.class))).thenReturn(Mono.just(UUID.randomUUID()));
+
+		webTestClient.post().uri("/patient").contentType(MediaType.APPLICATION_JSON).bodyValue(
+				"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}")
+				.exchange().expectStatus().isCreated().expectBody(String.class).isEqualTo("Patient sucessfully saved");
+	}
+
+	@DisplayName("POST : /patient but a mandatory field is missing")
+	@Test
+	void givenSavingAPatientWithAMissingField_whenSavePatient_thenItReturnABadRequest() {
+		webTestClient.post().uri("/patient").contentType(MediaType.APPLICATION_JSON)
+				.bodyValue("{\"lastName\": \"lastName\"}").exchange().expectStatus().isBadRequest();
+
+		verify(reactivePatientRepository, times(0)).insert(any(Patient.class));
+	}
+
+	@DisplayName("PATCH : /patient/{uuid} but the patient has been modified since the version provided")
+	@Test
+	void givenPatchingAPatientWithAnOutdatedVersion_whenPatchPatient_thenItThrowAPatientVersionConflictException() {
+		UUID uuid = UUID.randomUUID();
+		when(reactivePatientRepository.patch(eq(uuid), any(PatientPatch.class))).thenReturn(Mono.just(0));
+		when(reactivePatientRepository.existsById(uuid)).thenReturn(Mono.just(true));
+
+		webTestClient.patch().uri("/patient/" + uuid).header("If-Match", "\"1\"")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue("{\"gender\": \"Ternary\"}").exchange()
+				.expectStatus().isEqualTo(409);
+	}
+
+	@DisplayName("DELETE : /patient/{uuid} but it throw an exception because the patient is not present in the database")
+	@Test
+	void givenDeletingAPatientWhoDoesntExist_whenDeletePatient_thenItThrowAPatientNotFoundExceptionWithACorrectHTTPStatusCode() {
+		when(reactivePatientRepository.deleteByUuid(any(UUID.class))).thenReturn(Mono.just(0));
+
+		webTestClient.delete().uri("/patient/" + UUID.randomUUID()).exchange().expectStatus().isNotFound();
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.abernathyclinic.mediscreen.service_sql.duplicates.BlockingKeys;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.reactive.ReactivePatientRepository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.test.StepVerifier;
+
+class ReactivePatientRepositoryTest {
+
+	private DatabaseClient databaseClient;
+
+	private ReactivePatientRepository reactivePatientRepository;
+
+	@BeforeEach
+	void setUp() {
+		ConnectionFactory connectionFactory = ConnectionFactories
+				.get("r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+		databaseClient = DatabaseClient.create(connectionFactory);
+		databaseClient.sql("CREATE SCHEMA abernathyclinic_mediscreen").then().block();
+		databaseClient.sql("CREATE TABLE abernathyclinic_mediscreen.patients (uuid uuid NOT NULL PRIMARY KEY, "
+				+ "last_name varchar(32), first_name varchar(32), date_of_birth date, gender varchar(32), "
+				+ "home_address varchar(128), phone_number varchar(16), version bigint NOT NULL DEFAULT 0)").then()
+				.block();
+		databaseClient.sql("CREATE TABLE abernathyclinic_mediscreen.patient_blocking_keys "
+				+ "(blocking_key varchar(64) NOT NULL, uuid uuid NOT NULL, PRIMARY KEY (blocking_key, uuid))").then()
+				.block();
+		reactivePatientRepository = new ReactivePatientRepository(databaseClient,
+				TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+	}
+
+	private Set<String> blockingKeys(UUID uuid) {
+		return new TreeSet<>(databaseClient
+				.sql("SELECT blocking_key FROM abernathyclinic_mediscreen.patient_blocking_keys WHERE uuid = :uuid")
+				.bind("uuid", uuid).map((row, rowMetadata) -> row.get("blocking_key", String.class)).all()
+				.collectList().block());
+	}
+
+	private UUID insert(String firstName) {
+		return reactivePatientRepository.insert(
+				new Patient("lastName", firstName, LocalDate.of(2000, 1, 1), "gender", null, "123.456.789")).block();
+	}
+
+	@DisplayName("POST : /patient then GET : /patient/{UUID}")
+	@Test
+	void givenSavingAPatient_whenFindById_thenItReturnThePatientSaved() {
+		UUID uuid = insert("firstName");
+
+		StepVerifier.create(reactivePatientRepository.findById(uuid)).assertNext(patient -> {
+			assertThat(patient.getUuid()).isEqualTo(uuid);
+			assertThat(patient.getFirstName()).isEqualTo("firstName");
+			assertThat(patient.getHomeAddress()).isNull();
+			assertThat(patient.getVersion()).isZero();
+		}).verifyComplete();
+		StepVerifier.create(reactivePatientRepository.findByLastNameAndFirstName("lastName", "firstName"))
+				.expectNextCount(1).verifyComplete();
+	}
+
+	@DisplayName("GET : /patient with a page token")
+	@Test
+	void givenGettingThePatientsPageByPage_whenFindByUuidGreaterThan_thenEachPageSeeksAfterThePreviousOne() {
+		insert("first");
+		insert("second");
+		insert("third");
+
+		Patient lastOfFirstPage = reactivePatientRepository.findAllByOrderByUuidAsc(2).last().block();
+
+		StepVerifier.create(reactivePatientRepository.findByUuidGreaterThanOrderByUuidAsc(lastOfFirstPage.getUuid(), 2))
+				.expectNextCount(1).verifyComplete();
+	}
+
+	@DisplayName("PATCH : /patient/{uuid}")
+	@Test
+	void givenPatchingAPatient_whenPatch_thenOnlyTheProvidedFieldsAreUpdatedAndTheVersionChecked() {
+		UUID uuid = insert("firstName");
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setPhoneNumber("111.111.111");
+		patientPatch.setVersion(0L);
+
+		StepVerifier.create(reactivePatientRepository.patch(uuid, patientPatch)).expectNext(1).verifyComplete();
+		StepVerifier.create(reactivePatientRepository.patch(uuid, patientPatch)).expectNext(0).verifyComplete();
+		StepVerifier.create(reactivePatientRepository.findById(uuid)).assertNext(patient -> {
+			assertThat(patient.getPhoneNumber()).isEqualTo("111.111.111");
+			assertThat(patient.getFirstName()).isEqualTo("firstName");
+			assertThat(patient.getVersion()).isEqualTo(1);
+		}).verifyComplete();
+	}
+
+	@DisplayName("DELETE : /patient/{uuid}")
+	@Test
+	void givenDeletingAPatient_whenDeleteByUuid_thenItReturnTheNumberOfPatientsDeleted() {
+		UUID uuid = insert("firstName");
+
+		StepVerifier.create(reactivePatientRepository.deleteByUuid(uuid)).expectNext(1).verifyComplete();
+		StepVerifier.create(reactivePatientRepository.deleteByUuid(uuid)).expectNext(0).verifyComplete();
+		StepVerifier.create(reactivePatientRepository.existsById(uuid)).expectNext(false).verifyComplete();
+	}
+
+	@DisplayName("POST, PATCH then DELETE : /patient/{uuid} refresh the blocking keys")
+	@Test
+	void givenWritingAPatient_whenInsertPatchAndDelete_thenItsBlockingKeysFollowItsCurrentState() {
+		// ARRANGE
+		UUID uuid = insert("firstName");
+		assertThat(blockingKeys(uuid)).isEqualTo(BlockingKeys.of("lastName", "firstName", LocalDate.of(2000, 1, 1),
+				"123.456.789"));
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setLastName("otherName");
+		patientPatch.setPhoneNumber("111.111.111");
+
+		// ACT
+		reactivePatientRepository.patch(uuid, patientPatch).block();
+
+		// ASSERT
+		assertThat(blockingKeys(uuid)).isEqualTo(BlockingKeys.of("otherName", "firstName", LocalDate.of(2000, 1, 1),
+				"111.111.111"));
+		reactivePatientRepository.deleteByUuid(uuid).block();
+		assertThat(blockingKeys(uuid)).isEmpty();
+	}
+
+}
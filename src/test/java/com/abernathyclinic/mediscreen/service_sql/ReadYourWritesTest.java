@@ -0,0 +1,153 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import javax.servlet.http.Cookie;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReadYourWritesFilter;
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReplicaRoutingDataSource;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+/**
+ * The primary and the replica are two H2 databases, the replica never receiving
+ * the writes: it lags behind forever. <br>
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("l2cache")
+@TestPropertySource(properties = {
+		"spring.datasource.url=jdbc:h2:mem:read-your-writes-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"patient.datasource.read-your-writes-window=PT1M" })
+class ReadYourWritesTest {
+
+	private static final String REPLICA_URL = "jdbc:h2:mem:read-your-writes-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+	private static boolean replicaCreated;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	private final JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(
+			new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+	@DynamicPropertySource
+	static synchronized void replica(DynamicPropertyRegistry registry) throws SQLException {
+		// Called for every test, the replica outlives the connection and is created once
+		if (!replicaCreated) {
+			try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+				ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__baseline.sql"));
+				ScriptUtils.executeSqlScript(connection,
+						new ClassPathResource("db/migration/h2/V6__patient_blocking_keys.sql"));
+			}
+			replicaCreated = true;
+		}
+		registry.add("patient.datasource.replica-urls", () -> REPLICA_URL);
+	}
+
+	private UUID insertOnThePrimaryAndTheReplica() {
+		UUID uuid = UUID.randomUUID();
+		String insert = "INSERT INTO abernathyclinic_mediscreen.patients(uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number) "
+				+ "VALUES (?, 'lastNameReplica', 'firstNameReplica', DATE '1980-01-01', 'gender', 'homeAddress', '123.456.789')";
+		jdbcTemplate.update(insert, uuid);
+		replicaJdbcTemplate.update(insert, uuid);
+		return uuid;
+	}
+
+	private static Cookie readYourWritesCookie() {
+		return new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(System.currentTimeMillis() + 60000));
+	}
+
+	@DisplayName("A patient read by another client right after a patch is loaded from the primary")
+	@Test
+	void givenAPatchedPatient_whenAnotherClientReadsIt_thenTheOldVersionOfTheReplicaIsNotCached() throws Exception {
+		// ARRANGE
+		UUID uuid = insertOnThePrimaryAndTheReplica();
+		mockMvc.perform(get("/patient/" + uuid)).andExpect(jsonPath("$.gender").value("gender"));
+
+		// ACT
+		Cookie cookie = mockMvc
+				.perform(patch("/patient/" + uuid).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"gender\":\"patched\"}"))
+				.andExpect(status().isOk()).andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+
+		// ASSERT
+		mockMvc.perform(get("/patient/" + uuid)).andExpect(jsonPath("$.gender").value("patched"));
+		mockMvc.perform(get("/patient/" + uuid).cookie(cookie)).andExpect(jsonPath("$.gender").value("patched"));
+		mockMvc.perform(get("/patient/" + uuid)).andExpect(jsonPath("$.gender").value("patched"));
+	}
+
+	@DisplayName("A client reading its own writes doesn't get the cached patient")
+	@Test
+	void givenACachedPatientWrittenElsewhere_whenAClientPinnedToThePrimaryReadsIt_thenThePrimaryIsRead()
+			throws Exception {
+		// ARRANGE
+		UUID uuid = insertOnThePrimaryAndTheReplica();
+		mockMvc.perform(get("/patient/" + uuid)).andExpect(jsonPath("$.gender").value("gender"));
+		// Written by another instance, this one doesn't know it
+		jdbcTemplate.update(
+				"UPDATE abernathyclinic_mediscreen.patients SET gender = 'written', version = version + 1 WHERE uuid = ?",
+				uuid);
+
+		// ACT & ASSERT
+		mockMvc.perform(get("/patient/" + uuid).cookie(readYourWritesCookie()))
+				.andExpect(jsonPath("$.gender").value("written"));
+	}
+
+	@DisplayName("The second-level cache is refreshed by the primary and not filled by the replica after a write")
+	@Test
+	void givenAPatchedPatient_whenReadThroughTheSecondLevelCache_thenTheClientPinnedToThePrimaryReadsThePatch() {
+		// ARRANGE
+		UUID uuid = insertOnThePrimaryAndTheReplica();
+		patientRepository.findById(uuid);
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setGender("patched");
+
+		// ACT
+		patientRepository.patch(uuid, patientPatch);
+
+		// ASSERT
+		// Not pinned, the client reads the replica which doesn't have the patch yet, without caching it
+		assertEquals("gender", patientRepository.findById(uuid).get().getGender());
+		ReplicaRoutingDataSource.pinToPrimary(true);
+		try {
+			assertEquals("patched", patientRepository.findById(uuid).get().getGender());
+		} finally {
+			ReplicaRoutingDataSource.pinToPrimary(false);
+		}
+		// The version read from the primary is the one cached
+		assertEquals("patched", patientRepository.findById(uuid).get().getGender());
+	}
+}
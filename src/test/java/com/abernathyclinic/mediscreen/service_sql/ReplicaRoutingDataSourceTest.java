@@ -0,0 +1,152 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReadYourWritesFilter;
+import com.abernathyclinic.mediscreen.service_sql.datasource.ReplicaRoutingDataSource;
+
+class ReplicaRoutingDataSourceTest {
+
+	private final DataSource primary = mock(DataSource.class);
+	private final DataSource firstReplica = mock(DataSource.class);
+	private final DataSource secondReplica = mock(DataSource.class);
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection firstReplicaConnection = mock(Connection.class);
+	private final Connection secondReplicaConnection = mock(Connection.class);
+
+	private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		when(primary.getConnection()).thenReturn(primaryConnection);
+		when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+		when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-0", firstReplica);
+		replicas.put("replica-1", secondReplica);
+		replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		ReplicaRoutingDataSource.pinToPrimary(false);
+	}
+
+	@DisplayName("The writes go to the primary")
+	@Test
+	void givenATransactionNotReadOnly_whenGetConnection_thenThePrimaryIsUsed() throws SQLException {
+		assertSame(primaryConnection, replicaRoutingDataSource.getConnection());
+	}
+
+	@DisplayName("The read-only transactions go to the replicas in turn")
+	@Test
+	void givenReadOnlyTransactions_whenGetConnection_thenTheReplicasAreUsedInTurn() throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertSame(firstReplicaConnection, replicaRoutingDataSource.getConnection());
+		assertSame(secondReplicaConnection, replicaRoutingDataSource.getConnection());
+		assertSame(firstReplicaConnection, replicaRoutingDataSource.getConnection());
+	}
+
+	@DisplayName("A failing replica is ejected and its reads go to the next one")
+	@Test
+	void givenAReplicaFailing_whenGetConnection_thenItIsEjected() throws SQLException {
+		when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertSame(secondReplicaConnection, replicaRoutingDataSource.getConnection());
+		assertSame(secondReplicaConnection, replicaRoutingDataSource.getConnection());
+		assertSame(secondReplicaConnection, replicaRoutingDataSource.getConnection());
+		verify(firstReplica, times(1)).getConnection();
+	}
+
+	@DisplayName("The reads go to the primary when every replica is ejected")
+	@Test
+	void givenEveryReplicaFailing_whenGetConnection_thenThePrimaryIsUsed() throws SQLException {
+		when(firstReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+		when(secondReplica.getConnection()).thenThrow(new IllegalStateException("Failed to initialize pool"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertSame(primaryConnection, replicaRoutingDataSource.getConnection());
+	}
+
+	@DisplayName("A thread pinned to the primary reads from the primary")
+	@Test
+	void givenThePrimaryPinned_whenGetConnection_thenThePrimaryIsUsed() throws SQLException {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		ReplicaRoutingDataSource.pinToPrimary(true);
+
+		assertSame(primaryConnection, replicaRoutingDataSource.getConnection());
+	}
+
+	@DisplayName("A write sets the read-your-writes cookie and is served by the primary")
+	@Test
+	void givenAWrite_whenFilter_thenTheCookieIsSetAndThePrimaryIsUsed() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		Connection connection = filter(new MockHttpServletRequest("PATCH", "/patient/1"), response);
+
+		assertNotNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+		assertSame(primaryConnection, connection);
+	}
+
+	@DisplayName("A read within the read-your-writes window is served by the primary")
+	@Test
+	void givenAReadWithinTheWindow_whenFilter_thenThePrimaryIsUsed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patient/1");
+		request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+				Long.toString(System.currentTimeMillis() + 5000)));
+
+		assertSame(primaryConnection, filter(request, new MockHttpServletResponse()));
+	}
+
+	@DisplayName("A read after the read-your-writes window is served by a replica")
+	@Test
+	void givenAReadAfterTheWindow_whenFilter_thenAReplicaIsUsed() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patient/1");
+		request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+				Long.toString(System.currentTimeMillis() - 1000)));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertSame(firstReplicaConnection, filter(request, response));
+		assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+	}
+
+	private Connection filter(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception {
+		Connection[] connection = new Connection[1];
+		new ReadYourWritesFilter(Duration.ofSeconds(5)).doFilter(request, response, (req, res) -> {
+			TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+			try {
+				connection[0] = replicaRoutingDataSource.getConnection();
+			} catch (SQLException exception) {
+				throw new IllegalStateException(exception);
+			}
+		});
+		return connection[0];
+	}
+}
@@ -0,0 +1,90 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.abernathyclinic.mediscreen.service_sql.cache.SecondLevelCacheConfiguration;
+import com.abernathyclinic.mediscreen.service_sql.model.Patient;
+import com.abernathyclinic.mediscreen.service_sql.model.PatientPatch;
+import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
+
+@DataJpaTest
+@ActiveProfiles("l2cache")
+@Import(SecondLevelCacheConfiguration.class)
+// Each call runs in its own transaction and persistence context, as from the controller
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+	private static final UUID SEEDED_UUID = UUID.fromString("b42a8ef5-8baa-4bc2-89aa-d18cdc3239f9");
+
+	@Autowired
+	private PatientRepository patientRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		sessionFactory.getCache().evictAllRegions();
+		statistics = sessionFactory.getStatistics();
+		statistics.clear();
+	}
+
+	@DisplayName("A patient read twice is read once from the database")
+	@Test
+	void givenReadingAPatientTwice_whenFindById_thenTheSecondReadIsServedByTheCache() {
+		patientRepository.findById(SEEDED_UUID);
+		patientRepository.findById(SEEDED_UUID);
+
+		assertEquals(1, statistics.getSecondLevelCacheMissCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+	}
+
+	@DisplayName("A patient looked up twice by name is queried once")
+	@Test
+	void givenLookingUpAPatientTwiceByName_whenFindByLastNameAndFirstName_thenTheSecondLookupIsServedByTheCache() {
+		patientRepository.findByLastNameAndFirstName("lastName", "firstName");
+		patientRepository.findByLastNameAndFirstName("lastName", "firstName");
+
+		assertEquals(1, statistics.getQueryCacheMissCount());
+		assertEquals(1, statistics.getQueryCacheHitCount());
+	}
+
+	@DisplayName("A patched patient is read again from the database")
+	@Test
+	void givenPatchingACachedPatient_whenFindById_thenThePatchIsRead() {
+		Patient patient = patientRepository.save(new Patient("lastNameCache", "firstNameCache",
+				LocalDate.of(1980, 1, 1), "gender", "homeAddress", "123.456.789"));
+		patientRepository.findById(patient.getUuid());
+		PatientPatch patientPatch = new PatientPatch();
+		patientPatch.setGender("patched");
+
+		patientRepository.patch(patient.getUuid(), patientPatch);
+
+		assertEquals("patched", patientRepository.findById(patient.getUuid()).get().getGender());
+		assertEquals(1, patientRepository.findByLastNameAndFirstName("lastNameCache", "firstNameCache").size());
+		patientRepository.deleteByUuid(patient.getUuid());
+		assertTrue(patientRepository.findById(patient.getUuid()).isEmpty());
+		assertTrue(patientRepository.findByLastNameAndFirstName("lastNameCache", "firstNameCache").isEmpty());
+	}
+}
@@ -0,0 +1,150 @@
+package com.abernathyclinic.mediscreen.service_sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.abernathyclinic.mediscreen.service_sql.coalescing.SingleFlight;
+import com.abernathyclinic.mediscreen.service_sql.exception.ServiceOverloadedException;
+
+class SingleFlightTest {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	private String slowCall() {
+		calls.incrementAndGet();
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return "patient";
+	}
+
+	private Future<String> executeInBackground(SingleFlight<String, String> singleFlight) {
+		return executor.submit(() -> singleFlight.execute("key", this::slowCall));
+	}
+
+	private static void awaitWaiting(SingleFlight<String, String> singleFlight, int waiting)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (singleFlight.getWaiting() < waiting && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+	}
+
+	@DisplayName("The identical calls made at the same time share one call")
+	@Test
+	void givenConcurrentIdenticalCalls_whenExecute_thenTheCallIsRunOnceAndItsResultShared() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 10, Duration.ofSeconds(5));
+
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			results.add(executeInBackground(singleFlight));
+		}
+		awaitWaiting(singleFlight, 5);
+		release.countDown();
+
+		for (Future<String> result : results) {
+			assertEquals("patient", result.get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(1, calls.get());
+		assertEquals(1, singleFlight.getExecuted());
+		assertEquals(5, singleFlight.getShared());
+	}
+
+	@DisplayName("The callers beyond the bound of a key are refused")
+	@Test
+	void givenMoreWaitersThanTheBound_whenExecute_thenTheNextCallerIsRefused() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 1, Duration.ofSeconds(5));
+		Future<String> leader = executeInBackground(singleFlight);
+		Future<String> follower = executeInBackground(singleFlight);
+		awaitWaiting(singleFlight, 1);
+
+		assertThrows(ServiceOverloadedException.class, () -> singleFlight.execute("key", this::slowCall));
+
+		release.countDown();
+		assertEquals("patient", leader.get(5, TimeUnit.SECONDS));
+		assertEquals("patient", follower.get(5, TimeUnit.SECONDS));
+		assertEquals(1, singleFlight.getRejected());
+	}
+
+	@DisplayName("A caller waiting longer than the timeout is refused")
+	@Test
+	void givenACallSlowerThanTheTimeout_whenExecute_thenTheWaitingCallerIsRefused() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 10, Duration.ofMillis(50));
+		Future<String> leader = executeInBackground(singleFlight);
+		while (calls.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		assertThrows(ServiceOverloadedException.class, () -> singleFlight.execute("key", this::slowCall));
+
+		release.countDown();
+		assertEquals("patient", leader.get(5, TimeUnit.SECONDS));
+		assertEquals(1, singleFlight.getTimedOut());
+	}
+
+	@DisplayName("The exception of the call is thrown to all its callers")
+	@Test
+	void givenAFailingCall_whenExecute_thenTheWaitingCallersGetItsException() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 10, Duration.ofSeconds(5));
+		IllegalStateException failure = new IllegalStateException("The database is down");
+		Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+			slowCall();
+			throw failure;
+		}));
+		while (calls.get() == 0) {
+			Thread.sleep(1);
+		}
+		Future<String> follower = executeInBackground(singleFlight);
+		awaitWaiting(singleFlight, 1);
+		release.countDown();
+
+		assertSame(failure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+		assertSame(failure,
+				assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS)).getCause());
+		assertEquals(1, calls.get());
+	}
+
+	@DisplayName("A call started before a write isn't shared with the calls made after it")
+	@Test
+	void givenAnInvalidation_whenExecute_thenTheCallInFlightIsNotJoined() throws Exception {
+		SingleFlight<String, String> singleFlight = new SingleFlight<>("test", 10, Duration.ofSeconds(5));
+		Future<String> leader = executeInBackground(singleFlight);
+		while (calls.get() == 0) {
+			Thread.sleep(1);
+		}
+
+		singleFlight.invalidate();
+
+		assertEquals("after the write", singleFlight.execute("key", () -> "after the write"));
+		release.countDown();
+		assertEquals("patient", leader.get(5, TimeUnit.SECONDS));
+		assertEquals(2, singleFlight.getExecuted());
+		assertEquals(0, singleFlight.getShared());
+	}
+}
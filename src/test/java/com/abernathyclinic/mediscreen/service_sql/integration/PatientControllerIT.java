@@ -3,6 +3,7 @@ package com.abernathyclinic.mediscreen.service_sql.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -22,6 +23,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -31,6 +33,8 @@ import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
 @AutoConfigureMockMvc
 @Transactional
 @AutoConfigureTestDatabase(replace = Replace.NONE)
+// The patient expected by the tests is loaded after the migrations
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration/{vendor},classpath:db/seed")
 class PatientControllerIT {
 
 	@Autowired
@@ -106,12 +110,27 @@ class PatientControllerIT {
 		assertEquals(200, status);
 	}
 
+	@DisplayName("GET : /patient/export")
+	@Test
+	void givenExportingAllPatients_whenExportPatients_thenItStreamsThePatientsAsNewlineDelimitedJSON()
+			throws Exception {
+		// ACT
+		MvcResult mvcResult = mockMvc.perform(get("/patient/export")).andReturn();
+		MockHttpServletResponse response = mockMvc.perform(asyncDispatch(mvcResult)).andDo(print()).andReturn()
+				.getResponse();
+
+		// ASSERT
+		assertEquals(200, response.getStatus());
+		assertEquals("application/x-ndjson", response.getContentType());
+		assertEquals(patientRepository.count(), response.getContentAsString().split("\n").length);
+	}
+
 	@DisplayName("POST : /patient")
 	@Test
 	void givenSavingAPatient_whenSavePatient_thenItSaveThePatientInTheDataBase() throws Exception {
 		// ACT
 		MvcResult mvcResult = mockMvc.perform(post("/patient").contentType(MediaType.APPLICATION_JSON).content(
-				"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"dateOfBirth\",\"gender\": \"gender\"}"))
+				"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
 				.andDo(print()).andReturn();
 		MockHttpServletResponse response = mvcResult.getResponse();
 
@@ -141,7 +160,7 @@ class PatientControllerIT {
 		// ACT
 		MvcResult mvcResult = mockMvc
 				.perform(put("/patient/" + uuidOfThePatientInDB).contentType(MediaType.APPLICATION_JSON).content(
-						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"dateOfBirth\",\"gender\": \"gender\"}"))
+						"{\"lastName\": \"lastName\",\"firstName\": \"firstName\",\"dateOfBirth\": \"2000-01-01\",\"gender\": \"gender\"}"))
 				.andDo(print()).andReturn();
 		MockHttpServletResponse response = mvcResult.getResponse();
 
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
@@ -13,12 +14,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
 
 import com.abernathyclinic.mediscreen.service_sql.model.Patient;
 import com.abernathyclinic.mediscreen.service_sql.repository.PatientRepository;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = Replace.NONE)
+// The patient expected by the tests is loaded after the migrations
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration/{vendor},classpath:db/seed")
 class PatientRepositoryIT {
 
 	@Autowired
@@ -40,7 +44,7 @@ class PatientRepositoryIT {
 	@DisplayName("GET : /patient/lastName&firstName")
 	@Test
 	void givenGettingASpecificPatient_whenGetPatient_thenItReturnTheRightPatientFromTheDataBase() {
-		assertTrue(patientRepository.findByLastNameAndFirstName("lastName", "firstName").isPresent());
+		assertEquals(1, patientRepository.findByLastNameAndFirstName("lastName", "firstName").size());
 	}
 
 	@DisplayName("GET : /patient")
@@ -52,28 +56,28 @@ class PatientRepositoryIT {
 	@DisplayName("POST : /patient")
 	@Test
 	void givenSavingAPatient_whenSavePatient_thenItSaveThePatientInTheDataBase() {
-		Patient patientToSave = new Patient("lastNameSave", "firstNameSave", "dateOfBirthSave", "genderSave",
+		Patient patientToSave = new Patient("lastNameSave", "firstNameSave", LocalDate.of(2000, 1, 1), "genderSave",
 				"homeAddressSave", "phoneNumberSave");
 		patientRepository.save(patientToSave);
 
-		assertTrue(patientRepository.findByLastNameAndFirstName("lastNameSave", "firstNameSave").isPresent());
+		assertEquals(1, patientRepository.findByLastNameAndFirstName("lastNameSave", "firstNameSave").size());
 	}
 
 	@DisplayName("PUT : /patient/{uuid}")
 	@Test
 	void givenUpdatingAPatient_whenUpdatePatient_thenItUpdateThePatientInTheDataBase() {
-		Patient patientToUpdate = patientRepository.findByLastNameAndFirstName("lastName", "firstName").get();
+		Patient patientToUpdate = patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0);
 		patientToUpdate.setGender("Ternary");
 		patientRepository.save(patientToUpdate);
 
 		assertEquals("Ternary",
-				patientRepository.findByLastNameAndFirstName("lastName", "firstName").get().getGender());
+				patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0).getGender());
 	}
 
 	@DisplayName("DELETE : /patient/{uuid}")
 	@Test
 	void givenDeletingAPatient_whenDeletePatient_thenItDeleteThePatientInTheDataBase() {
-		patientRepository.delete(patientRepository.findByLastNameAndFirstName("lastName", "firstName").get());
+		patientRepository.delete(patientRepository.findByLastNameAndFirstName("lastName", "firstName").get(0));
 		assertTrue(patientRepository.findByLastNameAndFirstName("lastName", "firstName").isEmpty());
 	}
 
@@ -0,0 +1,5 @@
+-- Patient the integration tests expect in the PostgreSQL database, loaded after the migrations.
+INSERT INTO abernathyclinic_mediscreen.patients(
+	uuid, last_name, first_name, date_of_birth, gender, home_address, phone_number)
+VALUES ('b42a8ef5-8baa-4bc2-89aa-d18cdc3239f9', 'lastName', 'firstName', '1970-01-01', 'Binary', 'homeAddress', '123.456.789')
+ON CONFLICT (uuid) DO NOTHING;